@@ -0,0 +1,57 @@
+package calc;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Бенчмарк цепочки операций add/subtract/multiply/divide над памятью калькулятора.
+ * Операнды подобраны так, чтобы значение в памяти оставалось ограниченным.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ArithmeticBenchmark {
+    private NumberSystemConverter calculator; // Калькулятор с состоянием
+    private double addend;                    // Слагаемое и вычитаемое
+    private double factor;                    // Множитель и делитель
+
+    @Setup
+    public void setup() {
+        calculator = new NumberSystemConverter();
+        calculator.setMemory(1000);
+        addend = 7.5;
+        factor = 1.0001;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(4)
+    public double operationChain() {
+        calculator.add(addend);
+        calculator.multiply(factor);
+        calculator.subtract(addend);
+        return calculator.divide(factor);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(4)
+    public double operationChainViaEnum() {
+        Operation.ADD.apply(calculator, addend);
+        Operation.MULTIPLY.apply(calculator, factor);
+        Operation.SUBTRACT.apply(calculator, addend);
+        return Operation.DIVIDE.apply(calculator, factor);
+    }
+}
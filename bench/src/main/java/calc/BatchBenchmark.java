@@ -0,0 +1,68 @@
+package calc;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Бенчмарк пакетного режима: сценарий из множества сессий, разделенных
+ * командой c, выполняется последовательно BatchProcessor и параллельно
+ * ParallelBatchProcessor с разным количеством потоков. Лог не ведется,
+ * вывод собирается в памяти.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+    private static final int SESSIONS = 2000;       // Сессий в сценарии
+    private static final int SESSION_LINES = 100;   // Операций в сессии
+
+    @Param({"1", "2", "4", "8"})
+    private int threads;   // Потоков для параллельного выполнения
+
+    private String script; // Текст сценария
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder(SESSIONS * SESSION_LINES * 6);
+        for (int s = 0; s < SESSIONS; s++) {
+            text.append(s == 0 ? "" : "c\n").append(random.nextInt(1000) + 1).append('\n');
+            for (int i = 0; i < SESSION_LINES; i++) {
+                text.append("+-*/".charAt(random.nextInt(4))).append(random.nextInt(9) + 1).append('\n');
+            }
+        }
+        script = text.toString();
+    }
+
+    @Benchmark
+    public int sequential() throws IOException {
+        StringWriter out = new StringWriter(script.length() * 6);
+        new BatchProcessor(null, null).run(new StringReader(script), out);
+        return out.getBuffer().length();
+    }
+
+    @Benchmark
+    public int parallel() throws IOException {
+        StringWriter out = new StringWriter(script.length() * 6);
+        new ParallelBatchProcessor(null, threads).run(new StringReader(script), out);
+        return out.getBuffer().length();
+    }
+}
@@ -0,0 +1,65 @@
+package calc;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Бенчмарк перевода больших чисел: BigRadixConverter в сравнении с
+ * BigInteger.toString и конструктором BigInteger(String, radix).
+ * Размер числа задается в битах, чтобы было видно, как растет время.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BigRadixBenchmark {
+    @Param({"2", "10", "16"})
+    public int radix;
+
+    @Param({"10000", "100000", "1000000"})
+    public int bits;
+
+    private BigInteger value; // Переводимое число
+    private String text;      // Его строковое представление
+
+    @Setup
+    public void setup() {
+        value = new BigInteger(bits, new Random(42));
+        text = value.toString(radix);
+    }
+
+    @Benchmark
+    public String toStringWithConverter() {
+        return BigRadixConverter.toString(value, radix);
+    }
+
+    @Benchmark
+    public String toStringWithBigInteger() {
+        return value.toString(radix);
+    }
+
+    @Benchmark
+    public BigInteger parseWithConverter() {
+        return BigRadixConverter.parseInteger(text, radix);
+    }
+
+    @Benchmark
+    public BigInteger parseWithBigInteger() {
+        return new BigInteger(text, radix);
+    }
+}
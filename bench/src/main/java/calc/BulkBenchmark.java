@@ -0,0 +1,67 @@
+package calc;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Бенчмарк обработки массива: цикл с вызовами Calculator для каждого элемента,
+ * последовательный и параллельный варианты BulkOperations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BulkBenchmark {
+    @Param({"1024", "1048576"})
+    public int size;
+
+    private double[] values;                  // Исходные данные
+    private double[] result;                  // Результат
+    private NumberSystemConverter calculator; // Калькулятор для поэлементного цикла
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextDouble() * 1000;
+        }
+        result = new double[size];
+        calculator = new NumberSystemConverter();
+    }
+
+    @Benchmark
+    public double[] calculatorLoop() {
+        for (int i = 0; i < size; i++) {
+            calculator.setMemory(values[i]);
+            result[i] = calculator.multiply(1.5);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public double[] bulkSequential() {
+        BulkOperations.applySequential(Operation.MULTIPLY, values, 1.5, result);
+        return result;
+    }
+
+    @Benchmark
+    public double[] bulkParallel() {
+        BulkOperations.apply(Operation.MULTIPLY, values, 1.5, result);
+        return result;
+    }
+}
@@ -0,0 +1,66 @@
+package calc;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Бенчмарк вычисления цепочки операций: последовательный проход и параллельное
+ * префиксное сканирование ChainEvaluator в приближенном и точном режимах.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChainBenchmark {
+    @Param({"1024", "1048576"})
+    public int size;
+
+    private Operation[] operations; // Операции цепочки
+    private double[] operands;      // Операнды
+    private double[] results;       // Промежуточные результаты
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        Operation[] all = Operation.values();
+        operations = new Operation[size];
+        operands = new double[size];
+        for (int i = 0; i < size; i++) {
+            operations[i] = all[random.nextInt(all.length)];
+            operands[i] = random.nextDouble() * 2 + 0.01;
+        }
+        results = new double[size];
+    }
+
+    @Benchmark
+    public double[] sequential() {
+        ChainEvaluator.evaluateSequential(1, operations, operands, results);
+        return results;
+    }
+
+    @Benchmark
+    public double[] approximate() {
+        ChainEvaluator.evaluate(1, operations, operands, results, ChainEvaluator.Mode.APPROXIMATE);
+        return results;
+    }
+
+    @Benchmark
+    public double[] exact() {
+        ChainEvaluator.evaluate(1, operations, operands, results, ChainEvaluator.Mode.EXACT);
+        return results;
+    }
+}
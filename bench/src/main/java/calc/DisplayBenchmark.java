@@ -0,0 +1,82 @@
+package calc;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Бенчмарк формирования текста результата в стиле CalculatorUI.displayResult
+ * и строки лога OperationLogFormat. Вывод в консоль не измеряется:
+ * текст собирается в памяти.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DisplayBenchmark {
+    private static final int VALUES = 1024; // Количество разных значений (степень двойки)
+
+    private double[] values;                 // Отображаемые значения
+    private int index;                       // Номер следующего значения
+    private NumberSystemConverter calculator; // Калькулятор для пути через setRadix/formatResult
+    private RadixFormatter formatter;        // Переиспользуемый форматтер
+    private StringBuilder output;            // Переиспользуемый буфер вывода
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        values = new double[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            values[i] = (random.nextInt(2_000_000) - 1_000_000) + (random.nextBoolean() ? random.nextDouble() : 0);
+        }
+        calculator = new NumberSystemConverter();
+        formatter = new RadixFormatter();
+        output = new StringBuilder(256);
+    }
+
+    @Benchmark
+    public String displayWithSetRadix() {
+        double result = values[index++ & (VALUES - 1)];
+        StringBuilder text = new StringBuilder();
+        calculator.setRadix(10);
+        text.append(String.format("%s: %s%n", "Десятичная", calculator.formatResult(result)));
+        calculator.setRadix(2);
+        text.append(String.format("Двоичная: %s%n", calculator.formatResult(result)));
+        calculator.setRadix(8);
+        text.append(String.format("Восьмеричная: %s%n", calculator.formatResult(result)));
+        calculator.setRadix(16);
+        text.append(String.format("Шестнадцатеричная: %s%n", calculator.formatResult(result)));
+        calculator.setRadix(10);
+        return text.toString();
+    }
+
+    @Benchmark
+    public int displayWithRadixFormatter() {
+        double result = values[index++ & (VALUES - 1)];
+        formatter.format(result);
+        output.setLength(0);
+        formatter.appendTo(10, output.append("Десятичная: ")).append(System.lineSeparator());
+        formatter.appendTo(2, output.append("Двоичная: ")).append(System.lineSeparator());
+        formatter.appendTo(8, output.append("Восьмеричная: ")).append(System.lineSeparator());
+        formatter.appendTo(16, output.append("Шестнадцатеричная: ")).append(System.lineSeparator());
+        return output.length();
+    }
+
+    @Benchmark
+    public String logLine() {
+        double result = values[index++ & (VALUES - 1)];
+        return OperationLogFormat.formatLine(Operation.ADD, 1, result, formatter);
+    }
+}
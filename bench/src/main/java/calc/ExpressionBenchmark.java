@@ -0,0 +1,53 @@
+package calc;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Бенчмарк выражений: разбор без кэша, получение из кэша по тексту
+ * и вычисление уже скомпилированного выражения для меняющейся памяти.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpressionBenchmark {
+    private static final String EXPRESSION = "(0x1F + 0b101) * 3 / 7 + m * 1.5 - (m - 2) / 4";
+
+    private ExpressionCompiler compiler;    // Компилятор с кэшем
+    private CompiledExpression compiled;    // Заранее скомпилированное выражение
+    private double memory;                  // Меняющееся значение памяти
+
+    @Setup
+    public void setup() {
+        compiler = new ExpressionCompiler(64);
+        compiled = compiler.compile(EXPRESSION);
+    }
+
+    @Benchmark
+    public double compileWithoutCache() {
+        return new ExpressionCompiler(1).evaluate(EXPRESSION, memory++);
+    }
+
+    @Benchmark
+    public double evaluateViaCache() {
+        return compiler.evaluate(EXPRESSION, memory++);
+    }
+
+    @Benchmark
+    public double evaluateCompiled() {
+        return compiled.evaluate(memory++);
+    }
+}
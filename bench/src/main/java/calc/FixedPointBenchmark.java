@@ -0,0 +1,134 @@
+package calc;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Бенчмарк арифметики с фиксированной точкой (FixedPointCalculator, 4 знака)
+ * в сравнении с double (NumberSystemConverter) и BigDecimal: цепочка
+ * add/multiply/subtract/divide, как в ArithmeticBenchmark, а также разбор
+ * и форматирование числа с дробной частью.
+ * BigDecimal сравнивается дважды: BigDecimalCalculator (точные операции,
+ * деление до 100 цифр) и BigDecimal с округлением до 4 знаков после каждой
+ * операции — это те же результаты, что дает FixedPointCalculator.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FixedPointBenchmark {
+    private static final int SCALE = 4;                                  // Знаков после точки
+    private static final RoundingMode ROUNDING = RoundingMode.HALF_EVEN; // Округление
+    private static final String TEXT = "12345.6789";                     // Число для разбора
+
+    private NumberSystemConverter doubleCalculator;  // Вычисления в double
+    private BigDecimalCalculator bigDecimalCalculator; // Вычисления в BigDecimal
+    private FixedPointCalculator fixedCalculator;    // Вычисления с фиксированной точкой
+    private BigDecimal scaledValue;                  // Значение BigDecimal с округлением до SCALE
+    private double addend;                           // Слагаемое и вычитаемое
+    private double factor;                           // Множитель и делитель
+    private BigDecimal bigAddend;                    // Слагаемое BigDecimal
+    private BigDecimal bigFactor;                    // Множитель BigDecimal
+    private long fixedAddend;                        // Слагаемое в единицах 10^-SCALE
+    private long fixedFactor;                        // Множитель в единицах 10^-SCALE
+    private long fixedValue;                         // Число для форматирования
+    private BigDecimal bigValue;                     // Число для форматирования
+
+    @Setup
+    public void setup() {
+        addend = 7.5;
+        factor = 1.0001;
+        bigAddend = new BigDecimal("7.5");
+        bigFactor = new BigDecimal("1.0001");
+        fixedAddend = FixedPointCalculator.parseNumber("7.5", 10, SCALE, ROUNDING);
+        fixedFactor = FixedPointCalculator.parseNumber("1.0001", 10, SCALE, ROUNDING);
+
+        doubleCalculator = new NumberSystemConverter();
+        doubleCalculator.setMemory(1000);
+        bigDecimalCalculator = new BigDecimalCalculator();
+        bigDecimalCalculator.setValue(BigDecimal.valueOf(1000));
+        fixedCalculator = new FixedPointCalculator(SCALE, ROUNDING);
+        fixedCalculator.setUnits(FixedPointCalculator.parseNumber("1000", 10, SCALE, ROUNDING));
+        scaledValue = BigDecimal.valueOf(1000).setScale(SCALE);
+
+        fixedValue = FixedPointCalculator.parseNumber(TEXT, 10, SCALE, ROUNDING);
+        bigValue = new BigDecimal(TEXT);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(4)
+    public double doubleChain() {
+        doubleCalculator.add(addend);
+        doubleCalculator.multiply(factor);
+        doubleCalculator.subtract(addend);
+        return doubleCalculator.divide(factor);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(4)
+    public BigDecimal bigDecimalCalculatorChain() {
+        bigDecimalCalculator.add(bigAddend);
+        bigDecimalCalculator.multiply(bigFactor);
+        bigDecimalCalculator.subtract(bigAddend);
+        return bigDecimalCalculator.divide(bigFactor);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(4)
+    public BigDecimal bigDecimalScaledChain() {
+        BigDecimal value = scaledValue.add(bigAddend);
+        value = value.multiply(bigFactor).setScale(SCALE, ROUNDING);
+        value = value.subtract(bigAddend);
+        scaledValue = value.divide(bigFactor, SCALE, ROUNDING);
+        return scaledValue;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(4)
+    public long fixedChain() {
+        fixedCalculator.addUnits(fixedAddend);
+        fixedCalculator.multiplyUnits(fixedFactor);
+        fixedCalculator.subtractUnits(fixedAddend);
+        return fixedCalculator.divideUnits(fixedFactor);
+    }
+
+    @Benchmark
+    public double parseDouble() {
+        return NumberSystemConverter.parseNumber(TEXT, 10);
+    }
+
+    @Benchmark
+    public BigDecimal parseBigDecimal() {
+        return BigDecimalCalculator.parseNumber(TEXT, 10);
+    }
+
+    @Benchmark
+    public long parseFixed() {
+        return FixedPointCalculator.parseNumber(TEXT, 10, SCALE, ROUNDING);
+    }
+
+    @Benchmark
+    public String formatBigDecimalHex() {
+        return BigRadixConverter.format(bigValue, 16);
+    }
+
+    @Benchmark
+    public String formatFixedHex() {
+        return FixedPointCalculator.format(fixedValue, SCALE, 16);
+    }
+}
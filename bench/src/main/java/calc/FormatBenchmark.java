@@ -0,0 +1,93 @@
+package calc;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Бенчмарк форматирования: NumberSystemConverter.formatNumber для одной системы
+ * счисления и RadixFormatter для всех четырех представлений сразу.
+ * Значения чередуются, чтобы кэш последнего числа в RadixFormatter не срабатывал.
+ * Вариант с RadixViewCache показывает выигрыш на повторяющихся результатах.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FormatBenchmark {
+    private static final int VALUES = 1024; // Количество разных значений (степень двойки)
+
+    @Param({"2", "8", "10", "16"})
+    public int radix;
+
+    @Param({"integer", "fraction"})
+    public String kind;
+
+    private double[] values;            // Форматируемые значения
+    private int index;                  // Номер следующего значения
+    private RadixFormatter formatter;   // Переиспользуемый форматтер
+    private RadixFormatter cached;      // Форматтер с кэшем представлений
+    private StringBuilder sink;         // Переиспользуемый приемник
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        values = new double[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            double value = random.nextInt(2_000_000) - 1_000_000;
+            values[i] = kind.equals("fraction") ? value + random.nextDouble() : value;
+        }
+        formatter = new RadixFormatter();
+        cached = new RadixFormatter(new RadixViewCache(-256, 1024, VALUES * 2));
+        sink = new StringBuilder(64);
+    }
+
+    @Benchmark
+    public String formatNumber() {
+        return NumberSystemConverter.formatNumber(values[index++ & (VALUES - 1)], radix);
+    }
+
+    @Benchmark
+    public int formatAllRadixesWithFormatNumber() {
+        double value = values[index++ & (VALUES - 1)];
+        return NumberSystemConverter.formatNumber(value, 2).length()
+            + NumberSystemConverter.formatNumber(value, 8).length()
+            + NumberSystemConverter.formatNumber(value, 10).length()
+            + NumberSystemConverter.formatNumber(value, 16).length();
+    }
+
+    @Benchmark
+    public int formatAllRadixesWithRadixFormatter() {
+        formatter.format(values[index++ & (VALUES - 1)]);
+        sink.setLength(0);
+        formatter.appendTo(2, sink);
+        formatter.appendTo(8, sink);
+        formatter.appendTo(10, sink);
+        formatter.appendTo(16, sink);
+        return sink.length();
+    }
+
+    @Benchmark
+    public int formatAllRadixesWithViewCache() {
+        cached.format(values[index++ & (VALUES - 1)]);
+        sink.setLength(0);
+        cached.appendTo(2, sink);
+        cached.appendTo(8, sink);
+        cached.appendTo(10, sink);
+        cached.appendTo(16, sink);
+        return sink.length();
+    }
+}
@@ -0,0 +1,106 @@
+package calc;
+
+import java.util.Random;
+
+/**
+ * Проверка истории шагов CalculatorHistory на миллионе шагов: оценка памяти
+ * memoryFootprint не превышает заявленной в README (около 9,2 МБ на миллион
+ * шагов), а после случайных переходов moveTo, undo и redo состояние
+ * калькулятора совпадает с записанным при выполнении шагов бит в бит.
+ *
+ * Запуск после сборки модуля bench:
+ *     java -cp target/benchmarks.jar calc.HistoryCheck
+ * При расхождении программа завершается с исключением IllegalStateException.
+ */
+public class HistoryCheck {
+    private static final int STEPS = 1_000_000;            // Шагов в истории
+    private static final int JUMPS = 100_000;              // Случайных переходов
+    private static final long MAX_FOOTPRINT = 9_300_000L;  // Предел оценки памяти на миллион шагов в байтах
+
+    /**
+     * Точка входа проверки.
+     * @param args начальное значение генератора случайных чисел (необязательно)
+     */
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 42;
+        Random random = new Random(seed);
+        Calculator calculator = new NumberSystemConverter(RadixViewCache.getDefault());
+        CalculatorHistory history = new CalculatorHistory(calculator);
+
+        // Состояние после каждого шага: биты памяти и признак ожидания первого числа
+        long[] memory = new long[STEPS + 1];
+        boolean[] first = new boolean[STEPS + 1];
+        memory[0] = Double.doubleToRawLongBits(calculator.getMemory());
+        first[0] = calculator.isFirstOperation();
+        for (int step = 1; step <= STEPS; step++) {
+            if (calculator.isFirstOperation()) {
+                double value = random.nextGaussian() * 1000;
+                calculator.setMemory(value);
+                history.recordSet(value);
+            } else if (random.nextInt(1000) == 0) {
+                calculator.reset();
+                history.recordReset();
+            } else {
+                Operation operation = Operation.values()[random.nextInt(Operation.values().length)];
+                double number = randomOperand(random);
+                operation.apply(calculator, number);
+                history.recordOperation(operation, number);
+            }
+            memory[step] = Double.doubleToRawLongBits(calculator.getMemory());
+            first[step] = calculator.isFirstOperation();
+        }
+
+        long footprint = history.memoryFootprint();
+        System.out.printf("Шагов: %d, оценка памяти: %d байт (%.2f МБ)%n", STEPS, footprint, footprint / 1e6);
+        if (footprint > MAX_FOOTPRINT) {
+            throw new IllegalStateException("Оценка памяти " + footprint + " байт больше " + MAX_FOOTPRINT);
+        }
+
+        for (int i = 0; i < JUMPS; i++) {
+            switch (random.nextInt(3)) {
+                case 0:
+                    history.moveTo(random.nextInt(STEPS + 1));
+                    break;
+                case 1:
+                    history.undo(random.nextInt(200));
+                    break;
+                default:
+                    history.redo(random.nextInt(200));
+                    break;
+            }
+            int position = (int) history.getPosition();
+            if (Double.doubleToRawLongBits(calculator.getMemory()) != memory[position]
+                    || calculator.isFirstOperation() != first[position]) {
+                throw new IllegalStateException("Состояние после перехода на шаг " + position
+                    + " не совпадает с записанным: " + calculator.getMemory()
+                    + " вместо " + Double.longBitsToDouble(memory[position]));
+            }
+        }
+        System.out.printf("Переходов: %d, состояние совпадает бит в бит%n", JUMPS);
+    }
+
+    /**
+     * Возвращает случайный ненулевой операнд: небольшие числа, дроби
+     * и изредка очень большие и очень малые значения.
+     * @param random генератор случайных чисел
+     * @return операнд
+     */
+    private static double randomOperand(Random random) {
+        double number;
+        switch (random.nextInt(4)) {
+            case 0:
+                number = random.nextInt(100) + 1;
+                break;
+            case 1:
+                number = random.nextDouble() * 10 + 0.001;
+                break;
+            case 2:
+                number = Math.scalb(random.nextDouble() + 0.5, random.nextInt(200) - 100);
+                break;
+            default:
+                number = 1 + random.nextGaussian() * 1e-3;
+                break;
+        }
+        return random.nextBoolean() ? number : -number;
+    }
+}
@@ -0,0 +1,83 @@
+package calc;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Бенчмарк записи лога: построчная запись CustomFileWriter.writeLine,
+ * запись пачки строк writeLines/appendLines и асинхронная запись AsyncLogWriter.
+ * Время указывается в пересчете на одну строку.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LogWriterBenchmark {
+    private static final int BATCH = 100; // Строк в одной пачке
+    private static final String LINE =
+        "Операция: сложение, Число: 1,00, Результат: 10,00 (BIN: 1010, OCT: 12, DEC: 10, HEX: A)";
+
+    private File file;                  // Временный файл лога
+    private CustomFileWriter writer;    // Синхронная запись
+    private AsyncLogWriter asyncWriter; // Асинхронная запись
+    private List<String> lines;         // Пачка строк
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        file = File.createTempFile("calculator-bench", ".log");
+        writer = new CustomFileWriter(file.getPath());
+        asyncWriter = new AsyncLogWriter(file.getPath() + ".async", 1 << 16, AsyncLogWriter.SyncPolicy.CLOSE, 0);
+        lines = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            lines.add(LINE);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        asyncWriter.close();
+        new File(file.getPath() + ".async").delete();
+        file.delete();
+    }
+
+    @Benchmark
+    public void writeLine() throws IOException {
+        writer.writeLine(LINE);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void writeLines() throws IOException {
+        writer.writeLines(lines);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void appendLines() throws IOException {
+        writer.appendLines(lines);
+    }
+
+    @Benchmark
+    public void asyncWriteLine() throws IOException {
+        asyncWriter.writeLine(LINE);
+    }
+}
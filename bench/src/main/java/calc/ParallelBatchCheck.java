@@ -0,0 +1,97 @@
+package calc;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+/**
+ * Проверка параллельного пакетного режима: вывод ParallelBatchProcessor
+ * совпадает с последовательным выполнением BatchProcessor на сценарии,
+ * где подряд идущие отмены пересекают несколько сбросов и возвращаются
+ * в сессию, предшествующую обоим.
+ *
+ * Запуск после сборки модуля bench:
+ *     java -cp target/benchmarks.jar calc.ParallelBatchCheck
+ * При расхождении программа завершается с исключением IllegalStateException.
+ */
+public class ParallelBatchCheck {
+    private static final int SESSION_LINES = 1100;        // Операций в сессии (больше строк задачи)
+    private static final int[] THREADS = {1, 2, 4, 8};    // Проверяемые количества потоков
+
+    /**
+     * Точка входа проверки.
+     * @param args не используются
+     * @throws IOException если произошла ошибка вывода
+     */
+    public static void main(String[] args) throws IOException {
+        String script = script();
+        String expected = runSequential(script);
+        for (int threads : THREADS) {
+            StringWriter out = new StringWriter();
+            new ParallelBatchProcessor(null, threads).run(new StringReader(script), out);
+            String actual = out.toString();
+            if (!actual.equals(expected)) {
+                throw new IllegalStateException("Вывод на " + threads + " потоках расходится с последовательным в строке "
+                    + firstDifference(expected, actual));
+            }
+        }
+        System.out.printf("Строк вывода: %d, вывод на %d вариантах числа потоков совпадает с последовательным%n",
+            expected.split("\n", -1).length - 1, THREADS.length);
+    }
+
+    /**
+     * Формирует сценарий: две сессии со сбросами и отмена, доходящая до первой из них.
+     * @return текст сценария
+     */
+    private static String script() {
+        StringBuilder script = new StringBuilder();
+        script.append("10\n");
+        appendLines(script, "+1", SESSION_LINES);
+        script.append("c\n5\n");
+        appendLines(script, "+1", SESSION_LINES);
+        script.append("c\n");
+        appendLines(script, "u", SESSION_LINES + 4);
+        script.append("+0\n");
+        return script.toString();
+    }
+
+    /**
+     * Добавляет в сценарий одну и ту же строку несколько раз.
+     * @param script сценарий
+     * @param line строка
+     * @param count количество повторений
+     */
+    private static void appendLines(StringBuilder script, String line, int count) {
+        for (int i = 0; i < count; i++) {
+            script.append(line).append('\n');
+        }
+    }
+
+    /**
+     * Выполняет сценарий последовательно.
+     * @param script текст сценария
+     * @return вывод
+     * @throws IOException если произошла ошибка вывода
+     */
+    private static String runSequential(String script) throws IOException {
+        StringWriter out = new StringWriter();
+        new BatchProcessor(null, null).run(new StringReader(script), out);
+        return out.toString();
+    }
+
+    /**
+     * Возвращает номер первой несовпадающей строки вывода (с единицы).
+     * @param expected ожидаемый вывод
+     * @param actual полученный вывод
+     * @return номер строки
+     */
+    private static int firstDifference(String expected, String actual) {
+        String[] left = expected.split("\n", -1);
+        String[] right = actual.split("\n", -1);
+        int line = 0;
+        while (line < left.length && line < right.length && left[line].equals(right[line])) {
+            line++;
+        }
+        return line + 1;
+    }
+}
@@ -0,0 +1,77 @@
+package calc;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Бенчмарк разбора чисел NumberSystemConverter.parseNumber во всех системах счисления
+ * и переиспользуемого RadixParser, читающего число прямо из строки или байтового буфера.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParseBenchmark {
+    private static final int INPUTS = 1024; // Количество разных входных строк (степень двойки)
+
+    @Param({"2", "8", "10", "16"})
+    public int radix;
+
+    private String[] inputs;    // Входные строки в выбранной системе счисления
+    private ByteBuffer bytes;   // Те же строки подряд в кодировке ASCII
+    private int[] offsets;      // Начало каждой строки в bytes
+    private RadixParser parser; // Переиспользуемый разборщик
+    private int index;          // Номер следующей строки
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        inputs = new String[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            inputs[i] = Integer.toString(random.nextInt(1_000_000), radix);
+        }
+        StringBuilder all = new StringBuilder();
+        offsets = new int[INPUTS + 1];
+        for (int i = 0; i < INPUTS; i++) {
+            offsets[i] = all.length();
+            all.append(inputs[i]);
+        }
+        offsets[INPUTS] = all.length();
+        bytes = ByteBuffer.wrap(all.toString().getBytes(StandardCharsets.US_ASCII));
+        parser = new RadixParser();
+    }
+
+    @Benchmark
+    public double parseNumber() {
+        return NumberSystemConverter.parseNumber(inputs[index++ & (INPUTS - 1)], radix);
+    }
+
+    @Benchmark
+    public double parseWithRadixParser() {
+        parser.parse(inputs[index++ & (INPUTS - 1)], radix);
+        return parser.doubleValue();
+    }
+
+    @Benchmark
+    public double parseFromByteBuffer() {
+        int i = index++ & (INPUTS - 1);
+        parser.parse(bytes, offsets[i], offsets[i + 1] - offsets[i], radix);
+        return parser.doubleValue();
+    }
+}
@@ -0,0 +1,125 @@
+package calc;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Бенчмарк холодного запуска: время от запуска процесса калькулятора до первого
+ * результата в его выводе в пакетном и интерактивном режимах, без архива классов
+ * и с архивом AppCDS, который записывает тренировочный запуск --cds-training.
+ * Калькулятор запускается из того же classpath, что и бенчмарк
+ * (target/benchmarks.jar), во временном каталоге, чтобы лог не попадал
+ * в рабочий каталог. Завершение процесса в измерение не входит.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+    private static final String BATCH_INPUT = "10\n+5\nq\n";          // Сценарий пакетного режима
+    private static final String INTERACTIVE_INPUT = "10\n10\n+5\nq\n"; // Основание, число, операция, выход
+    private static final String INTERACTIVE_RESULT = "Десятичная: ";   // Начало строки результата в диалоге
+
+    @Param({"batch", "interactive"})
+    public String mode;            // Режим запуска калькулятора
+
+    @Param({"none", "cds"})
+    public String archive;         // Без архива классов или с архивом AppCDS
+
+    private Path directory;        // Рабочий каталог запусков
+    private List<String> command;  // Команда запуска калькулятора
+    private Process process;       // Процесс текущего измерения
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, InterruptedException {
+        directory = Files.createTempDirectory("calculator-startup");
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String classPath = System.getProperty("java.class.path");
+        command = new ArrayList<>();
+        command.add(java);
+        if (archive.equals("cds")) {
+            Path jsa = directory.resolve("calculator.jsa");
+            Process training = new ProcessBuilder(java, "-XX:ArchiveClassesAtExit=" + jsa,
+                    "-cp", classPath, "calc.Main", "--cds-training")
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+            if (training.waitFor() != 0 || !Files.exists(jsa)) {
+                throw new IllegalStateException(
+                    "Не удалось записать архив AppCDS (classpath должен состоять из JAR-файлов): " + classPath);
+            }
+            command.add("-XX:SharedArchiveFile=" + jsa);
+        }
+        command.add("-cp");
+        command.add(classPath);
+        command.add("calc.Main");
+        if (mode.equals("batch")) {
+            command.add("--batch");
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void finishProcess() throws IOException, InterruptedException {
+        process.getInputStream().transferTo(OutputStream.nullOutputStream());
+        process.waitFor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public String timeToFirstResult() throws IOException {
+        boolean batch = mode.equals("batch");
+        process = new ProcessBuilder(command)
+            .directory(directory.toFile())
+            .redirectError(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        try (Writer in = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8)) {
+            in.write(batch ? BATCH_INPUT : INTERACTIVE_INPUT);
+        }
+        BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = out.readLine()) != null) {
+            if (batch ? !line.isEmpty() : line.startsWith(INTERACTIVE_RESULT)) {
+                return line;
+            }
+        }
+        throw new IllegalStateException("Калькулятор завершился, не выведя результат");
+    }
+}
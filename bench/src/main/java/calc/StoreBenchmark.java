@@ -0,0 +1,92 @@
+package calc;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Бенчмарк истории операций: агрегаты по столбцам OperationStore вне кучи
+ * и тот же подсчет по списку объектов в куче.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StoreBenchmark {
+    private static final int OPERATIONS = 1 << 22; // Операций в истории
+
+    private OperationStore store;   // История вне кучи
+    private List<Record> records;   // История в куче
+
+    /**
+     * Операция в куче.
+     */
+    private static final class Record {
+        final long timestamp; // Время
+        final int code;       // Код операции
+        final double number;  // Операнд
+        final double result;  // Результат
+
+        Record(long timestamp, int code, double number, double result) {
+            this.timestamp = timestamp;
+            this.code = code;
+            this.number = number;
+            this.result = result;
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        store = new OperationStore((long) OPERATIONS * 32, null);
+        records = new ArrayList<>(OPERATIONS);
+        for (int i = 0; i < OPERATIONS; i++) {
+            int code = random.nextInt(5);
+            double number = random.nextDouble() * 100;
+            double result = random.nextGaussian() * 1000;
+            store.append(code, number, result, i);
+            records.add(new Record(i, code, number, result));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+    }
+
+    @Benchmark
+    public OperationStore.Aggregate[] offHeapByCode() throws IOException {
+        return store.aggregateByCode(OperationStore.Column.RESULT);
+    }
+
+    @Benchmark
+    public long[] offHeapHistogram() throws IOException {
+        return store.histogram(null, -4000, 4000, 64);
+    }
+
+    @Benchmark
+    public double[] heapByCode() {
+        double[] sums = new double[5];
+        for (Record record : records) {
+            sums[record.code] += record.result;
+        }
+        return sums;
+    }
+}
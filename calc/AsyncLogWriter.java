@@ -0,0 +1,358 @@
+package calc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Класс AsyncLogWriter — асинхронный режим CustomFileWriter.
+ * Строки лога помещаются в ограниченный кольцевой буфер без блокировок,
+ * а единственный фоновый поток забирает их пачками и записывает через
+ * один постоянно открытый FileChannel. Когда буфер заполнен, writeLine
+ * ждет освобождения места (обратное давление), не теряя записей.
+ * Метод close дописывает все оставшиеся строки и закрывает файл.
+ */
+public final class AsyncLogWriter extends CustomFileWriter {
+    /**
+     * Политика принудительного сброса данных на диск (fsync).
+     */
+    public enum SyncPolicy {
+        BATCH,    // После каждой записанной пачки
+        INTERVAL, // Не чаще, чем раз в заданный интервал
+        CLOSE     // Только при закрытии
+    }
+
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;          // Размер буфера записи в байтах
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10); // Ожидание при пустом буфере
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50); // Ожидание при полном буфере
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+    private static final long CLOSED_FLAG = Long.MIN_VALUE;         // Признак закрытия в старшем бите tail
+
+    private final String[] slots;            // Ячейки кольцевого буфера
+    private final AtomicLongArray sequences; // Номера последовательности для каждой ячейки
+    private final int mask;                  // Маска индекса (емкость - 1)
+    private final AtomicLong tail;           // Следующая позиция для записи производителем (и CLOSED_FLAG)
+    private long head;                       // Следующая позиция для чтения (только фоновый поток)
+    private volatile long written;           // Сколько строк уже передано в файл
+    private volatile boolean sleeping;       // Фоновый поток ожидает новых строк
+    private volatile boolean closed;         // Запись закрыта
+    private volatile IOException failure;    // Ошибка фонового потока
+
+    private final FileChannel channel;       // Постоянно открытый файл лога
+    private final SyncPolicy syncPolicy;     // Политика сброса на диск
+    private final long syncIntervalNanos;    // Интервал сброса для политики INTERVAL
+    private final Thread worker;             // Фоновый поток записи
+
+    /**
+     * Конструктор класса. Открывает файл на добавление и запускает фоновый поток.
+     *
+     * @param filePath путь к файлу лога
+     * @param capacity емкость кольцевого буфера (округляется вверх до степени двойки)
+     * @param syncPolicy политика сброса данных на диск
+     * @param syncIntervalMillis интервал сброса в миллисекундах для политики INTERVAL
+     * @throws IOException если файл не удалось открыть
+     */
+    public AsyncLogWriter(String filePath, int capacity, SyncPolicy syncPolicy, long syncIntervalMillis) throws IOException {
+        super(filePath);
+        if (capacity < 2 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Емкость буфера должна быть от 2 до 2^30");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new String[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+        this.tail = new AtomicLong();
+        this.syncPolicy = syncPolicy;
+        this.syncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis);
+        this.channel = FileChannel.open(Paths.get(filePath),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.worker = new Thread(this::drainLoop, "calculator-log-writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Помещает строку в буфер для фоновой записи.
+     * Если буфер заполнен, ждет, пока фоновый поток освободит место.
+     *
+     * @param text текст для записи
+     * @throws IOException если запись закрыта или фоновый поток завершился с ошибкой
+     */
+    @Override
+    public void writeLine(String text) throws IOException {
+        long start = CalculatorMetrics.start();
+        while (!offer(text)) {
+            checkState();
+            LockSupport.unpark(worker);
+            LockSupport.parkNanos(this, FULL_PARK_NANOS);
+        }
+        CalculatorMetrics.recordLogWrite(start, 1);
+    }
+
+    /**
+     * Помещает строки в буфер для фоновой записи.
+     * @param lines список строк для записи
+     * @throws IOException если запись закрыта или фоновый поток завершился с ошибкой
+     */
+    @Override
+    public void appendLines(List<String> lines) throws IOException {
+        for (String line : lines) {
+            writeLine(line);
+        }
+    }
+
+    /**
+     * Перезаписывает файл списком строк, предварительно дописав все накопленные строки.
+     * @param lines список строк для записи
+     * @throws IOException если произошла ошибка при записи в файл
+     */
+    @Override
+    public void writeLines(List<String> lines) throws IOException {
+        flush();
+        super.writeLines(lines);
+    }
+
+    /**
+     * Пытается поместить строку в буфер без ожидания.
+     * @param text текст для записи
+     * @return false, если буфер заполнен
+     * @throws IOException если запись закрыта или фоновый поток завершился с ошибкой
+     */
+    public boolean offer(String text) throws IOException {
+        checkState();
+        while (true) {
+            long pos = tail.get();
+            if ((pos & CLOSED_FLAG) != 0) {
+                throw new IOException("Запись в лог уже закрыта");
+            }
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots[index] = text;
+                    sequences.lazySet(index, pos + 1);
+                    if (sleeping) {
+                        LockSupport.unpark(worker);
+                    }
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Ждет, пока все помещенные в буфер строки будут переданы в файл.
+     * @throws IOException если фоновый поток завершился с ошибкой
+     */
+    public void flush() throws IOException {
+        long target = tail.get() & ~CLOSED_FLAG;
+        while (written < target) {
+            if (failure != null) {
+                throw failure;
+            }
+            LockSupport.unpark(worker);
+            LockSupport.parkNanos(this, FULL_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Дописывает все накопленные строки, сбрасывает их на диск и закрывает файл.
+     * Признак закрытия ставится в tail атомарно, поэтому каждая строка,
+     * для которой writeLine вернул управление без ошибки, попадает в файл:
+     * фоновый поток завершается, только дописав все занятые до закрытия ячейки.
+     * @throws IOException если при записи или закрытии произошла ошибка
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        long pos;
+        while (((pos = tail.get()) & CLOSED_FLAG) == 0 && !tail.compareAndSet(pos, pos | CLOSED_FLAG)) {
+            // Повтор, если производитель занял ячейку одновременно
+        }
+        LockSupport.unpark(worker);
+        boolean interrupted = false;
+        while (worker.isAlive()) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Проверяет, что запись еще возможна.
+     * @throws IOException если запись закрыта или фоновый поток завершился с ошибкой
+     */
+    private void checkState() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (closed) {
+            throw new IOException("Запись в лог уже закрыта");
+        }
+    }
+
+    /**
+     * Основной цикл фонового потока: забирает строки пачками и пишет их в файл.
+     */
+    private void drainLoop() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        long lastSync = System.nanoTime();
+        boolean dirty = false;
+        try {
+            while (true) {
+                boolean stopping = closed;
+                int count = 0;
+                String line;
+                while (count < slots.length && (line = poll()) != null) {
+                    encode(line, buffer, encoder);
+                    put(LINE_SEPARATOR, buffer);
+                    count++;
+                }
+
+                if (count > 0) {
+                    writeOut(buffer);
+                    written = head;
+                    dirty = true;
+                    if (syncPolicy == SyncPolicy.BATCH) {
+                        channel.force(false);
+                        dirty = false;
+                    }
+                }
+
+                long now = System.nanoTime();
+                if (dirty && syncPolicy == SyncPolicy.INTERVAL && now - lastSync >= syncIntervalNanos) {
+                    channel.force(false);
+                    dirty = false;
+                    lastSync = now;
+                }
+
+                if (count == 0) {
+                    if (stopping) {
+                        long end = tail.get();
+                        if ((end & CLOSED_FLAG) != 0 && head == (end & ~CLOSED_FLAG)) {
+                            break;
+                        }
+                        // Ячейка занята, но строка еще не опубликована, или признак закрытия еще не поставлен
+                        LockSupport.parkNanos(this, FULL_PARK_NANOS);
+                        continue;
+                    }
+                    sleeping = true;
+                    if (sequences.get((int) head & mask) != head + 1 && !closed) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    sleeping = false;
+                }
+            }
+            if (dirty) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            failure = e;
+            CalculatorMetrics.recordLogFailure();
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Забирает следующую строку из кольцевого буфера.
+     * @return строка или null, если буфер пуст
+     */
+    private String poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        String value = slots[index];
+        slots[index] = null;
+        sequences.lazySet(index, head + slots.length);
+        head++;
+        return value;
+    }
+
+    /**
+     * Кодирует строку в UTF-8, при переполнении буфера записывая его в файл.
+     * @param text строка
+     * @param buffer буфер записи
+     * @param encoder кодировщик UTF-8
+     * @throws IOException если произошла ошибка записи
+     */
+    private void encode(String text, ByteBuffer buffer, CharsetEncoder encoder) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                writeOut(buffer);
+                continue;
+            }
+            if (result.isError()) {
+                result.throwException();
+            }
+            break;
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            writeOut(buffer);
+        }
+    }
+
+    /**
+     * Добавляет байты в буфер, при переполнении записывая его в файл.
+     * @param bytes байты
+     * @param buffer буфер записи
+     * @throws IOException если произошла ошибка записи
+     */
+    private void put(byte[] bytes, ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < bytes.length) {
+            writeOut(buffer);
+        }
+        buffer.put(bytes);
+    }
+
+    /**
+     * Записывает содержимое буфера в файл и очищает буфер.
+     * @param buffer буфер записи
+     * @throws IOException если произошла ошибка записи
+     */
+    private void writeOut(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,428 @@
+package calc;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Класс BatchProcessor выполняет сценарий калькулятора без диалога с пользователем.
+ * Принимает тот же синтаксис, что и CalculatorUI: первая строка сессии — число,
+ * далее строки вида +5, -3, *2, /4 и команды c (сброс), i (смена системы
+ * счисления, основание читается из следующей строки), u и r (отмена и повтор
+ * шага, u5 — пяти шагов, см. CalculatorHistory) и q (выход).
+ * Операндом может быть выражение в скобках, например +(0x1F + 0b101) * 3,
+ * а строка вида "= выражение" заменяет значение памяти результатом
+ * выражения (см. ExpressionCompiler, переменная m — текущее значение).
+ * Меню и подсказки не выводятся, каждый результат записывается одной строкой:
+ * DEC, BIN, OCT и HEX через табуляцию.
+ */
+public class BatchProcessor {
+    private static final int BUFFER_SIZE = 1 << 16; // Размер буферов чтения и записи
+    private static final int LOG_BATCH_SIZE = 4096;  // Сколько строк лога копить перед записью
+    private static final int EXPRESSION_CACHE_SIZE = 256; // Скомпилированных выражений в кэше
+
+    private final NumberSystemConverter calculator; // Основная логика вычислений
+    private final CustomFileWriter logWriter;       // Запись операций в лог (может быть null)
+    private final BinaryJournalWriter journal;      // Двоичный журнал операций (может быть null)
+    private final OperationStore store;             // История операций для агрегатов (может быть null)
+    private final RadixFormatter formatter;         // Представления результата в разных системах
+    private ExpressionCompiler expressions;         // Компилятор выражений с кэшем (создается при первом выражении)
+    private final RadixParser parser;               // Разбор операндов без промежуточных строк
+    private final CalculatorHistory history;        // История шагов для отмены и повтора
+    private final List<String> pendingLog;          // Накопленные строки лога
+    private final boolean collectLog;               // Копить строки лога без записи (для ParallelBatchProcessor)
+    private int inputRadix;                         // Текущая система счисления для ввода
+    private boolean awaitingRadix;                  // Следующая строка содержит основание
+    private long lineNumber;                        // Номер текущей строки сценария
+
+    /**
+     * Конструктор класса.
+     * @param logWriter объект для записи лога операций или null, если лог не нужен
+     * @param journal двоичный журнал операций или null, если он не нужен
+     */
+    public BatchProcessor(CustomFileWriter logWriter, BinaryJournalWriter journal) {
+        this(logWriter, journal, null, false, 10);
+    }
+
+    /**
+     * Конструктор класса с хранилищем истории операций.
+     * @param logWriter объект для записи лога операций или null, если лог не нужен
+     * @param journal двоичный журнал операций или null, если он не нужен
+     * @param store хранилище операций для агрегатов или null, если оно не нужно
+     */
+    public BatchProcessor(CustomFileWriter logWriter, BinaryJournalWriter journal, OperationStore store) {
+        this(logWriter, journal, store, false, 10);
+    }
+
+    /**
+     * Конструктор для выполнения части сценария: строки лога не записываются,
+     * а копятся до вызова takeLog().
+     * @param inputRadix система счисления ввода в начале части сценария
+     */
+    BatchProcessor(int inputRadix) {
+        this(null, null, null, true, inputRadix);
+    }
+
+    /**
+     * Общий конструктор.
+     */
+    private BatchProcessor(CustomFileWriter logWriter, BinaryJournalWriter journal, OperationStore store,
+                           boolean collectLog, int inputRadix) {
+        this.calculator = new NumberSystemConverter(RadixViewCache.getDefault());
+        this.logWriter = logWriter;
+        this.journal = journal;
+        this.store = store;
+        this.collectLog = collectLog;
+        this.formatter = new RadixFormatter(RadixViewCache.getDefault());
+        this.parser = new RadixParser();
+        this.history = new CalculatorHistory(calculator);
+        this.pendingLog = new ArrayList<>();
+        this.inputRadix = inputRadix;
+        calculator.setRadix(inputRadix);
+    }
+
+    /**
+     * Возвращает компилятор выражений, создавая его при первом обращении:
+     * сценарии без выражений не тратят на него время запуска.
+     * @return компилятор выражений
+     */
+    private ExpressionCompiler expressions() {
+        if (expressions == null) {
+            expressions = new ExpressionCompiler(EXPRESSION_CACHE_SIZE);
+        }
+        return expressions;
+    }
+
+    /**
+     * Выполняет сценарий целиком, читая его построчно.
+     * Ошибки в отдельных строках не прерывают обработку, а выводятся
+     * в виде строки "ERR номер_строки: сообщение".
+     * Результаты и лог сбрасываются, когда во входном буфере заканчиваются
+     * строки, поэтому сценарий можно передавать и по частям (например, по сети).
+     *
+     * @param in источник сценария; BufferedReader используется как есть
+     * @param out приемник результатов
+     * @throws IOException если произошла ошибка чтения, вывода или записи лога
+     */
+    public void run(Reader in, Writer out) throws IOException {
+        BufferedReader reader = in instanceof BufferedReader
+            ? (BufferedReader) in
+            : new BufferedReader(in, BUFFER_SIZE);
+        StringBuilder line = new StringBuilder(128);
+        String text;
+        try {
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+                line.setLength(0);
+                if (!processLine(text.trim(), line)) {
+                    break;
+                }
+                if (line.length() > 0) {
+                    line.append('\n');
+                    out.append(line);
+                }
+                if (!reader.ready()) {
+                    flushLog();
+                    out.flush();
+                }
+            }
+        } finally {
+            flushLog();
+            out.flush();
+        }
+    }
+
+    /**
+     * Выполняет часть сценария, уже разбитого на строки.
+     * Результаты добавляются в буфер так же, как их выводит run().
+     * @param lines строки сценария
+     * @param from номер первой строки части (от 0)
+     * @param to номер строки после последней строки части
+     * @param out буфер для результатов
+     * @return false, если встретилась команда выхода
+     */
+    boolean runLines(List<String> lines, int from, int to, StringBuilder out) {
+        StringBuilder line = new StringBuilder(128);
+        for (int i = from; i < to; i++) {
+            lineNumber = i + 1L;
+            line.setLength(0);
+            try {
+                if (!processLine(lines.get(i).trim(), line)) {
+                    return false;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // Лог только копится, запись не выполняется
+            }
+            if (line.length() > 0) {
+                out.append(line).append('\n');
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Возвращает накопленные строки лога и очищает накопитель.
+     * @return строки лога в порядке операций
+     */
+    List<String> takeLog() {
+        List<String> log = new ArrayList<>(pendingLog);
+        pendingLog.clear();
+        return log;
+    }
+
+    /**
+     * Обрабатывает одну строку сценария.
+     * @param text строка без начальных и конечных пробелов
+     * @param out буфер для строки результата
+     * @return false, если встретилась команда выхода
+     * @throws IOException если произошла ошибка записи лога
+     */
+    private boolean processLine(String text, StringBuilder out) throws IOException {
+        if (text.isEmpty()) {
+            return true;
+        }
+
+        if (awaitingRadix) {
+            awaitingRadix = false;
+            try {
+                int radix = Integer.parseInt(text);
+                calculator.setRadix(radix);
+                inputRadix = radix;
+            } catch (IllegalArgumentException e) {
+                error(out, "неверное основание системы счисления");
+            }
+            return true;
+        }
+
+        if (text.length() == 1) {
+            char command = Character.toLowerCase(text.charAt(0));
+            if (command == 'q') {
+                return false;
+            }
+            if (command == 'c') {
+                calculator.reset();
+                history.recordReset();
+                return true;
+            }
+            if (command == 'i') {
+                awaitingRadix = true;
+                return true;
+            }
+        }
+
+        char first = Character.toLowerCase(text.charAt(0));
+        if ((first == 'u' || first == 'r') && isHistoryCommand(text)) {
+            moveInHistory(first == 'u', text, out);
+            return true;
+        }
+
+        try {
+            if (text.charAt(0) == '=') {
+                double value = expressions().evaluate(text.substring(1), calculator.getMemory());
+                calculator.setMemory(value);
+                history.recordSet(value);
+                if (journal != null) {
+                    journal.appendSet(value);
+                }
+                if (store != null) {
+                    store.appendSet(value);
+                }
+                appendResult(out, value);
+                return true;
+            }
+
+            if (calculator.isFirstOperation()) {
+                double firstNumber = parseOperand(text, 0);
+                calculator.setMemory(firstNumber);
+                history.recordSet(firstNumber);
+                if (journal != null) {
+                    journal.appendSet(firstNumber);
+                }
+                if (store != null) {
+                    store.appendSet(firstNumber);
+                }
+                appendResult(out, firstNumber);
+                return true;
+            }
+
+            char operation = text.charAt(0);
+            int numberStart = 1;
+            if (operation != '+' && operation != '-' && operation != '*' && operation != '/') {
+                operation = '+';
+                numberStart = 0;
+            }
+
+            double number = parseOperand(text, numberStart);
+            double result;
+            switch (operation) {
+                case '+':
+                    result = calculator.add(number);
+                    logOperation(Operation.ADD, number, result);
+                    break;
+                case '-':
+                    result = calculator.subtract(number);
+                    logOperation(Operation.SUBTRACT, number, result);
+                    break;
+                case '*':
+                    result = calculator.multiply(number);
+                    logOperation(Operation.MULTIPLY, number, result);
+                    break;
+                default:
+                    if (number == 0) {
+                        CalculatorMetrics.recordDivisionByZero();
+                        error(out, "деление на ноль невозможно");
+                        return true;
+                    }
+                    result = calculator.divide(number);
+                    logOperation(Operation.DIVIDE, number, result);
+                    break;
+            }
+            appendResult(out, result);
+        } catch (NumberFormatException e) {
+            error(out, "некорректное число");
+        } catch (IllegalArgumentException e) {
+            error(out, e.getMessage());
+        } catch (ArithmeticException e) {
+            CalculatorMetrics.recordDivisionByZero();
+            error(out, "деление на ноль невозможно");
+        }
+        return true;
+    }
+
+    /**
+     * Проверяет, является ли строка командой отмены или повтора: u или r
+     * и необязательное количество шагов.
+     * @param text строка сценария, начинающаяся с u или r
+     * @return true для команды истории
+     */
+    static boolean isHistoryCommand(String text) {
+        for (int i = 1; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if ((c < '0' || c > '9') && !Character.isWhitespace(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Отменяет или повторяет шаги и выводит восстановленный результат.
+     * Если восстановлено начальное состояние сессии, строка результата пуста.
+     * Восстановленное значение записывается в двоичный журнал как ввод числа,
+     * чтобы воспроизведение журнала давало то же состояние.
+     * @param undo true — отмена, false — повтор
+     * @param text команда с необязательным количеством шагов
+     * @param out буфер для строки результата
+     * @throws IOException если не удалось записать журнал
+     */
+    private void moveInHistory(boolean undo, String text, StringBuilder out) throws IOException {
+        String count = text.substring(1).trim();
+        long steps;
+        try {
+            steps = count.isEmpty() ? 1 : Long.parseLong(count);
+        } catch (NumberFormatException e) {
+            error(out, "некорректное количество шагов");
+            return;
+        }
+        long moved = undo ? history.undo(steps) : history.redo(steps);
+        if (moved == 0) {
+            error(out, undo ? "нечего отменять" : "нечего повторять");
+            return;
+        }
+        if (journal != null) {
+            journal.appendSet(calculator.getMemory());
+        }
+        if (!calculator.isFirstOperation()) {
+            appendResult(out, calculator.getMemory());
+        }
+    }
+
+    /**
+     * Разбирает операнд: выражение в скобках или число в текущей системе счисления.
+     * Число разбирается прямо из строки сценария, без выделения подстроки.
+     * @param text строка сценария
+     * @param from начало операнда в строке
+     * @return значение операнда
+     * @throws NumberFormatException если число записано неверно
+     * @throws IllegalArgumentException если выражение содержит ошибку
+     * @throws ArithmeticException при делении на ноль внутри выражения
+     */
+    private double parseOperand(String text, int from) {
+        int start = from;
+        while (start < text.length() && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        if (start < text.length() && text.charAt(start) == '(') {
+            return expressions().evaluate(text.substring(start), calculator.getMemory());
+        }
+        if (!parser.parse(text, from, text.length() - from, inputRadix)) {
+            throw new NumberFormatException(parser.errorMessage());
+        }
+        return parser.doubleValue();
+    }
+
+    /**
+     * Добавляет строку результата во всех системах счисления.
+     * @param out буфер для строки результата
+     * @param result результат вычисления
+     */
+    private void appendResult(StringBuilder out, double result) {
+        formatter.format(result);
+        formatter.appendTo(10, out).append('\t');
+        formatter.appendTo(2, out).append('\t');
+        formatter.appendTo(8, out).append('\t');
+        formatter.appendTo(16, out);
+    }
+
+    /**
+     * Добавляет строку с описанием ошибки.
+     * @param out буфер для строки результата
+     * @param message текст ошибки
+     */
+    private void error(StringBuilder out, String message) {
+        out.append("ERR ").append(lineNumber).append(": ").append(message);
+    }
+
+    /**
+     * Записывает операцию в историю, копит запись о ней и периодически
+     * сбрасывает ее в лог-файл.
+     * Формат строки совпадает с логом интерактивного режима.
+     *
+     * @param operation выполненная операция
+     * @param number введенное число
+     * @param result результат операции
+     * @throws IOException если произошла ошибка при записи в лог
+     */
+    private void logOperation(Operation operation, double number, double result) throws IOException {
+        history.recordOperation(operation, number);
+        if (journal != null) {
+            journal.append(operation, number, result);
+        }
+        if (store != null) {
+            store.append(operation, number, result);
+        }
+        if (logWriter == null && !collectLog) {
+            return;
+        }
+        pendingLog.add(OperationLogFormat.formatLine(operation, number, result, formatter));
+        if (pendingLog.size() >= LOG_BATCH_SIZE) {
+            flushLog();
+        }
+    }
+
+    /**
+     * Дописывает накопленные строки в лог-файл одной операцией.
+     * @throws IOException если произошла ошибка при записи в лог
+     */
+    private void flushLog() throws IOException {
+        if (logWriter == null || pendingLog.isEmpty()) {
+            return;
+        }
+        logWriter.appendLines(pendingLog);
+        pendingLog.clear();
+    }
+}
@@ -0,0 +1,184 @@
+package calc;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Класс BigDecimalCalculator — калькулятор произвольной точности на BigDecimal.
+ * Сложение, вычитание и умножение выполняются точно; деление точное, если
+ * результат — конечная десятичная дробь, иначе округляется до заданной точности.
+ *
+ * Методы с параметром double принимают число через BigDecimal.valueOf
+ * (то есть 0.1 считается ровно 0,1). Для очень больших операндов следует
+ * использовать перегрузки с BigDecimal и разбор parseNumber.
+ * Представления в системах счисления формирует BigRadixConverter без
+ * ограничения разрядности.
+ */
+public class BigDecimalCalculator extends Calculator {
+    private static final MathContext DEFAULT_DIVISION_CONTEXT = new MathContext(100, RoundingMode.HALF_EVEN);
+
+    private final MathContext divisionContext; // Точность неточного деления
+    private BigDecimal value;                  // Текущее значение в памяти
+    private int currentRadix;                  // Текущая система счисления
+
+    /**
+     * Конструктор класса. Неточное деление округляется до 100 значащих цифр.
+     */
+    public BigDecimalCalculator() {
+        this(DEFAULT_DIVISION_CONTEXT);
+    }
+
+    /**
+     * Конструктор класса с заданной точностью деления.
+     * @param divisionContext точность и округление для неточного деления
+     */
+    public BigDecimalCalculator(MathContext divisionContext) {
+        super();
+        this.divisionContext = divisionContext;
+        this.value = BigDecimal.ZERO;
+        this.currentRadix = 10;
+    }
+
+    /**
+     * Устанавливает текущую систему счисления.
+     * @param radix система счисления (2, 8, 10 или 16)
+     * @throws IllegalArgumentException если система счисления не поддерживается
+     */
+    public void setRadix(int radix) {
+        if (radix != 2 && radix != 8 && radix != 10 && radix != 16) {
+            throw new IllegalArgumentException("Поддерживаются только системы счисления 2, 8, 10 и 16");
+        }
+        this.currentRadix = radix;
+    }
+
+    /**
+     * Возвращает точное значение из памяти калькулятора.
+     * @return текущее значение
+     */
+    public BigDecimal getValue() {
+        return value;
+    }
+
+    /**
+     * Устанавливает точное значение в память калькулятора.
+     * @param value новое значение
+     */
+    public void setValue(BigDecimal value) {
+        this.value = value;
+        isFirstOperation = false;
+    }
+
+    /**
+     * Возвращает значение из памяти, приближенное до double.
+     * @return текущее значение
+     */
+    @Override
+    public double getMemory() {
+        return value.doubleValue();
+    }
+
+    @Override
+    public void setMemory(double value) {
+        setValue(BigDecimal.valueOf(value));
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.value = BigDecimal.ZERO;
+    }
+
+    @Override
+    public double add(double num) {
+        return add(BigDecimal.valueOf(num)).doubleValue();
+    }
+
+    @Override
+    public double subtract(double num) {
+        return subtract(BigDecimal.valueOf(num)).doubleValue();
+    }
+
+    @Override
+    public double multiply(double num) {
+        return multiply(BigDecimal.valueOf(num)).doubleValue();
+    }
+
+    @Override
+    public double divide(double num) throws ArithmeticException {
+        return divide(BigDecimal.valueOf(num)).doubleValue();
+    }
+
+    /**
+     * Точно прибавляет число к памяти.
+     * @param num число для сложения
+     * @return результат операции
+     */
+    public BigDecimal add(BigDecimal num) {
+        value = value.add(num);
+        return value;
+    }
+
+    /**
+     * Точно вычитает число из памяти.
+     * @param num число для вычитания
+     * @return результат операции
+     */
+    public BigDecimal subtract(BigDecimal num) {
+        value = value.subtract(num);
+        return value;
+    }
+
+    /**
+     * Точно умножает память на число.
+     * @param num множитель
+     * @return результат операции
+     */
+    public BigDecimal multiply(BigDecimal num) {
+        value = value.multiply(num);
+        return value;
+    }
+
+    /**
+     * Делит память на число: точно, если частное конечно, иначе с округлением.
+     * @param num делитель
+     * @return результат операции
+     * @throws ArithmeticException при попытке деления на ноль
+     */
+    public BigDecimal divide(BigDecimal num) throws ArithmeticException {
+        if (num.signum() == 0) {
+            throw new ArithmeticException("Деление на ноль невозможно!");
+        }
+        try {
+            value = value.divide(num);
+        } catch (ArithmeticException e) {
+            // Бесконечная дробь: округляем до заданной точности
+            value = value.divide(num, divisionContext);
+        }
+        return value;
+    }
+
+    @Override
+    public String formatResult(double number) {
+        return BigRadixConverter.format(BigDecimal.valueOf(number), currentRadix);
+    }
+
+    /**
+     * Форматирует точное значение памяти в текущей системе счисления.
+     * @return представление текущего значения
+     */
+    public String formatValue() {
+        return BigRadixConverter.format(value, currentRadix);
+    }
+
+    /**
+     * Разбирает число произвольной длины с дробной частью в заданной системе счисления.
+     * @param input строковое представление числа
+     * @param radix основание системы счисления (2, 8, 10 или 16)
+     * @return точное значение
+     * @throws NumberFormatException если строка не может быть преобразована в число
+     */
+    public static BigDecimal parseNumber(String input, int radix) throws NumberFormatException {
+        return BigRadixConverter.parse(input.trim(), radix);
+    }
+}
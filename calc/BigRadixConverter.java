@@ -0,0 +1,309 @@
+package calc;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Класс BigRadixConverter переводит большие числа (BigInteger, BigDecimal)
+ * между системами счисления 2, 8, 10 и 16 и строками.
+ *
+ * Для систем 2, 8 и 16 цифры вырезаются прямо из битов числа, поэтому
+ * перевод линеен по длине. Десятичный перевод выполняется методом
+ * «разделяй и властвуй»: число делится (или собирается умножением) на
+ * степени 10^(2^k), а BigInteger для больших чисел использует
+ * субквадратичные умножение и деление. Так перевод масштабируется
+ * до чисел в миллионы цифр.
+ *
+ * Отрицательные числа записываются со знаком минус (без дополнительного кода).
+ */
+public final class BigRadixConverter {
+    private static final char[] DIGITS = "0123456789ABCDEF".toCharArray(); // Таблица цифр
+    private static final int FRACTION_DIGITS = 4;       // Цифр дробной части в системах 2, 8 и 16
+    private static final int DECIMAL_THRESHOLD = 1024;  // До скольких бит/цифр переводить напрямую
+    private static final double LOG10_2 = Math.log10(2);
+
+    private static volatile BigInteger[] powersOfTen = {BigInteger.TEN}; // Кэш степеней 10^(2^k)
+
+    private BigRadixConverter() {
+    }
+
+    /**
+     * Переводит целое число в строку в заданной системе счисления.
+     * @param value число
+     * @param radix система счисления (2, 8, 10 или 16)
+     * @return строковое представление числа
+     * @throws IllegalArgumentException если система счисления не поддерживается
+     */
+    public static String toString(BigInteger value, int radix) {
+        int shift = shiftOf(radix);
+        StringBuilder out = new StringBuilder();
+        if (value.signum() < 0) {
+            out.append('-');
+            value = value.negate();
+        }
+        if (shift == 0) {
+            appendDecimal(value, out, 0);
+        } else {
+            appendPowerOfTwo(value, shift, out);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Разбирает целое число в заданной системе счисления.
+     * @param text строка с необязательным знаком и цифрами
+     * @param radix система счисления (2, 8, 10 или 16)
+     * @return число
+     * @throws NumberFormatException если строка не является числом
+     * @throws IllegalArgumentException если система счисления не поддерживается
+     */
+    public static BigInteger parseInteger(CharSequence text, int radix) {
+        int shift = shiftOf(radix);
+        int start = 0;
+        boolean negative = false;
+        if (text.length() > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            start = 1;
+        }
+        if (start == text.length()) {
+            throw new NumberFormatException("Пустое число");
+        }
+        BigInteger value = shift == 0
+            ? parseDecimal(text, start, text.length())
+            : parsePowerOfTwo(text, start, text.length(), shift);
+        return negative ? value.negate() : value;
+    }
+
+    /**
+     * Форматирует число в заданной системе счисления.
+     * В десятичной системе дробная часть выводится точно; в системах 2, 8 и 16 —
+     * четырьмя цифрами с округлением, как в RadixFormatter.
+     *
+     * @param value число
+     * @param radix система счисления (2, 8, 10 или 16)
+     * @return строковое представление числа
+     * @throws IllegalArgumentException если система счисления не поддерживается
+     */
+    public static String format(BigDecimal value, int radix) {
+        int shift = shiftOf(radix);
+        StringBuilder out = new StringBuilder();
+        if (value.signum() < 0) {
+            out.append('-');
+            value = value.negate();
+        }
+
+        if (shift == 0) {
+            value = value.stripTrailingZeros();
+            if (value.scale() <= 0) {
+                appendDecimal(value.toBigIntegerExact(), out, 0);
+                return out.toString();
+            }
+            BigInteger unscaled = value.unscaledValue();
+            int scale = value.scale();
+            BigInteger[] parts = unscaled.divideAndRemainder(powerOfTen(scale));
+            appendDecimal(parts[0], out, 0);
+            out.append('.');
+            appendDecimal(parts[1], out, scale);
+            return out.toString();
+        }
+
+        BigInteger integer = value.toBigInteger();
+        int scale = 1 << (shift * FRACTION_DIGITS);
+        int fraction = value.subtract(new BigDecimal(integer))
+            .multiply(BigDecimal.valueOf(scale))
+            .setScale(0, RoundingMode.HALF_UP)
+            .intValueExact();
+        if (fraction == scale) {
+            integer = integer.add(BigInteger.ONE);
+            fraction = 0;
+        }
+        appendPowerOfTwo(integer, shift, out);
+        if (fraction != 0) {
+            out.append('.');
+            for (int i = FRACTION_DIGITS - 1; i >= 0; i--) {
+                out.append(DIGITS[(fraction >>> (i * shift)) & (radix - 1)]);
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Разбирает число с необязательной дробной частью в заданной системе счисления.
+     * Результат точный: дробь с основанием-степенью двойки всегда конечна в десятичной системе.
+     *
+     * @param text строка вида [-]цифры[.цифры]
+     * @param radix система счисления (2, 8, 10 или 16)
+     * @return число
+     * @throws NumberFormatException если строка не является числом
+     * @throws IllegalArgumentException если система счисления не поддерживается
+     */
+    public static BigDecimal parse(String text, int radix) {
+        int shift = shiftOf(radix);
+        int point = text.indexOf('.');
+        if (point < 0) {
+            return new BigDecimal(parseInteger(text, radix));
+        }
+        int fractionLength = text.length() - point - 1;
+        if (fractionLength == 0) {
+            throw new NumberFormatException("Нет цифр после точки: " + text);
+        }
+        BigInteger unscaled = parseInteger(new StringBuilder(text.length() - 1)
+            .append(text, 0, point)
+            .append(text, point + 1, text.length()), radix);
+        if (shift == 0) {
+            return new BigDecimal(unscaled, fractionLength);
+        }
+        // x / 2^m = x * 5^m / 10^m
+        int bits = shift * fractionLength;
+        return new BigDecimal(unscaled.multiply(BigInteger.valueOf(5).pow(bits)), bits);
+    }
+
+    /**
+     * Возвращает количество бит на цифру (0 для десятичной системы).
+     */
+    private static int shiftOf(int radix) {
+        switch (radix) {
+            case 2:
+                return 1;
+            case 8:
+                return 3;
+            case 10:
+                return 0;
+            case 16:
+                return 4;
+            default:
+                throw new IllegalArgumentException("Поддерживаются только системы счисления 2, 8, 10 и 16");
+        }
+    }
+
+    /**
+     * Записывает неотрицательное число в системе со степенью двойки, вырезая цифры из битов.
+     */
+    private static void appendPowerOfTwo(BigInteger value, int shift, StringBuilder out) {
+        byte[] bytes = value.toByteArray(); // Big-endian, старший байт может быть нулевым
+        int digits = Math.max((value.bitLength() + shift - 1) / shift, 1);
+        out.ensureCapacity(out.length() + digits);
+        for (int d = digits - 1; d >= 0; d--) {
+            int bit = d * shift;
+            int digit = 0;
+            for (int k = shift - 1; k >= 0; k--) {
+                digit = (digit << 1) | bitAt(bytes, bit + k);
+            }
+            out.append(DIGITS[digit]);
+        }
+    }
+
+    /**
+     * Возвращает бит с номером index (0 — младший) из массива big-endian.
+     */
+    private static int bitAt(byte[] bytes, int index) {
+        int byteIndex = bytes.length - 1 - (index >>> 3);
+        if (byteIndex < 0) {
+            return 0;
+        }
+        return (bytes[byteIndex] >>> (index & 7)) & 1;
+    }
+
+    /**
+     * Разбирает цифры системы со степенью двойки, укладывая их биты прямо в массив.
+     */
+    private static BigInteger parsePowerOfTwo(CharSequence text, int from, int to, int shift) {
+        int radix = 1 << shift;
+        long totalBits = (long) (to - from) * shift;
+        byte[] bytes = new byte[(int) ((totalBits + 7) >>> 3)];
+        int bit = 0;
+        for (int i = to - 1; i >= from; i--) {
+            int digit = Character.digit(text.charAt(i), radix);
+            if (digit < 0) {
+                throw new NumberFormatException("Недопустимая цифра '" + text.charAt(i) + "' в " + radix + "-ичной системе");
+            }
+            for (int k = 0; k < shift; k++, bit++) {
+                if (((digit >>> k) & 1) != 0) {
+                    bytes[bytes.length - 1 - (bit >>> 3)] |= (byte) (1 << (bit & 7));
+                }
+            }
+        }
+        return new BigInteger(1, bytes);
+    }
+
+    /**
+     * Записывает неотрицательное число в десятичной системе.
+     * @param value число
+     * @param out приемник
+     * @param width минимальная ширина с ведущими нулями (0 — без дополнения)
+     */
+    private static void appendDecimal(BigInteger value, StringBuilder out, int width) {
+        if (value.bitLength() <= DECIMAL_THRESHOLD) {
+            String digits = value.toString();
+            for (int i = digits.length(); i < width; i++) {
+                out.append('0');
+            }
+            out.append(digits);
+            return;
+        }
+        // Делим на 10^(2^k), где 2^k — примерно половина количества цифр
+        int estimatedDigits = (int) (value.bitLength() * LOG10_2) + 1;
+        int k = 31 - Integer.numberOfLeadingZeros(estimatedDigits / 2);
+        int half = 1 << k;
+        BigInteger[] parts = value.divideAndRemainder(powerOfTenSquared(k));
+        appendDecimal(parts[0], out, width > half ? width - half : 0);
+        appendDecimal(parts[1], out, half);
+    }
+
+    /**
+     * Разбирает десятичные цифры, собирая число из половин: старшая * 10^(2^k) + младшая.
+     */
+    private static BigInteger parseDecimal(CharSequence text, int from, int to) {
+        int length = to - from;
+        if (length <= DECIMAL_THRESHOLD / 3) {
+            for (int i = from; i < to; i++) {
+                if (Character.digit(text.charAt(i), 10) < 0) {
+                    throw new NumberFormatException("Недопустимая цифра '" + text.charAt(i) + "' в 10-ичной системе");
+                }
+            }
+            return new BigInteger(text.subSequence(from, to).toString());
+        }
+        int k = 31 - Integer.numberOfLeadingZeros(length / 2);
+        int half = 1 << k;
+        BigInteger high = parseDecimal(text, from, to - half);
+        BigInteger low = parseDecimal(text, to - half, to);
+        return high.multiply(powerOfTenSquared(k)).add(low);
+    }
+
+    /**
+     * Возвращает 10^n, собирая его из кэшированных степеней 10^(2^k).
+     */
+    private static BigInteger powerOfTen(int n) {
+        BigInteger result = BigInteger.ONE;
+        for (int k = 0; n != 0; k++, n >>>= 1) {
+            if ((n & 1) != 0) {
+                result = result.multiply(powerOfTenSquared(k));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает 10^(2^k) из кэша, при необходимости достраивая его.
+     */
+    private static BigInteger powerOfTenSquared(int k) {
+        BigInteger[] powers = powersOfTen;
+        if (k < powers.length) {
+            return powers[k];
+        }
+        synchronized (BigRadixConverter.class) {
+            powers = powersOfTen;
+            if (k >= powers.length) {
+                BigInteger[] extended = new BigInteger[k + 1];
+                System.arraycopy(powers, 0, extended, 0, powers.length);
+                for (int i = powers.length; i <= k; i++) {
+                    extended[i] = extended[i - 1].multiply(extended[i - 1]);
+                }
+                powersOfTen = extended;
+                powers = extended;
+            }
+            return powers[k];
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package calc;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Класс BinaryJournalWriter записывает операции калькулятора в компактный
+ * двоичный журнал — альтернативу текстовому логу CustomFileWriter.
+ *
+ * Формат файла: заголовок из 16 байт (сигнатура, версия, размер записи)
+ * и далее записи фиксированной длины по 32 байта в порядке little-endian:
+ * время в миллисекундах (long), число (double), результат (double),
+ * код операции (int) и резерв (int). Код 0 означает установку значения:
+ * ввод первого числа, результат выражения или состояние после отмены
+ * и повтора; остальные коды соответствуют Operation.getCode().
+ */
+public class BinaryJournalWriter implements Closeable {
+    static final int MAGIC = 0x4A4C4143;  // Сигнатура "CALJ"
+    static final int VERSION = 1;         // Версия формата
+    static final int HEADER_SIZE = 16;    // Размер заголовка в байтах
+    static final int RECORD_SIZE = 32;    // Размер записи в байтах
+    static final int SET_CODE = 0;        // Код записи ввода первого числа
+
+    private static final int BUFFER_RECORDS = 2048; // Сколько записей копить перед записью в файл
+
+    private final FileChannel channel; // Файл журнала
+    private final ByteBuffer buffer;   // Буфер накопленных записей
+
+    /**
+     * Конструктор класса. Открывает журнал на добавление, при необходимости
+     * создавая файл и записывая заголовок.
+     *
+     * @param filePath путь к файлу журнала
+     * @throws IOException если файл не удалось открыть или он не является журналом
+     */
+    public BinaryJournalWriter(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        this.channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = ByteBuffer.allocateDirect(RECORD_SIZE * BUFFER_RECORDS).order(ByteOrder.LITTLE_ENDIAN);
+
+        try {
+            long size = channel.size();
+            if (size == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0).flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                size = HEADER_SIZE;
+            } else {
+                checkHeader(channel);
+            }
+            // Неполная последняя запись (после сбоя) отбрасывается
+            channel.position(HEADER_SIZE + (size - HEADER_SIZE) / RECORD_SIZE * RECORD_SIZE);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Записывает ввод первого числа сессии.
+     * @param number введенное число
+     * @throws IOException если произошла ошибка при записи в файл
+     */
+    public void appendSet(double number) throws IOException {
+        append(SET_CODE, number, number, System.currentTimeMillis());
+    }
+
+    /**
+     * Записывает выполненную операцию.
+     * @param operation выполненная операция
+     * @param number введенное число
+     * @param result результат операции
+     * @throws IOException если произошла ошибка при записи в файл
+     */
+    public void append(Operation operation, double number, double result) throws IOException {
+        append(operation.getCode(), number, result, System.currentTimeMillis());
+    }
+
+    /**
+     * Записывает произвольную запись журнала.
+     * @param code код операции
+     * @param number число
+     * @param result результат
+     * @param timestamp время в миллисекундах
+     * @throws IOException если произошла ошибка при записи в файл
+     */
+    public void append(int code, double number, double result, long timestamp) throws IOException {
+        if (buffer.remaining() < RECORD_SIZE) {
+            flush();
+        }
+        buffer.putLong(timestamp).putDouble(number).putDouble(result).putInt(code).putInt(0);
+    }
+
+    /**
+     * Передает накопленные записи в файл.
+     * @throws IOException если произошла ошибка при записи в файл
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Дописывает накопленные записи и закрывает файл.
+     * @throws IOException если произошла ошибка при записи или закрытии
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Проверяет заголовок существующего журнала.
+     * @param channel открытый файл журнала
+     * @throws IOException если заголовок не соответствует формату
+     */
+    static void checkHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+        }
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC
+                || header.getInt() != VERSION || header.getInt() != RECORD_SIZE) {
+            throw new IOException("Файл не является журналом операций калькулятора");
+        }
+    }
+}
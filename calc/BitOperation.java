@@ -0,0 +1,183 @@
+package calc;
+
+/**
+ * Перечисление BitOperation описывает операции режима программиста
+ * (ProgrammerCalculator) над целыми числами заданного размера слова.
+ *
+ * Каждая операция имеет числовой код; коды 1–4 совпадают с Operation.
+ * Операции выбираются по коду из таблицы BY_CODE, а символ во вводе
+ * разбирается один раз через таблицу операций по первому символу,
+ * поэтому выполнение не сравнивает строки.
+ *
+ * Сдвиги и вращения выполняются в пределах слова: сдвиг на размер слова
+ * и больше дает 0 (арифметический сдвиг вправо — знак), количество разрядов
+ * вращения берется по модулю размера слова.
+ */
+public enum BitOperation {
+    ADD(1, "+", false, (value, operand, bits) -> value + operand),
+    SUBTRACT(2, "-", false, (value, operand, bits) -> value - operand),
+    MULTIPLY(3, "*", false, (value, operand, bits) -> value * operand),
+    DIVIDE(4, "/", false, (value, operand, bits) -> value / operand),
+    MOD(5, "%", false, (value, operand, bits) -> value % operand),
+    AND(6, "&", false, (value, operand, bits) -> value & operand),
+    OR(7, "|", false, (value, operand, bits) -> value | operand),
+    XOR(8, "^", false, (value, operand, bits) -> value ^ operand),
+    SHIFT_LEFT(9, "<<", false, (value, operand, bits) ->
+        operand < 0 || operand >= bits ? 0 : value << operand),
+    SHIFT_RIGHT(10, ">>", false, (value, operand, bits) ->
+        operand < 0 || operand >= bits ? value >> 63 : value >> operand),
+    UNSIGNED_SHIFT_RIGHT(11, ">>>", false, (value, operand, bits) ->
+        operand < 0 || operand >= bits ? 0 : (value & mask(bits)) >>> operand),
+    ROTATE_LEFT(12, "rol", false, (value, operand, bits) ->
+        rotateLeft(value, (int) Math.floorMod(operand, (long) bits), bits)),
+    ROTATE_RIGHT(13, "ror", false, (value, operand, bits) ->
+        rotateLeft(value, (int) Math.floorMod(-operand, (long) bits), bits)),
+    NOT(14, "~", true, (value, operand, bits) -> ~value),
+    POPCOUNT(15, "pop", true, (value, operand, bits) -> Long.bitCount(value & mask(bits)));
+
+    /**
+     * Вычисление операции над словом.
+     */
+    interface WordOperator {
+        /**
+         * Вычисляет результат операции.
+         * @param value значение в памяти (знаково расширенное слово)
+         * @param operand операнд (для унарных операций не используется)
+         * @param bits размер слова в битах
+         * @return результат до приведения к размеру слова
+         */
+        long apply(long value, long operand, int bits);
+    }
+
+    private static final BitOperation[] BY_CODE = new BitOperation[16];       // Операции по коду
+    private static final BitOperation[][] BY_FIRST_CHAR = new BitOperation[128][]; // Кандидаты по первому символу
+
+    static {
+        for (BitOperation operation : values()) {
+            BY_CODE[operation.code] = operation;
+            char first = operation.symbol.charAt(0);
+            BitOperation[] candidates = BY_FIRST_CHAR[first];
+            int count = candidates == null ? 0 : candidates.length;
+            BitOperation[] extended = new BitOperation[count + 1];
+            // Более длинные символы проверяются раньше: ">>>" раньше ">>"
+            int at = 0;
+            while (at < count && candidates[at].symbol.length() >= operation.symbol.length()) {
+                at++;
+            }
+            if (count > 0) {
+                System.arraycopy(candidates, 0, extended, 0, at);
+                System.arraycopy(candidates, at, extended, at + 1, count - at);
+            }
+            extended[at] = operation;
+            BY_FIRST_CHAR[first] = extended;
+        }
+    }
+
+    private final int code;                // Код операции
+    private final String symbol;           // Символ операции во вводе
+    private final boolean unary;           // Операция без операнда
+    private final WordOperator operator;   // Вычисление операции
+
+    BitOperation(int code, String symbol, boolean unary, WordOperator operator) {
+        this.code = code;
+        this.symbol = symbol;
+        this.unary = unary;
+        this.operator = operator;
+    }
+
+    /**
+     * Возвращает код операции.
+     * @return код операции
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Возвращает символ, которым операция вводится.
+     * @return символ операции
+     */
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Проверяет, что операция не требует операнда.
+     * @return true для унарной операции
+     */
+    public boolean isUnary() {
+        return unary;
+    }
+
+    /**
+     * Вычисляет операцию без приведения результата к размеру слова.
+     * @param value значение в памяти
+     * @param operand операнд
+     * @param bits размер слова в битах
+     * @return результат операции
+     */
+    long apply(long value, long operand, int bits) {
+        return operator.apply(value, operand, bits);
+    }
+
+    /**
+     * Находит операцию по коду.
+     * @param code код операции
+     * @return операция или null, если код неизвестен
+     */
+    public static BitOperation fromCode(int code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+
+    /**
+     * Находит операцию, символ которой стоит в начале текста.
+     * Буквенные символы (rol, ror, pop) сравниваются без учета регистра.
+     * @param text текст ввода
+     * @param offset позиция начала символа операции
+     * @return операция или null, если символ неизвестен
+     */
+    public static BitOperation match(CharSequence text, int offset) {
+        if (offset >= text.length()) {
+            return null;
+        }
+        char first = Character.toLowerCase(text.charAt(offset));
+        BitOperation[] candidates = first < BY_FIRST_CHAR.length ? BY_FIRST_CHAR[first] : null;
+        if (candidates == null) {
+            return null;
+        }
+        for (BitOperation candidate : candidates) {
+            String symbol = candidate.symbol;
+            if (offset + symbol.length() > text.length()) {
+                continue;
+            }
+            int i = 1;
+            while (i < symbol.length() && Character.toLowerCase(text.charAt(offset + i)) == symbol.charAt(i)) {
+                i++;
+            }
+            if (i == symbol.length()) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Возвращает маску младших bits бит.
+     * @param bits размер слова в битах (от 1 до 64)
+     * @return маска слова
+     */
+    static long mask(int bits) {
+        return bits == 64 ? -1L : (1L << bits) - 1;
+    }
+
+    /**
+     * Вращает слово влево.
+     */
+    private static long rotateLeft(long value, int distance, int bits) {
+        if (bits == 64) {
+            return Long.rotateLeft(value, distance);
+        }
+        long word = value & mask(bits);
+        return distance == 0 ? word : (word << distance | word >>> (bits - distance));
+    }
+}
@@ -0,0 +1,285 @@
+package calc;
+
+import java.nio.DoubleBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Класс BulkOperations выполняет арифметические операции калькулятора сразу
+ * над массивами чисел: поэлементно с одним числом (dst[i] = src[i] op x)
+ * или попарно для двух массивов (dst[i] = a[i] op b[i]).
+ *
+ * Для каждой операции используется отдельный простой цикл без вызовов
+ * внутри, который JIT-компилятор векторизует (SIMD). Большие массивы
+ * делятся на части и обрабатываются в ForkJoinPool. Элементы вычисляются
+ * независимо друг от друга, поэтому параллельный и последовательный варианты
+ * дают побитово одинаковый результат.
+ *
+ * Как и Calculator.divide, деление на ноль запрещено: если хотя бы один
+ * делитель равен нулю, выбрасывается ArithmeticException и массив-приемник
+ * не изменяется.
+ */
+public final class BulkOperations {
+    static final int PARALLEL_THRESHOLD = 1 << 16; // С какой длины массива включается параллельный режим
+    private static final int CHUNK_SIZE = 1 << 14; // Длина части при параллельной обработке
+
+    private BulkOperations() {
+    }
+
+    /**
+     * Выполняет операцию над каждым элементом массива и числом.
+     * Большие массивы обрабатываются параллельно.
+     *
+     * @param operation операция
+     * @param src исходный массив
+     * @param operand второй операнд для всех элементов
+     * @param dst массив для результата (может совпадать с src)
+     * @throws ArithmeticException при делении на ноль
+     * @throws IllegalArgumentException если длины массивов различаются
+     */
+    public static void apply(Operation operation, double[] src, double operand, double[] dst) {
+        checkLength(src.length, dst.length);
+        checkDivisor(operation, operand);
+        run(operation, src, 0, null, 0, operand, dst, 0, src.length, true);
+    }
+
+    /**
+     * Выполняет операцию попарно над элементами двух массивов.
+     * Большие массивы обрабатываются параллельно.
+     *
+     * @param operation операция
+     * @param a массив первых операндов
+     * @param b массив вторых операндов
+     * @param dst массив для результата (может совпадать с a или b)
+     * @throws ArithmeticException если среди делителей есть ноль
+     * @throws IllegalArgumentException если длины массивов различаются
+     */
+    public static void apply(Operation operation, double[] a, double[] b, double[] dst) {
+        checkLength(a.length, b.length);
+        checkLength(a.length, dst.length);
+        checkDivisors(operation, b, 0, b.length);
+        run(operation, a, 0, b, 0, 0, dst, 0, a.length, true);
+    }
+
+    /**
+     * Последовательный вариант apply для массива и числа.
+     * @param operation операция
+     * @param src исходный массив
+     * @param operand второй операнд для всех элементов
+     * @param dst массив для результата (может совпадать с src)
+     * @throws ArithmeticException при делении на ноль
+     * @throws IllegalArgumentException если длины массивов различаются
+     */
+    public static void applySequential(Operation operation, double[] src, double operand, double[] dst) {
+        checkLength(src.length, dst.length);
+        checkDivisor(operation, operand);
+        run(operation, src, 0, null, 0, operand, dst, 0, src.length, false);
+    }
+
+    /**
+     * Последовательный вариант apply для двух массивов.
+     * @param operation операция
+     * @param a массив первых операндов
+     * @param b массив вторых операндов
+     * @param dst массив для результата (может совпадать с a или b)
+     * @throws ArithmeticException если среди делителей есть ноль
+     * @throws IllegalArgumentException если длины массивов различаются
+     */
+    public static void applySequential(Operation operation, double[] a, double[] b, double[] dst) {
+        checkLength(a.length, b.length);
+        checkLength(a.length, dst.length);
+        checkDivisors(operation, b, 0, b.length);
+        run(operation, a, 0, b, 0, 0, dst, 0, a.length, false);
+    }
+
+    /**
+     * Выполняет операцию над оставшимися элементами буфера и числом.
+     * Позиции буферов не изменяются. Буферы на основе массивов обрабатываются
+     * теми же циклами, что и массивы; для прямых буферов используется
+     * поэлементный доступ.
+     *
+     * @param operation операция
+     * @param src исходный буфер (элементы от position до limit)
+     * @param operand второй операнд для всех элементов
+     * @param dst буфер для результата (записывается начиная с его position);
+     *            может совпадать с src, но не должен частично перекрываться с ним
+     * @throws ArithmeticException при делении на ноль
+     * @throws IllegalArgumentException если в dst недостаточно места
+     */
+    public static void apply(Operation operation, DoubleBuffer src, double operand, DoubleBuffer dst) {
+        int length = src.remaining();
+        if (dst.remaining() < length) {
+            throw new IllegalArgumentException("Недостаточно места в буфере результата");
+        }
+        checkDivisor(operation, operand);
+        if (src.hasArray() && dst.hasArray() && !dst.isReadOnly()) {
+            run(operation, src.array(), src.arrayOffset() + src.position(), null, 0, operand,
+                dst.array(), dst.arrayOffset() + dst.position(), length, true);
+            return;
+        }
+        int from = src.position();
+        int to = dst.position();
+        for (int i = 0; i < length; i++) {
+            dst.put(to + i, compute(operation, src.get(from + i), operand));
+        }
+    }
+
+    /**
+     * Выбирает последовательное или параллельное выполнение.
+     */
+    private static void run(Operation operation, double[] a, int aOffset, double[] b, int bOffset,
+                            double operand, double[] dst, int dstOffset, int length, boolean parallel) {
+        if (parallel && length >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            ForkJoinPool.commonPool().invoke(
+                new RangeTask(operation, a, aOffset, b, bOffset, operand, dst, dstOffset, 0, length));
+        } else {
+            kernel(operation, a, aOffset, b, bOffset, operand, dst, dstOffset, 0, length);
+        }
+    }
+
+    /**
+     * Обрабатывает диапазон [from, to) одним циклом без ветвлений внутри.
+     */
+    private static void kernel(Operation operation, double[] a, int aOffset, double[] b, int bOffset,
+                               double x, double[] dst, int dstOffset, int from, int to) {
+        if (b == null) {
+            switch (operation) {
+                case ADD:
+                    for (int i = from; i < to; i++) {
+                        dst[dstOffset + i] = a[aOffset + i] + x;
+                    }
+                    break;
+                case SUBTRACT:
+                    for (int i = from; i < to; i++) {
+                        dst[dstOffset + i] = a[aOffset + i] - x;
+                    }
+                    break;
+                case MULTIPLY:
+                    for (int i = from; i < to; i++) {
+                        dst[dstOffset + i] = a[aOffset + i] * x;
+                    }
+                    break;
+                default:
+                    for (int i = from; i < to; i++) {
+                        dst[dstOffset + i] = a[aOffset + i] / x;
+                    }
+                    break;
+            }
+            return;
+        }
+        switch (operation) {
+            case ADD:
+                for (int i = from; i < to; i++) {
+                    dst[dstOffset + i] = a[aOffset + i] + b[bOffset + i];
+                }
+                break;
+            case SUBTRACT:
+                for (int i = from; i < to; i++) {
+                    dst[dstOffset + i] = a[aOffset + i] - b[bOffset + i];
+                }
+                break;
+            case MULTIPLY:
+                for (int i = from; i < to; i++) {
+                    dst[dstOffset + i] = a[aOffset + i] * b[bOffset + i];
+                }
+                break;
+            default:
+                for (int i = from; i < to; i++) {
+                    dst[dstOffset + i] = a[aOffset + i] / b[bOffset + i];
+                }
+                break;
+        }
+    }
+
+    /**
+     * Вычисляет операцию для одной пары чисел.
+     */
+    private static double compute(Operation operation, double a, double b) {
+        switch (operation) {
+            case ADD:
+                return a + b;
+            case SUBTRACT:
+                return a - b;
+            case MULTIPLY:
+                return a * b;
+            default:
+                return a / b;
+        }
+    }
+
+    /**
+     * Проверяет делитель для операции с числом.
+     */
+    private static void checkDivisor(Operation operation, double operand) {
+        if (operation == Operation.DIVIDE && operand == 0) {
+            throw new ArithmeticException("Деление на ноль невозможно!");
+        }
+    }
+
+    /**
+     * Проверяет, что среди делителей нет нулей.
+     */
+    private static void checkDivisors(Operation operation, double[] divisors, int from, int to) {
+        if (operation != Operation.DIVIDE) {
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            if (divisors[i] == 0) {
+                throw new ArithmeticException("Деление на ноль невозможно! (элемент " + i + ")");
+            }
+        }
+    }
+
+    /**
+     * Проверяет совпадение длин массивов.
+     */
+    private static void checkLength(int expected, int actual) {
+        if (expected != actual) {
+            throw new IllegalArgumentException("Длины массивов должны совпадать");
+        }
+    }
+
+    /**
+     * Задача ForkJoin, делящая диапазон пополам до размера CHUNK_SIZE.
+     */
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Operation operation;
+        private final double[] a;
+        private final int aOffset;
+        private final double[] b;
+        private final int bOffset;
+        private final double operand;
+        private final double[] dst;
+        private final int dstOffset;
+        private final int from;
+        private final int to;
+
+        RangeTask(Operation operation, double[] a, int aOffset, double[] b, int bOffset,
+                  double operand, double[] dst, int dstOffset, int from, int to) {
+            this.operation = operation;
+            this.a = a;
+            this.aOffset = aOffset;
+            this.b = b;
+            this.bOffset = bOffset;
+            this.operand = operand;
+            this.dst = dst;
+            this.dstOffset = dstOffset;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                kernel(operation, a, aOffset, b, bOffset, operand, dst, dstOffset, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                new RangeTask(operation, a, aOffset, b, bOffset, operand, dst, dstOffset, from, middle),
+                new RangeTask(operation, a, aOffset, b, bOffset, operand, dst, dstOffset, middle, to));
+        }
+    }
+}
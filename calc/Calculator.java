@@ -1,3 +1,5 @@
+package calc;
+
 /**
  * Абстрактный класс Calculator определяет базовый функционал калькулятора.
  * Все конкретные реализации калькулятора должны наследоваться от этого класса
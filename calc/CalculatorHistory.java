@@ -0,0 +1,237 @@
+package calc;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Класс CalculatorHistory хранит неограниченную историю шагов калькулятора
+ * за сессию и позволяет отменять и повторять их (undo/redo).
+ *
+ * Шаг — код (ввод числа, операция Operation или сброс) и операнд. Коды
+ * и операнды лежат в примитивных массивах-блоках по CHUNK_SIZE шагов:
+ * рост истории не копирует уже записанные шаги и не создает объектов
+ * на шаг. Каждые SNAPSHOT_INTERVAL шагов запоминается состояние
+ * калькулятора, поэтому переход на любой шаг — восстановление ближайшего
+ * снимка и повтор не более SNAPSHOT_INTERVAL - 1 шагов через Operation.apply.
+ *
+ * Память: 9 байт на шаг (код и операнд) плюс снимок на каждые 64 шага —
+ * около 9,2 МБ на миллион шагов (см. memoryFootprint). Оценку и точность
+ * переходов проверяет HistoryCheck в модуле bench.
+ *
+ * Новый шаг после отмены отбрасывает отмененные шаги, как в текстовых редакторах.
+ * Повторенные при переходе шаги учитываются в CalculatorMetrics как обычные операции.
+ */
+public class CalculatorHistory {
+    public static final int SNAPSHOT_INTERVAL = 64; // Через сколько шагов запоминается состояние
+
+    private static final int CHUNK_SHIFT = 12;              // В блоке 2^12 шагов
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT; // Шагов в блоке
+    private static final byte SET_CODE = 0;                 // Ввод числа (как в BinaryJournalWriter)
+    private static final byte RESET_CODE = 5;               // Сброс калькулятора
+    private static final int ARRAY_HEADER = 16;             // Оценка заголовка массива в байтах
+
+    private final Calculator calculator; // Калькулятор, состояние которого сохраняется
+    private byte[][] codes;              // Блоки кодов шагов
+    private double[][] operands;         // Блоки операндов шагов
+    private int chunkCount;              // Выделенных блоков
+    private long size;                   // Записанных шагов, включая отмененные
+    private long position;               // Сколько шагов применено сейчас
+    private double[] snapshotMemory;     // Значение памяти после каждых SNAPSHOT_INTERVAL шагов
+    private final BitSet snapshotFirst;  // Ожидал ли калькулятор первое число в момент снимка
+
+    /**
+     * Конструктор класса. История начинается с текущего состояния калькулятора.
+     * @param calculator калькулятор, шаги которого записываются
+     */
+    public CalculatorHistory(Calculator calculator) {
+        this.calculator = calculator;
+        this.codes = new byte[16][];
+        this.operands = new double[16][];
+        this.snapshotMemory = new double[64];
+        this.snapshotFirst = new BitSet();
+        snapshotMemory[0] = calculator.getMemory();
+        snapshotFirst.set(0, calculator.isFirstOperation());
+    }
+
+    /**
+     * Записывает ввод числа (первого числа сессии или значения выражения).
+     * @param value введенное значение
+     */
+    public void recordSet(double value) {
+        record(SET_CODE, value);
+    }
+
+    /**
+     * Записывает выполненную операцию.
+     * @param operation операция
+     * @param number операнд
+     */
+    public void recordOperation(Operation operation, double number) {
+        record((byte) operation.getCode(), number);
+    }
+
+    /**
+     * Записывает сброс калькулятора.
+     */
+    public void recordReset() {
+        record(RESET_CODE, 0);
+    }
+
+    /**
+     * Проверяет, есть ли шаги для отмены.
+     * @return true, если можно отменить хотя бы один шаг
+     */
+    public boolean canUndo() {
+        return position > 0;
+    }
+
+    /**
+     * Проверяет, есть ли отмененные шаги для повтора.
+     * @return true, если можно повторить хотя бы один шаг
+     */
+    public boolean canRedo() {
+        return position < size;
+    }
+
+    /**
+     * Возвращает количество примененных шагов.
+     * @return номер текущего шага
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Возвращает количество записанных шагов, включая отмененные.
+     * @return количество шагов
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Отменяет шаги и восстанавливает состояние калькулятора.
+     * @param steps сколько шагов отменить (больше доступного — до начала истории)
+     * @return сколько шагов отменено
+     */
+    public long undo(long steps) {
+        long target = Math.max(0, position - Math.max(0, steps));
+        long undone = position - target;
+        moveTo(target);
+        return undone;
+    }
+
+    /**
+     * Повторяет отмененные шаги и восстанавливает состояние калькулятора.
+     * @param steps сколько шагов повторить (больше доступного — до последнего шага)
+     * @return сколько шагов повторено
+     */
+    public long redo(long steps) {
+        long target = Math.min(size, position + Math.max(0, steps));
+        long redone = target - position;
+        moveTo(target);
+        return redone;
+    }
+
+    /**
+     * Переводит калькулятор в состояние после заданного шага: восстанавливает
+     * ближайший предшествующий снимок и повторяет оставшиеся шаги.
+     * @param target номер шага от 0 (начало истории) до size()
+     * @throws IllegalArgumentException если шага нет в истории
+     */
+    public void moveTo(long target) {
+        if (target < 0 || target > size) {
+            throw new IllegalArgumentException("Шага " + target + " нет в истории");
+        }
+        int snapshot = (int) (target / SNAPSHOT_INTERVAL);
+        if (snapshotFirst.get(snapshot)) {
+            calculator.reset();
+        } else {
+            calculator.setMemory(snapshotMemory[snapshot]);
+        }
+        for (long step = (long) snapshot * SNAPSHOT_INTERVAL; step < target; step++) {
+            apply(codes[chunk(step)][index(step)], operands[chunk(step)][index(step)]);
+        }
+        position = target;
+    }
+
+    /**
+     * Оценивает память, занятую историей: блоки шагов и снимки.
+     * @return размер в байтах
+     */
+    public long memoryFootprint() {
+        long bytes = (long) chunkCount * (2 * ARRAY_HEADER + CHUNK_SIZE * (1L + 8L));
+        bytes += 2L * ARRAY_HEADER + 8L * (codes.length + operands.length); // Таблицы блоков
+        bytes += ARRAY_HEADER + 8L * snapshotMemory.length;
+        bytes += ARRAY_HEADER + snapshotFirst.size() / 8;
+        return bytes;
+    }
+
+    /**
+     * Записывает шаг после его выполнения калькулятором и при необходимости
+     * запоминает снимок состояния.
+     */
+    private void record(byte code, double operand) {
+        size = position; // Отмененные шаги больше нельзя повторить
+        int chunk = chunk(size);
+        if (chunk == chunkCount) {
+            addChunk();
+        }
+        codes[chunk][index(size)] = code;
+        operands[chunk][index(size)] = operand;
+        size++;
+        position = size;
+        if (size % SNAPSHOT_INTERVAL == 0) {
+            int snapshot = (int) (size / SNAPSHOT_INTERVAL);
+            if (snapshot == snapshotMemory.length) {
+                snapshotMemory = Arrays.copyOf(snapshotMemory, snapshot * 2);
+            }
+            snapshotMemory[snapshot] = calculator.getMemory();
+            snapshotFirst.set(snapshot, calculator.isFirstOperation());
+        }
+    }
+
+    /**
+     * Повторяет записанный шаг.
+     */
+    private void apply(byte code, double operand) {
+        switch (code) {
+            case SET_CODE:
+                calculator.setMemory(operand);
+                break;
+            case RESET_CODE:
+                calculator.reset();
+                break;
+            default:
+                Operation.fromCode(code).apply(calculator, operand);
+                break;
+        }
+    }
+
+    /**
+     * Выделяет очередной блок шагов.
+     */
+    private void addChunk() {
+        if (chunkCount == codes.length) {
+            codes = Arrays.copyOf(codes, chunkCount * 2);
+            operands = Arrays.copyOf(operands, chunkCount * 2);
+        }
+        codes[chunkCount] = new byte[CHUNK_SIZE];
+        operands[chunkCount] = new double[CHUNK_SIZE];
+        chunkCount++;
+    }
+
+    /**
+     * Возвращает номер блока шага.
+     */
+    private static int chunk(long step) {
+        return (int) (step >>> CHUNK_SHIFT);
+    }
+
+    /**
+     * Возвращает позицию шага в блоке.
+     */
+    private static int index(long step) {
+        return (int) step & (CHUNK_SIZE - 1);
+    }
+}
@@ -0,0 +1,282 @@
+package calc;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Класс CalculatorMetrics собирает метрики работы калькулятора: количество
+ * и задержки арифметических операций, разбора и форматирования чисел, записи
+ * лога, а также количество ошибок разбора, попыток деления на ноль и сбоев
+ * записи лога. Счетчики — LongAdder, задержки — LatencyHistogram.
+ *
+ * Метрики включаются системным свойством calc.metrics=true (или аргументом
+ * --metrics, который устанавливает его при запуске). Флаг ENABLED — константа,
+ * поэтому при выключенных метриках JIT-компилятор удаляет все вызовы record*
+ * и измерения времени целиком.
+ */
+public final class CalculatorMetrics implements CalculatorMetricsMXBean {
+    public static final boolean ENABLED = Boolean.getBoolean("calc.metrics"); // Включены ли метрики
+    public static final String OBJECT_NAME = "calc:type=CalculatorMetrics";    // Имя MBean
+
+    private static final CalculatorMetrics INSTANCE = ENABLED ? new CalculatorMetrics() : null;
+
+    private final LongAdder[] operations = newAdders(Operation.values().length); // Операции по видам
+    private final LatencyHistogram[] operationLatency = newHistograms(Operation.values().length);
+    private final LongAdder divisionByZero = new LongAdder(); // Отклоненные деления на ноль
+    private final LongAdder parses = new LongAdder();         // Разобранные числа
+    private final LongAdder parseFailures = new LongAdder();  // Ошибки разбора
+    private final LatencyHistogram parseLatency = new LatencyHistogram();
+    private final LongAdder formats = new LongAdder();        // Отформатированные числа
+    private final LatencyHistogram formatLatency = new LatencyHistogram();
+    private final LongAdder logWrites = new LongAdder();      // Обращения к записи лога
+    private final LongAdder logLines = new LongAdder();       // Записанные строки лога
+    private final LongAdder logFailures = new LongAdder();    // Сбои записи лога
+    private final LatencyHistogram logLatency = new LatencyHistogram();
+
+    private CalculatorMetrics() {
+    }
+
+    /**
+     * Возвращает единственный экземпляр метрик.
+     * @return метрики или null, если они выключены
+     */
+    public static CalculatorMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Возвращает отметку времени начала измерения.
+     * @return System.nanoTime() или 0, если метрики выключены
+     */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Учитывает выполненную арифметическую операцию.
+     * @param operation операция
+     * @param start отметка времени, полученная от start()
+     */
+    public static void recordOperation(Operation operation, long start) {
+        if (ENABLED) {
+            int index = operation.ordinal();
+            INSTANCE.operationLatency[index].record(System.nanoTime() - start);
+            INSTANCE.operations[index].increment();
+        }
+    }
+
+    /**
+     * Учитывает отклоненную попытку деления на ноль.
+     */
+    public static void recordDivisionByZero() {
+        if (ENABLED) {
+            INSTANCE.divisionByZero.increment();
+        }
+    }
+
+    /**
+     * Учитывает разбор числа.
+     * @param start отметка времени, полученная от start()
+     * @param success успешен ли разбор
+     */
+    public static void recordParse(long start, boolean success) {
+        if (ENABLED) {
+            INSTANCE.parseLatency.record(System.nanoTime() - start);
+            INSTANCE.parses.increment();
+            if (!success) {
+                INSTANCE.parseFailures.increment();
+            }
+        }
+    }
+
+    /**
+     * Учитывает форматирование числа.
+     * @param start отметка времени, полученная от start()
+     */
+    public static void recordFormat(long start) {
+        if (ENABLED) {
+            INSTANCE.formatLatency.record(System.nanoTime() - start);
+            INSTANCE.formats.increment();
+        }
+    }
+
+    /**
+     * Учитывает успешную запись в лог.
+     * @param start отметка времени, полученная от start()
+     * @param lines количество записанных строк
+     */
+    public static void recordLogWrite(long start, int lines) {
+        if (ENABLED) {
+            INSTANCE.logLatency.record(System.nanoTime() - start);
+            INSTANCE.logWrites.increment();
+            INSTANCE.logLines.add(lines);
+        }
+    }
+
+    /**
+     * Учитывает сбой записи в лог.
+     */
+    public static void recordLogFailure() {
+        if (ENABLED) {
+            INSTANCE.logFailures.increment();
+        }
+    }
+
+    /**
+     * Публикует метрики как MBean в платформенном MBeanServer.
+     * Ничего не делает, если метрики выключены.
+     * @throws IllegalStateException если MBean не удалось зарегистрировать
+     */
+    public static void registerMBean() {
+        if (!ENABLED) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            throw new IllegalStateException("Не удалось зарегистрировать MBean метрик: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Записывает отчет по метрикам в файл при завершении процесса.
+     * Ничего не делает, если метрики выключены.
+     * @param path путь к файлу отчета
+     */
+    public static void dumpOnExit(String path) {
+        if (!ENABLED) {
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                Files.write(Paths.get(path), INSTANCE.getReport().getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                System.err.println("Ошибка при записи метрик: " + e.getMessage());
+            }
+        }, "calculator-metrics-dump"));
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> counters = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            counters.put(operation.name().toLowerCase(Locale.ROOT), operations[operation.ordinal()].sum());
+        }
+        counters.put("divisionByZero", divisionByZero.sum());
+        counters.put("parse", parses.sum());
+        counters.put("parseFailures", parseFailures.sum());
+        counters.put("format", formats.sum());
+        counters.put("logWrites", logWrites.sum());
+        counters.put("logLines", logLines.sum());
+        counters.put("logFailures", logFailures.sum());
+        return counters;
+    }
+
+    @Override
+    public Map<String, Long> getLatencyP50Nanos() {
+        return latencies(histogram -> histogram.getPercentile(50));
+    }
+
+    @Override
+    public Map<String, Long> getLatencyP99Nanos() {
+        return latencies(histogram -> histogram.getPercentile(99));
+    }
+
+    @Override
+    public Map<String, Long> getLatencyMaxNanos() {
+        return latencies(LatencyHistogram::getMax);
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder report = new StringBuilder(1024);
+        report.append("Счетчики:").append(System.lineSeparator());
+        for (Map.Entry<String, Long> counter : getCounters().entrySet()) {
+            report.append(String.format("  %-16s %d%n", counter.getKey(), counter.getValue()));
+        }
+        report.append("Задержки, нс (количество, среднее, p50, p90, p99, p99.9, максимум):")
+            .append(System.lineSeparator());
+        for (Map.Entry<String, LatencyHistogram> entry : histograms().entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            report.append(String.format("  %-16s %d %.1f %d %d %d %d %d%n", entry.getKey(),
+                histogram.getCount(), histogram.getMean(),
+                histogram.getPercentile(50), histogram.getPercentile(90),
+                histogram.getPercentile(99), histogram.getPercentile(99.9), histogram.getMax()));
+        }
+        return report.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (Operation operation : Operation.values()) {
+            operations[operation.ordinal()].reset();
+        }
+        divisionByZero.reset();
+        parses.reset();
+        parseFailures.reset();
+        formats.reset();
+        logWrites.reset();
+        logLines.reset();
+        logFailures.reset();
+        for (LatencyHistogram histogram : histograms().values()) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Возвращает все гистограммы по именам действий.
+     */
+    private Map<String, LatencyHistogram> histograms() {
+        Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation.name().toLowerCase(Locale.ROOT), operationLatency[operation.ordinal()]);
+        }
+        histograms.put("parse", parseLatency);
+        histograms.put("format", formatLatency);
+        histograms.put("logWrite", logLatency);
+        return histograms;
+    }
+
+    /**
+     * Вычисляет показатель для каждой гистограммы.
+     */
+    private Map<String, Long> latencies(ToLongFunction<LatencyHistogram> metric) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : histograms().entrySet()) {
+            values.put(entry.getKey(), metric.applyAsLong(entry.getValue()));
+        }
+        return values;
+    }
+
+    /**
+     * Создает массив счетчиков.
+     */
+    private static LongAdder[] newAdders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * Создает массив гистограмм.
+     */
+    private static LatencyHistogram[] newHistograms(int count) {
+        LatencyHistogram[] histograms = new LatencyHistogram[count];
+        for (int i = 0; i < count; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        return histograms;
+    }
+}
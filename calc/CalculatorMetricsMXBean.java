@@ -0,0 +1,44 @@
+package calc;
+
+import java.util.Map;
+
+/**
+ * Интерфейс CalculatorMetricsMXBean описывает атрибуты и операции метрик
+ * калькулятора, публикуемые через JMX под именем calc:type=CalculatorMetrics.
+ */
+public interface CalculatorMetricsMXBean {
+    /**
+     * Возвращает значения всех счетчиков.
+     * @return счетчики по имени
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * Возвращает медиану задержки каждого измеряемого действия.
+     * @return задержка в наносекундах по имени действия
+     */
+    Map<String, Long> getLatencyP50Nanos();
+
+    /**
+     * Возвращает 99-й процентиль задержки каждого измеряемого действия.
+     * @return задержка в наносекундах по имени действия
+     */
+    Map<String, Long> getLatencyP99Nanos();
+
+    /**
+     * Возвращает наибольшую задержку каждого измеряемого действия.
+     * @return задержка в наносекундах по имени действия
+     */
+    Map<String, Long> getLatencyMaxNanos();
+
+    /**
+     * Формирует текстовый отчет по всем метрикам.
+     * @return отчет
+     */
+    String getReport();
+
+    /**
+     * Обнуляет все счетчики и гистограммы.
+     */
+    void reset();
+}
@@ -0,0 +1,241 @@
+package calc;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.time.Duration;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Класс CalculatorServer обслуживает много независимых сессий калькулятора
+ * в одной JVM. Сервер слушает TCP-порт на локальном адресе; каждое подключение
+ * получает собственный BatchProcessor (и значит, собственный NumberSystemConverter)
+ * и обрабатывается в отдельном виртуальном потоке.
+ *
+ * Протокол совпадает с пакетным режимом: клиент отправляет строки +5, -3, c, i, q,
+ * сервер отвечает строкой с результатом или строкой "ERR ...".
+ * Все сессии пишут лог через один общий объект записи лога.
+ *
+ * Число одновременных сессий ограничено: подключение сверх предела получает
+ * строку "ERR 0: ..." и сразу закрывается, поэтому нагрузка на процессор
+ * и память не растет без границ. При остановке сервер ждет завершения
+ * сессий, чтобы их последние строки успели попасть в лог.
+ */
+public class CalculatorServer implements Closeable {
+    private static final int SESSION_BUFFER_SIZE = 1024; // Буферы чтения и записи одной сессии
+    private static final int BACKLOG = 1024;             // Очередь ожидающих подключений
+    public static final int DEFAULT_MAX_SESSIONS = 10_000; // Предел одновременных сессий по умолчанию
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000; // Ожидание завершения сессий при остановке
+
+    /**
+     * Состояние одной сессии в таблице сессий.
+     */
+    private static final class Session {
+        final Socket socket;             // Подключение клиента
+        final BatchProcessor processor;  // Калькулятор сессии
+        final Thread thread;             // Виртуальный поток сессии
+
+        Session(Socket socket, BatchProcessor processor, Thread thread) {
+            this.socket = socket;
+            this.processor = processor;
+            this.thread = thread;
+        }
+    }
+
+    private final ServerSocket serverSocket;       // Слушающий сокет
+    private final CustomFileWriter logWriter;      // Общий лог всех сессий (может быть null)
+    private final Map<Long, Session> sessions;     // Таблица активных сессий
+    private final AtomicLong nextSessionId;        // Номер следующей сессии
+    private final Semaphore permits;               // Свободные места для сессий
+    private volatile boolean closed;               // Сервер остановлен
+
+    /**
+     * Конструктор класса. Открывает порт на адресе обратной петли
+     * с пределом сессий по умолчанию.
+     *
+     * @param port номер порта (0 — выбрать свободный)
+     * @param logWriter общий объект записи лога или null, если лог не нужен;
+     *                  должен допускать запись из нескольких потоков (AsyncLogWriter)
+     * @throws IOException если порт не удалось открыть
+     */
+    public CalculatorServer(int port, CustomFileWriter logWriter) throws IOException {
+        this(port, logWriter, DEFAULT_MAX_SESSIONS);
+    }
+
+    /**
+     * Конструктор класса. Открывает порт на адресе обратной петли.
+     *
+     * @param port номер порта (0 — выбрать свободный)
+     * @param logWriter общий объект записи лога или null, если лог не нужен;
+     *                  должен допускать запись из нескольких потоков (AsyncLogWriter)
+     * @param maxSessions наибольшее число одновременных сессий
+     * @throws IOException если порт не удалось открыть
+     */
+    public CalculatorServer(int port, CustomFileWriter logWriter, int maxSessions) throws IOException {
+        if (maxSessions < 1) {
+            throw new IllegalArgumentException("Предел сессий должен быть положительным");
+        }
+        this.permits = new Semaphore(maxSessions);
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        this.logWriter = logWriter;
+        this.sessions = new ConcurrentHashMap<>();
+        this.nextSessionId = new AtomicLong();
+    }
+
+    /**
+     * Возвращает номер порта, на котором работает сервер.
+     * @return номер порта
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Возвращает количество активных сессий.
+     * @return количество сессий
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Принимает подключения, пока сервер не будет остановлен.
+     * Каждая сессия запускается в новом виртуальном потоке; подключения
+     * сверх предела сессий отклоняются.
+     *
+     * @throws IOException если произошла ошибка приема подключения
+     */
+    public void serve() throws IOException {
+        while (!closed) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketException e) {
+                if (closed) {
+                    break;
+                }
+                throw e;
+            }
+            if (!permits.tryAcquire()) {
+                reject(socket);
+                continue;
+            }
+            long id = nextSessionId.incrementAndGet();
+            Session session = new Session(socket, new BatchProcessor(logWriter, null),
+                Thread.ofVirtual().name("calculator-session-" + id).unstarted(() -> handle(id, socket)));
+            // Сессия попадает в таблицу до запуска потока, чтобы close ее не пропустил
+            sessions.put(id, session);
+            if (closed) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // Поток сессии все равно завершится на закрытом сервере
+                }
+            }
+            session.thread.start();
+        }
+    }
+
+    /**
+     * Отклоняет подключение сверх предела сессий: отправляет строку ошибки
+     * и закрывает сокет.
+     * @param socket подключение клиента
+     */
+    private void reject(Socket socket) {
+        try (socket) {
+            Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+            out.write("ERR 0: превышено число одновременных сессий\n");
+            out.flush();
+        } catch (IOException e) {
+            // Клиент уже отключился, сообщать некому
+        }
+    }
+
+    /**
+     * Обслуживает одну сессию до отключения клиента или команды q.
+     * @param id номер сессии
+     * @param socket подключение клиента
+     */
+    private void handle(long id, Socket socket) {
+        Session session = sessions.get(id);
+        try {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), SESSION_BUFFER_SIZE);
+            Writer out = new BufferedWriter(
+                new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), SESSION_BUFFER_SIZE);
+            session.processor.run(in, out);
+        } catch (IOException e) {
+            if (!closed && !socket.isClosed()) {
+                System.err.println("Сессия " + id + " завершена с ошибкой: " + e.getMessage());
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Сессия " + id + " завершена с ошибкой: " + e);
+        } finally {
+            sessions.remove(id);
+            permits.release();
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Сокет уже закрыт, освобождать нечего
+            }
+        }
+    }
+
+    /**
+     * Останавливает сервер, закрывает все активные сессии и ждет (не дольше
+     * CLOSE_TIMEOUT_MILLIS) завершения их потоков, чтобы сессии успели
+     * дописать накопленные строки лога. Общий объект записи лога
+     * не закрывается: им владеет вызывающий код, и закрывать его
+     * нужно после этого метода.
+     *
+     * @throws IOException если при закрытии слушающего сокета произошла ошибка
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_TIMEOUT_MILLIS);
+        boolean interrupted = false;
+        // Сессия, принятая во время остановки, может появиться в таблице после первого прохода
+        while (!sessions.isEmpty() && !interrupted && System.nanoTime() < deadline) {
+            for (Session session : sessions.values()) {
+                try {
+                    session.socket.close();
+                } catch (IOException e) {
+                    // Продолжаем закрывать остальные сессии
+                }
+            }
+            for (Session session : sessions.values()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                try {
+                    session.thread.join(Duration.ofNanos(remaining));
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
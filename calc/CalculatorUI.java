@@ -1,42 +1,156 @@
+package calc;
+
 /**
  * Класс CalculatorUI представляет пользовательский интерфейс калькулятора.
  * Обеспечивает взаимодействие с пользователем через консоль, поддерживает
  * различные системы счисления и ведение лога операций.
+ * Если ввод и вывод не подключены к терминалу (каналы или файлы), вместо
+ * Scanner используется ConsoleLineReader, а вывод копится в буфере ConsoleOutput.
+ * С журналом сессии SessionLog состояние переживает аварийное завершение
+ * и восстанавливается при следующем запуске.
+ *
+ * Путь до первого результата не использует String.format, регулярные
+ * выражения и сцепление строк через invokedynamic: их первый вызов загружает
+ * и генерирует сотни классов, что заметно при коротких запусках.
+ * Компилятор выражений создается при первом выражении.
  */
+import java.io.Console;
 import java.io.IOException;
+import java.util.NoSuchElementException;
 
 public class CalculatorUI {
     // Компоненты для работы калькулятора
     private final KeyboardInput input;        // Обработка пользовательского ввода
+    private final ConsoleOutput console;      // Вывод на консоль
     private final NumberSystemConverter calculator;      // Основная логика вычислений
     private final CustomFileWriter logWriter; // Запись операций в лог
+    private final BinaryJournalWriter journal; // Двоичный журнал операций (может быть null)
+    private final RadixFormatter formatter;   // Представления результата в разных системах
+    private final StringBuilder output;       // Буфер для вывода результата
+    private ExpressionCompiler expressions;   // Компилятор выражений с кэшем (создается при первом выражении)
+    private final CalculatorHistory history;  // История шагов для отмены и повтора
+    private final SessionLog session;         // Журнал сессии для восстановления (может быть null)
     private int inputRadix;             // Текущая система счисления для ввода
 
     /**
      * Конструктор класса. Инициализирует основные компоненты калькулятора.
      */
     public CalculatorUI() {
-        this.input = new KeyboardInput();
-        this.calculator = new NumberSystemConverter();
-        this.logWriter = new CustomFileWriter("calculator_log.txt");
+        this(new CustomFileWriter("calculator_log.txt"), null, null);
+    }
+
+    /**
+     * Конструктор класса с заданными объектами записи лога.
+     * Если журнал сессии содержит сохраненное состояние, калькулятор
+     * продолжает с него; история отмены начинается с восстановленного состояния.
+     * @param logWriter объект для записи лога операций
+     * @param journal двоичный журнал операций или null, если он не нужен
+     * @param session журнал сессии или null, если состояние не сохраняется
+     */
+    public CalculatorUI(CustomFileWriter logWriter, BinaryJournalWriter journal, SessionLog session) {
+        boolean terminal = isTerminal();
+        this.console = new ConsoleOutput(System.out, terminal);
+        this.input = terminal
+            ? new KeyboardInput(console)
+            : new KeyboardInput(new ConsoleLineReader(System.in, console), console);
+        this.calculator = new NumberSystemConverter(RadixViewCache.getDefault());
+        this.logWriter = logWriter;
+        this.journal = journal;
+        this.formatter = new RadixFormatter(RadixViewCache.getDefault());
+        this.output = new StringBuilder(256);
+        this.session = session;
         this.inputRadix = 10; // По умолчанию десятичная система
+        if (isRecovered()) {
+            inputRadix = session.getInputRadix();
+            calculator.setRadix(inputRadix);
+            if (!session.isFirstOperation()) {
+                calculator.setMemory(session.getMemory());
+            }
+        }
+        this.history = new CalculatorHistory(calculator);
+    }
+
+    /**
+     * Проверяет, восстановлено ли состояние из журнала сессии.
+     * @return true, если калькулятор продолжает предыдущую сессию
+     */
+    private boolean isRecovered() {
+        return session != null && session.isRecovered();
+    }
+
+    /**
+     * Возвращает компилятор выражений, создавая его при первом обращении:
+     * сессии без выражений не тратят на него время запуска.
+     * @return компилятор выражений
+     */
+    private ExpressionCompiler expressions() {
+        if (expressions == null) {
+            expressions = new ExpressionCompiler(64);
+        }
+        return expressions;
+    }
+
+    /**
+     * Проверяет, является ли строка командой отмены или повтора: u или r,
+     * затем необязательные пробелы и цифры (u, r5, U 10).
+     * @param text строка ввода без пробелов по краям
+     * @return true для команды отмены или повтора
+     */
+    private static boolean isHistoryCommand(String text) {
+        if (text.isEmpty()) {
+            return false;
+        }
+        char command = Character.toLowerCase(text.charAt(0));
+        if (command != 'u' && command != 'r') {
+            return false;
+        }
+        int i = 1;
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        while (i < text.length() && Character.isDigit(text.charAt(i))) {
+            i++;
+        }
+        return i == text.length();
+    }
+
+    /**
+     * Проверяет, подключена ли программа к терминалу. До Java 22
+     * System.console() возвращает null при перенаправленном вводе или выводе,
+     * начиная с Java 22 это сообщает Console.isTerminal().
+     * @return true, если ввод и вывод — терминал
+     */
+    static boolean isTerminal() {
+        Console console = System.console();
+        if (console == null) {
+            return false;
+        }
+        try {
+            return (Boolean) Console.class.getMethod("isTerminal").invoke(console);
+        } catch (ReflectiveOperationException e) {
+            return true; // Java 21 и старше: консоль есть только у терминала
+        }
     }
 
     /**
      * Отображает главное меню калькулятора с доступными операциями.
      */
     private void showMenu() {
-        System.out.println("\nДобро пожаловать в Калькулятор!");
-        System.out.println("Доступные операции:");
-        System.out.println("Введите операцию и число вместе, например:");
-        System.out.println("+5  : Прибавить 5");
-        System.out.println("-3  : Вычесть 3");
-        System.out.println("*2  : Умножить на 2");
-        System.out.println("/4  : Разделить на 4");
-        System.out.println("Также доступны команды:");
-        System.out.println("c   : Сброс результата");
-        System.out.println("i   : Изменить систему счисления ввода");
-        System.out.println("q   : Выход");
+        console.println("\nДобро пожаловать в Калькулятор!");
+        console.println("Доступные операции:");
+        console.println("Введите операцию и число вместе, например:");
+        console.println("+5  : Прибавить 5");
+        console.println("-3  : Вычесть 3");
+        console.println("*2  : Умножить на 2");
+        console.println("/4  : Разделить на 4");
+        console.println("+(0x1F + 0b101) * 3 : Операнд-выражение в скобках");
+        console.println("= m * 2 + 1 : Заменить результат значением выражения (m - текущий результат)");
+        console.println("Также доступны команды:");
+        console.println("c   : Сброс результата");
+        console.println("i   : Изменить систему счисления ввода");
+        console.println("u   : Отменить шаг (u5 - пять шагов)");
+        console.println("r   : Повторить отмененный шаг (r5 - пять шагов)");
+        console.println("q   : Выход");
     }
 
     /**
@@ -44,8 +158,10 @@ public class CalculatorUI {
      * @param result результат вычисления для отображения
      */
     private void displayResult(double result) {
-        System.out.println("\nРезультат в разных системах счисления:");
-        
+        formatter.format(result);
+        output.setLength(0);
+        output.append("\nРезультат в разных системах счисления:").append(System.lineSeparator());
+
         // Сначала выводим результат в текущей системе счисления
         String currentSystemName;
         switch (inputRadix) {
@@ -64,87 +180,120 @@ public class CalculatorUI {
             default:
                 currentSystemName = "Текущая";
         }
-        calculator.setRadix(inputRadix);
-        System.out.printf("%s: %s%n", currentSystemName, calculator.formatResult(result));
+        appendView(currentSystemName, inputRadix);
 
         // Затем выводим остальные системы счисления
         if (inputRadix != 2) {
-            calculator.setRadix(2);
-            System.out.printf("Двоичная: %s%n", calculator.formatResult(result));
+            appendView("Двоичная", 2);
         }
         if (inputRadix != 8) {
-            calculator.setRadix(8);
-            System.out.printf("Восьмеричная: %s%n", calculator.formatResult(result));
+            appendView("Восьмеричная", 8);
         }
         if (inputRadix != 10) {
-            calculator.setRadix(10);
-            System.out.printf("Десятичная: %s%n", calculator.formatResult(result));
+            appendView("Десятичная", 10);
         }
         if (inputRadix != 16) {
-            calculator.setRadix(16);
-            System.out.printf("Шестнадцатеричная: %s%n", calculator.formatResult(result));
+            appendView("Шестнадцатеричная", 16);
         }
-        
-        calculator.setRadix(inputRadix); // Возвращаем исходную систему счисления
+
+        console.print(output);
+    }
+
+    /**
+     * Добавляет в буфер вывода строку с представлением результата.
+     * @param systemName название системы счисления
+     * @param radix основание системы счисления
+     */
+    private void appendView(String systemName, int radix) {
+        output.append(systemName).append(": ");
+        formatter.appendTo(radix, output).append(System.lineSeparator());
     }
 
     /**
      * Позволяет пользователю выбрать систему счисления для ввода чисел.
      */
     private void selectNumberSystem() {
-        System.out.println("\nВыберите систему счисления для ввода:");
-        System.out.println("2 - Двоичная");
-        System.out.println("8 - Восьмеричная");
-        System.out.println("10 - Десятичная");
-        System.out.println("16 - Шестнадцатеричная");
+        console.println("\nВыберите систему счисления для ввода:");
+        console.println("2 - Двоичная");
+        console.println("8 - Восьмеричная");
+        console.println("10 - Десятичная");
+        console.println("16 - Шестнадцатеричная");
         
         while (true) {
             try {
                 int radix = input.readInt("Введите основание системы счисления: ");
                 if (radix != 2 && radix != 8 && radix != 10 && radix != 16) {
-                    System.out.println("Ошибка: неверное основание системы счисления!");
+                    console.println("Ошибка: неверное основание системы счисления!");
                     continue;
                 }
                 inputRadix = radix;
                 calculator.setRadix(radix);
-                System.out.printf("Система счисления ввода установлена на %d-ичную%n", radix);
+                console.print("Система счисления ввода установлена на ")
+                    .print(Integer.toString(radix)).println("-ичную");
+                if (session != null) {
+                    try {
+                        session.appendRadix(radix);
+                        session.flush();
+                    } catch (IOException e) {
+                        console.println("Ошибка при записи журнала сессии: " + e.getMessage());
+                    }
+                }
                 break;
             } catch (NumberFormatException e) {
-                System.out.println("Ошибка: введите корректное число!");
+                console.println("Ошибка: введите корректное число!");
             }
         }
     }
 
     /**
-     * Записывает информацию об операции в лог-файл.
-     * @param operation название выполненной операции
+     * Записывает операцию в историю, а информацию о ней — в лог-файл
+     * и, если он задан, в двоичный журнал.
+     * @param operation выполненная операция
      * @param number введенное число
      * @param result результат операции
      */
-    private void logOperation(String operation, double number, double result) {
+    private void logOperation(Operation operation, double number, double result) {
+        history.recordOperation(operation, number);
         try {
-            calculator.setRadix(2);
-            String binResult = calculator.formatResult(result);
-            calculator.setRadix(8);
-            String octResult = calculator.formatResult(result);
-            calculator.setRadix(10);
-            String decResult = calculator.formatResult(result);
-            calculator.setRadix(16);
-            String hexResult = calculator.formatResult(result);
-            calculator.setRadix(inputRadix); // Возвращаем исходную систему счисления
-
-            logWriter.writeLine(String.format(
-                "Операция: %s, Число: %.2f, Результат: %.2f (BIN: %s, OCT: %s, DEC: %s, HEX: %s)", 
-                operation, 
-                number, 
-                result,
-                binResult,
-                octResult,
-                decResult,
-                hexResult
-            ));
+            logWriter.writeLine(OperationLogFormat.formatLine(operation, number, result, formatter));
+            if (journal != null) {
+                journal.append(operation, number, result);
+                journal.flush();
+            }
+            if (session != null) {
+                session.append(operation, number);
+                session.flush();
+            }
         } catch (IOException e) {
-            System.out.println("Ошибка при записи в лог: " + e.getMessage());
+            console.println("Ошибка при записи в лог: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Отменяет или повторяет шаги и показывает восстановленный результат.
+     * Восстановленное значение записывается в двоичный журнал как ввод числа.
+     * @param undo true — отмена, false — повтор
+     * @param count количество шагов или пустая строка для одного шага
+     * @throws IOException если не удалось записать журнал или журнал сессии
+     */
+    private void moveInHistory(boolean undo, String count) throws IOException {
+        long steps = count.isEmpty() ? 1 : Long.parseLong(count);
+        long moved = undo ? history.undo(steps) : history.redo(steps);
+        if (moved == 0) {
+            console.println(undo ? "Нечего отменять." : "Нечего повторять.");
+            return;
+        }
+        console.println((undo ? "Отменено" : "Повторено") + " шагов: " + moved);
+        if (journal != null) {
+            journal.appendSet(calculator.getMemory());
+            journal.flush();
+        }
+        if (session != null) {
+            session.appendState(calculator.getMemory(), calculator.isFirstOperation());
+            session.flush();
+        }
+        if (!calculator.isFirstOperation()) {
+            displayResult(calculator.getMemory());
         }
     }
 
@@ -173,30 +322,67 @@ public class CalculatorUI {
     public void run() {
         boolean running = true;
         showMenu();
-        selectNumberSystem();
+        if (isRecovered()) {
+            console.println().print("Сессия восстановлена. Система счисления ввода: ")
+                .print(Integer.toString(inputRadix)).println("-ичная");
+            if (!calculator.isFirstOperation()) {
+                displayResult(calculator.getMemory());
+            }
+        } else {
+            try {
+                selectNumberSystem();
+            } catch (NoSuchElementException e) {
+                running = false; // Ввод закончился
+            }
+        }
 
         while (running) {
             try {
                 if (calculator.isFirstOperation()) {
-                    String inputPrompt = String.format("\nВведите первое число (в %d-ичной системе): ", inputRadix);
+                    String inputPrompt = new StringBuilder(48).append("\nВведите первое число (в ")
+                        .append(inputRadix).append("-ичной системе): ").toString();
                     String numberStr = input.readLine(inputPrompt);
+                    if (numberStr == null) {
+                        running = false;
+                        continue;
+                    }
                     calculator.setRadix(inputRadix);
                     double firstNumber = NumberSystemConverter.parseNumber(numberStr, inputRadix);
                     calculator.setMemory(firstNumber);
-                    System.out.println("Начальное число:");
+                    history.recordSet(firstNumber);
+                    if (journal != null) {
+                        journal.appendSet(firstNumber);
+                        journal.flush();
+                    }
+                    if (session != null) {
+                        session.appendSet(firstNumber);
+                        session.flush();
+                    }
+                    console.println("Начальное число:");
                     displayResult(firstNumber);
                 }
 
-                String inputPrompt = String.format("\nВведите операцию и число (например: +5, -3, *2) или команду (c/i/q): ");
-                String userInput = input.readLine(inputPrompt).trim();
+                String inputPrompt = "\nВведите операцию и число (например: +5, -3, *2) или команду (c/i/u/r/q): ";
+                String userInput = input.readLine(inputPrompt);
 
-                if (userInput.equalsIgnoreCase("q")) {
+                if (userInput == null || userInput.trim().equalsIgnoreCase("q")) {
                     running = false;
                     continue;
                 }
 
+                userInput = userInput.trim();
                 if (userInput.equalsIgnoreCase("c")) {
                     calculator.reset();
+                    history.recordReset();
+                    if (session != null) {
+                        session.appendReset();
+                        session.flush();
+                    }
+                    continue;
+                }
+
+                if (isHistoryCommand(userInput)) {
+                    moveInHistory(Character.toLowerCase(userInput.charAt(0)) == 'u', userInput.substring(1).trim());
                     continue;
                 }
 
@@ -205,53 +391,67 @@ public class CalculatorUI {
                     continue;
                 }
 
+                if (userInput.startsWith("=")) {
+                    double value = expressions().evaluate(userInput.substring(1), calculator.getMemory());
+                    calculator.setMemory(value);
+                    history.recordSet(value);
+                    if (journal != null) {
+                        journal.appendSet(value);
+                        journal.flush();
+                    }
+                    if (session != null) {
+                        session.appendSet(value);
+                        session.flush();
+                    }
+                    displayResult(value);
+                    continue;
+                }
+
                 String[] parts = parseInput(userInput);
-                String operation = parts[0];
+                Operation operation = Operation.fromSymbol(parts[0].charAt(0));
                 String numberStr = parts[1];
 
                 try {
                     calculator.setRadix(inputRadix);
-                    double number = NumberSystemConverter.parseNumber(numberStr, inputRadix);
-                    double result = 0;
-
-                    switch (operation) {
-                        case "+":
-                            result = calculator.add(number);
-                            logOperation("сложение", number, result);
-                            break;
-                        case "-":
-                            result = calculator.subtract(number);
-                            logOperation("вычитание", number, result);
-                            break;
-                        case "*":
-                            result = calculator.multiply(number);
-                            logOperation("умножение", number, result);
-                            break;
-                        case "/":
-                            if (number == 0) {
-                                System.out.println("Ошибка: деление на ноль невозможно!");
-                                continue;
-                            }
-                            result = calculator.divide(number);
-                            logOperation("деление", number, result);
-                            break;
-                        default:
-                            System.out.println("Ошибка: неизвестная операция!");
-                            continue;
+                    double number = numberStr.startsWith("(")
+                        ? expressions().evaluate(numberStr, calculator.getMemory())
+                        : NumberSystemConverter.parseNumber(numberStr, inputRadix);
+                    if (operation == null) {
+                        console.println("Ошибка: неизвестная операция!");
+                        continue;
                     }
+                    if (operation == Operation.DIVIDE && number == 0) {
+                        CalculatorMetrics.recordDivisionByZero();
+                        console.println("Ошибка: деление на ноль невозможно!");
+                        continue;
+                    }
+                    double result = operation.apply(calculator, number);
+                    logOperation(operation, number, result);
 
                     displayResult(result);
 
                 } catch (NumberFormatException e) {
-                    System.out.println("Ошибка: введите корректное число!");
+                    console.println("Ошибка: введите корректное число!");
                 }
 
             } catch (Exception e) {
-                System.out.println("Произошла ошибка: " + e.getMessage());
+                console.println("Произошла ошибка: " + e.getMessage());
             }
         }
 
-        System.out.println("Спасибо за использование калькулятора!");
+        console.println("Спасибо за использование калькулятора!");
         input.close();
+        try {
+            logWriter.close();
+            if (journal != null) {
+                journal.close();
+            }
+            if (session != null) {
+                session.close();
+            }
+        } catch (IOException e) {
+            console.println("Ошибка при записи в лог: " + e.getMessage());
+        }
+        console.flush();
     }
 } 
\ No newline at end of file
@@ -0,0 +1,245 @@
+package calc;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Класс ChainEvaluator вычисляет все промежуточные результаты длинной цепочки
+ * операций калькулятора (memory = memory op operand) параллельно.
+ *
+ * Каждая операция — аффинное отображение x -> a*x + b: сложение (1, v),
+ * вычитание (1, -v), умножение (v, 0), деление (1/v, 0). Композиция аффинных
+ * отображений ассоциативна, поэтому цепочка вычисляется параллельным
+ * префиксным сканированием в три этапа:
+ * 1) цепочка делится на части, для каждой параллельно вычисляется композиция
+ *    ее отображений;
+ * 2) последовательно по частям (их немного) вычисляются значения в начале
+ *    каждой части;
+ * 3) каждая часть параллельно вычисляется обычными операциями от своего
+ *    начального значения.
+ *
+ * Внутри частей используются те же операции, что и в Calculator, поэтому
+ * расхождение с последовательным вычислением вносят только начальные значения
+ * частей, полученные композицией с округлениями. В режиме APPROXIMATE
+ * для цепочек без переполнения оно не превышает примерно n * 2^-52
+ * от наибольшего по модулю промежуточного значения (n — длина цепочки);
+ * при сильном взаимном уничтожении слагаемых относительная погрешность
+ * малых результатов может быть больше. Режим EXACT сверяет начало каждой
+ * части с точным концом предыдущей и при расхождении пересчитывает часть
+ * последовательно, пока значения не совпадут побитово, — результат всегда
+ * совпадает с последовательным вычислением, а ускорение зависит от того,
+ * как быстро сходятся расхождения (в худшем случае — последовательный проход).
+ *
+ * Как и Calculator.divide, деление на ноль запрещено: если среди делителей
+ * есть ноль, выбрасывается ArithmeticException и массив результатов не изменяется.
+ */
+public final class ChainEvaluator {
+    /**
+     * Режим точности параллельного вычисления.
+     */
+    public enum Mode {
+        /** Результаты в пределах документированной погрешности. */
+        APPROXIMATE,
+        /** Результаты побитово совпадают с последовательным вычислением. */
+        EXACT
+    }
+
+    static final int PARALLEL_THRESHOLD = 1 << 16; // С какой длины цепочки включается параллельный режим
+    private static final int CHUNK_SIZE = 1 << 14; // Длина части цепочки
+
+    private ChainEvaluator() {
+    }
+
+    /**
+     * Вычисляет промежуточные результаты цепочки операций.
+     * Длинные цепочки вычисляются параллельно.
+     *
+     * @param initial начальное значение памяти
+     * @param operations операции цепочки
+     * @param operands операнды операций
+     * @param results массив для результатов: results[i] — память после операции i
+     * @param mode режим точности
+     * @throws ArithmeticException если среди делителей есть ноль
+     * @throws IllegalArgumentException если длины массивов различаются
+     */
+    public static void evaluate(double initial, Operation[] operations, double[] operands, double[] results,
+                                Mode mode) {
+        check(operations, operands, results);
+        int length = operations.length;
+        if (length < PARALLEL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() < 2) {
+            run(initial, operations, operands, results, 0, length);
+            return;
+        }
+
+        int chunks = (length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        double[] scale = new double[chunks];
+        double[] shift = new double[chunks];
+        ForkJoinPool.commonPool().invoke(new ChunkTask(0, chunks, chunk ->
+            compose(operations, operands, chunk, scale, shift)));
+
+        double[] starts = new double[chunks];
+        starts[0] = initial;
+        for (int chunk = 1; chunk < chunks; chunk++) {
+            starts[chunk] = scale[chunk - 1] * starts[chunk - 1] + shift[chunk - 1];
+        }
+
+        ForkJoinPool.commonPool().invoke(new ChunkTask(0, chunks, chunk ->
+            run(starts[chunk], operations, operands, results,
+                chunk * CHUNK_SIZE, Math.min(length, (chunk + 1) * CHUNK_SIZE))));
+
+        if (mode == Mode.EXACT) {
+            repair(operations, operands, results, starts, chunks);
+        }
+    }
+
+    /**
+     * Последовательно вычисляет промежуточные результаты цепочки операций.
+     *
+     * @param initial начальное значение памяти
+     * @param operations операции цепочки
+     * @param operands операнды операций
+     * @param results массив для результатов: results[i] — память после операции i
+     * @throws ArithmeticException если среди делителей есть ноль
+     * @throws IllegalArgumentException если длины массивов различаются
+     */
+    public static void evaluateSequential(double initial, Operation[] operations, double[] operands,
+                                          double[] results) {
+        check(operations, operands, results);
+        run(initial, operations, operands, results, 0, operations.length);
+    }
+
+    /**
+     * Вычисляет часть цепочки обычными операциями.
+     */
+    private static void run(double start, Operation[] operations, double[] operands, double[] results,
+                            int from, int to) {
+        double memory = start;
+        for (int i = from; i < to; i++) {
+            memory = apply(operations[i], memory, operands[i]);
+            results[i] = memory;
+        }
+    }
+
+    /**
+     * Вычисляет композицию аффинных отображений части цепочки.
+     */
+    private static void compose(Operation[] operations, double[] operands, int chunk,
+                                double[] scale, double[] shift) {
+        double a = 1;
+        double b = 0;
+        int to = Math.min(operations.length, (chunk + 1) * CHUNK_SIZE);
+        for (int i = chunk * CHUNK_SIZE; i < to; i++) {
+            double v = operands[i];
+            switch (operations[i]) {
+                case ADD:
+                    b += v;
+                    break;
+                case SUBTRACT:
+                    b -= v;
+                    break;
+                case MULTIPLY:
+                    a *= v;
+                    b *= v;
+                    break;
+                default:
+                    a /= v;
+                    b /= v;
+                    break;
+            }
+        }
+        scale[chunk] = a;
+        shift[chunk] = b;
+    }
+
+    /**
+     * Сверяет начала частей с точными концами предыдущих частей и пересчитывает
+     * части с неверным началом до побитового совпадения с уже вычисленным.
+     */
+    private static void repair(Operation[] operations, double[] operands, double[] results,
+                               double[] starts, int chunks) {
+        int length = operations.length;
+        for (int chunk = 1; chunk < chunks; chunk++) {
+            int from = chunk * CHUNK_SIZE;
+            int to = Math.min(length, from + CHUNK_SIZE);
+            double memory = results[from - 1];
+            if (Double.doubleToRawLongBits(memory) == Double.doubleToRawLongBits(starts[chunk])) {
+                continue;
+            }
+            for (int i = from; i < to; i++) {
+                memory = apply(operations[i], memory, operands[i]);
+                if (Double.doubleToRawLongBits(memory) == Double.doubleToRawLongBits(results[i])) {
+                    break; // Дальше значения вычислены от того же числа и уже точны
+                }
+                results[i] = memory;
+            }
+        }
+    }
+
+    /**
+     * Выполняет одну операцию так же, как NumberSystemConverter.
+     */
+    private static double apply(Operation operation, double memory, double operand) {
+        switch (operation) {
+            case ADD:
+                return memory + operand;
+            case SUBTRACT:
+                return memory - operand;
+            case MULTIPLY:
+                return memory * operand;
+            default:
+                return memory / operand;
+        }
+    }
+
+    /**
+     * Проверяет длины массивов и отсутствие деления на ноль.
+     */
+    private static void check(Operation[] operations, double[] operands, double[] results) {
+        if (operations.length != operands.length || operations.length != results.length) {
+            throw new IllegalArgumentException("Длины массивов должны совпадать");
+        }
+        for (int i = 0; i < operations.length; i++) {
+            if (operations[i] == Operation.DIVIDE && operands[i] == 0) {
+                throw new ArithmeticException("Деление на ноль невозможно! (шаг " + i + ")");
+            }
+        }
+    }
+
+    /**
+     * Действие над одной частью цепочки.
+     */
+    private interface ChunkAction {
+        /**
+         * Обрабатывает часть.
+         * @param chunk номер части
+         */
+        void run(int chunk);
+    }
+
+    /**
+     * Задача ForkJoin, делящая диапазон частей пополам до одной части.
+     */
+    private static final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final transient ChunkAction action;
+
+        ChunkTask(int from, int to, ChunkAction action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                action.run(from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunkTask(from, middle, action), new ChunkTask(middle, to, action));
+        }
+    }
+}
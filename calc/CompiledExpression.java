@@ -0,0 +1,17 @@
+package calc;
+
+/**
+ * Интерфейс CompiledExpression — скомпилированное выражение калькулятора.
+ * Выражение разбирается один раз (ExpressionCompiler), а затем может
+ * многократно вычисляться для разных значений памяти калькулятора.
+ */
+@FunctionalInterface
+public interface CompiledExpression {
+    /**
+     * Вычисляет выражение.
+     * @param memory текущее значение памяти калькулятора (переменная m)
+     * @return значение выражения
+     * @throws ArithmeticException при делении на ноль
+     */
+    double evaluate(double memory);
+}
@@ -0,0 +1,111 @@
+package calc;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Класс ConsoleLineReader читает строки из байтового потока (обычно System.in)
+ * на замену Scanner.nextLine(): строки ищутся по байту '\n' в буфере без
+ * регулярных выражений, а в UTF-8 декодируется только возвращаемая строка,
+ * а не весь прочитанный буфер.
+ *
+ * Перед чтением, которое может заблокироваться (во входном потоке нет
+ * готовых данных), сбрасывается связанный вывод: подсказка и результаты
+ * видны собеседнику до того, как программа начнет ждать ответа.
+ */
+public class ConsoleLineReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16; // Начальный размер буфера
+
+    private final InputStream in;      // Источник байтов
+    private final Flushable output;    // Вывод, сбрасываемый перед ожиданием ввода (может быть null)
+    private byte[] buffer;             // Прочитанные байты
+    private int start;                 // Начало непрочитанных строк в буфере
+    private int end;                   // Конец данных в буфере
+    private boolean eof;               // Поток закончился
+
+    /**
+     * Конструктор класса.
+     * @param in источник байтов
+     * @param output вывод, сбрасываемый перед ожиданием ввода, или null
+     */
+    public ConsoleLineReader(InputStream in, Flushable output) {
+        this.in = in;
+        this.output = output;
+        this.buffer = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Читает строку. Символы '\n' и '\r\n' в конце строки отбрасываются.
+     * @return строка или null, если поток закончился
+     * @throws IOException если произошла ошибка чтения
+     */
+    public String readLine() throws IOException {
+        int searchFrom = start;
+        while (true) {
+            for (int i = searchFrom; i < end; i++) {
+                if (buffer[i] == '\n') {
+                    String line = decode(start, i);
+                    start = i + 1;
+                    return line;
+                }
+            }
+            if (eof) {
+                if (start == end) {
+                    return null;
+                }
+                String line = decode(start, end); // Последняя строка без перевода строки
+                start = end;
+                return line;
+            }
+            searchFrom = end - start;
+            fill();
+        }
+    }
+
+    /**
+     * Закрывает источник байтов.
+     * @throws IOException если источник не удалось закрыть
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Дочитывает данные в буфер, перенося непрочитанный остаток в начало
+     * и при необходимости расширяя буфер под длинную строку.
+     */
+    private void fill() throws IOException {
+        int remaining = end - start;
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, remaining);
+        } else if (remaining == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        start = 0;
+        end = remaining;
+        if (output != null && in.available() == 0) {
+            output.flush(); // Чтение заблокируется: собеседник должен увидеть вывод
+        }
+        int read = in.read(buffer, end, buffer.length - end);
+        if (read < 0) {
+            eof = true;
+        } else {
+            end += read;
+        }
+    }
+
+    /**
+     * Декодирует строку из буфера, отбрасывая завершающий '\r'.
+     */
+    private String decode(int from, int to) {
+        if (to > from && buffer[to - 1] == '\r') {
+            to--;
+        }
+        return new String(buffer, from, to - from, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,192 @@
+package calc;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Класс ConsoleOutput — буферизованный вывод текста в кодировке UTF-8
+ * на замену System.out для CalculatorUI. Символы кодируются прямо в байтовый
+ * буфер и передаются в поток одним вызовом write: при выводе в терминал —
+ * после каждого перевода строки, иначе (вывод в канал или файл) — только
+ * при заполнении буфера и по flush().
+ */
+public class ConsoleOutput implements Appendable, Flushable {
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16; // Размер буфера по умолчанию
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final OutputStream out;   // Поток вывода
+    private final boolean interactive; // Сбрасывать ли буфер после каждого перевода строки
+    private final byte[] buffer;      // Закодированный, но еще не выведенный текст
+    private int count;                // Занято байт в буфере
+
+    /**
+     * Конструктор класса с буфером размера по умолчанию.
+     * @param out поток вывода
+     * @param interactive true для терминала: буфер сбрасывается после каждой строки
+     */
+    public ConsoleOutput(OutputStream out, boolean interactive) {
+        this(out, interactive, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Конструктор класса.
+     * @param out поток вывода
+     * @param interactive true для терминала: буфер сбрасывается после каждой строки
+     * @param bufferSize размер буфера в байтах (не меньше 16)
+     */
+    public ConsoleOutput(OutputStream out, boolean interactive, int bufferSize) {
+        this.out = out;
+        this.interactive = interactive;
+        this.buffer = new byte[Math.max(16, bufferSize)];
+    }
+
+    /**
+     * Проверяет, выводится ли текст в терминал.
+     * @return true, если буфер сбрасывается после каждой строки
+     */
+    public boolean isInteractive() {
+        return interactive;
+    }
+
+    /**
+     * Выводит текст.
+     * @param text текст
+     * @return этот объект
+     */
+    public ConsoleOutput print(CharSequence text) {
+        return append(text);
+    }
+
+    /**
+     * Выводит текст и перевод строки.
+     * @param text текст
+     * @return этот объект
+     */
+    public ConsoleOutput println(CharSequence text) {
+        encode(text, 0, text.length());
+        return append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Выводит перевод строки.
+     * @return этот объект
+     */
+    public ConsoleOutput println() {
+        return append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Выводит текст по шаблону String.format.
+     * @param format шаблон
+     * @param args аргументы шаблона
+     * @return этот объект
+     */
+    public ConsoleOutput printf(String format, Object... args) {
+        return append(String.format(format, args));
+    }
+
+    @Override
+    public ConsoleOutput append(CharSequence text) {
+        return append(text, 0, text.length());
+    }
+
+    @Override
+    public ConsoleOutput append(CharSequence text, int start, int end) {
+        if (encode(text, start, end) && interactive) {
+            flush();
+        }
+        return this;
+    }
+
+    @Override
+    public ConsoleOutput append(char c) {
+        ensure(3);
+        count = encodeChar(c, count);
+        if (c == '\n' && interactive) {
+            flush();
+        }
+        return this;
+    }
+
+    /**
+     * Передает накопленный текст в поток вывода.
+     * @throws UncheckedIOException если поток не принял данные
+     */
+    @Override
+    public void flush() {
+        try {
+            writeBuffer();
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Кодирует фрагмент текста в буфер.
+     * @return true, если во фрагменте был перевод строки
+     */
+    private boolean encode(CharSequence text, int start, int end) {
+        boolean newline = false;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            ensure(4);
+            if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                count = encodeChar(c, count);
+                newline |= c == '\n';
+            }
+        }
+        return newline;
+    }
+
+    /**
+     * Кодирует символ из базовой плоскости; одиночный суррогат заменяется на '?'.
+     * @return новая позиция в буфере
+     */
+    private int encodeChar(char c, int pos) {
+        if (c < 0x80) {
+            buffer[pos++] = (byte) c;
+        } else if (c < 0x800) {
+            buffer[pos++] = (byte) (0xC0 | (c >> 6));
+            buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            buffer[pos++] = '?';
+        } else {
+            buffer[pos++] = (byte) (0xE0 | (c >> 12));
+            buffer[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return pos;
+    }
+
+    /**
+     * Освобождает в буфере место под заданное количество байт.
+     */
+    private void ensure(int bytes) {
+        if (count + bytes > buffer.length) {
+            try {
+                writeBuffer();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Передает буфер в поток без сброса самого потока.
+     */
+    private void writeBuffer() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+}
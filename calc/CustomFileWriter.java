@@ -1,8 +1,12 @@
+package calc;
+
 import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.FileOutputStream;
 import java.io.OutputStreamWriter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -10,7 +14,7 @@ import java.util.List;
  * с поддержкой кодировки UTF-8. Поддерживает как добавление отдельных строк,
  * так и запись списка строк с перезаписью файла.
  */
-public class CustomFileWriter {
+public class CustomFileWriter implements Closeable {
     private String filePath; // Путь к файлу для записи
 
     /**
@@ -29,22 +33,18 @@ public class CustomFileWriter {
      * @throws IOException если произошла ошибка при записи в файл
      */
     public void writeLine(String text) throws IOException {
-        // Открываем файл для записи в кодировке UTF-8
-        BufferedWriter writer = new BufferedWriter(
-            new OutputStreamWriter(
-                new FileOutputStream(filePath, true), // true - для добавления в конец файла
-                StandardCharsets.UTF_8
-            )
-        );
-        
-        try {
-            // Записываем строку и добавляем перенос строки
-            writer.write(text);
-            writer.newLine();
-        } finally {
-            // Закрываем файл в любом случае для освобождения ресурсов
-            writer.close();
-        }
+        write(Collections.singletonList(text), true); // true - для добавления в конец файла
+    }
+
+    /**
+     * Добавляет список строк в конец файла, открывая его один раз.
+     * Каждая строка автоматически завершается символом переноса строки.
+     * 
+     * @param lines список строк для записи
+     * @throws IOException если произошла ошибка при записи в файл
+     */
+    public void appendLines(List<String> lines) throws IOException {
+        write(lines, true);
     }
 
     /**
@@ -55,23 +55,53 @@ public class CustomFileWriter {
      * @throws IOException если произошла ошибка при записи в файл
      */
     public void writeLines(List<String> lines) throws IOException {
-        // Открываем файл для записи в кодировке UTF-8
-        BufferedWriter writer = new BufferedWriter(
-            new OutputStreamWriter(
-                new FileOutputStream(filePath, false), // false - для перезаписи файла
-                StandardCharsets.UTF_8
-            )
-        );
-        
+        write(lines, false); // false - для перезаписи файла
+    }
+
+    /**
+     * Открывает файл, записывает строки и закрывает его.
+     * Учитывает задержку записи и сбои в CalculatorMetrics.
+     *
+     * @param lines список строк для записи
+     * @param append дописывать ли в конец файла
+     * @throws IOException если произошла ошибка при записи в файл
+     */
+    private void write(List<String> lines, boolean append) throws IOException {
+        long start = CalculatorMetrics.start();
         try {
-            // Записываем каждую строку из списка
-            for (String line : lines) {
-                writer.write(line);
-                writer.newLine();
+            // Открываем файл для записи в кодировке UTF-8
+            BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(
+                    new FileOutputStream(filePath, append),
+                    StandardCharsets.UTF_8
+                )
+            );
+
+            try {
+                // Записываем каждую строку и добавляем перенос строки
+                for (String line : lines) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            } finally {
+                // Закрываем файл в любом случае для освобождения ресурсов
+                writer.close();
             }
-        } finally {
-            // Закрываем файл в любом случае для освобождения ресурсов
-            writer.close();
+        } catch (IOException e) {
+            CalculatorMetrics.recordLogFailure();
+            throw e;
         }
+        CalculatorMetrics.recordLogWrite(start, lines.size());
+    }
+
+    /**
+     * Завершает работу с файлом.
+     * В синхронном режиме файл открывается на время каждой записи,
+     * поэтому закрывать нечего; подклассы могут освобождать свои ресурсы.
+     * 
+     * @throws IOException если произошла ошибка при закрытии
+     */
+    @Override
+    public void close() throws IOException {
     }
-} 
\ No newline at end of file
+}
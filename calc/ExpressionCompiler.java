@@ -0,0 +1,356 @@
+package calc;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Класс ExpressionCompiler разбирает арифметические выражения с приоритетом
+ * операций и скобками, например (0x1F + 0b101) * 3 / 7 - m, и компилирует
+ * их в дерево замыканий CompiledExpression.
+ *
+ * Поддерживаются операции + - * /, унарный минус, скобки, переменная m
+ * (текущее значение памяти) и числа с префиксами 0b (двоичные), 0o (восьмеричные)
+ * и 0x (шестнадцатеричные); числа без префикса — десятичные. Дробная часть
+ * допускается в любой системе счисления. Подвыражения из одних констант
+ * вычисляются при компиляции.
+ *
+ * Скомпилированные выражения хранятся в LRU-кэше по тексту выражения,
+ * поэтому повторное выражение не разбирается заново.
+ *
+ * Глубина вложенности скобок и унарных знаков ограничена MAX_DEPTH,
+ * а число бинарных операций — MAX_OPERATORS: разбор и вычисление дерева
+ * рекурсивные, и без пределов выражение вроде ((((…1…)))) или m+m+…+m
+ * из десятков тысяч элементов переполняло бы стек вместо ошибки в выражении.
+ */
+public class ExpressionCompiler {
+    private static final int MAX_DEPTH = 256;      // Наибольшая глубина вложенности скобок и унарных знаков
+    private static final int MAX_OPERATORS = 4096; // Наибольшее число бинарных операций в выражении
+
+    private final Map<String, CompiledExpression> cache; // Кэш скомпилированных выражений
+
+    /**
+     * Константа — результат свертки подвыражения без переменных.
+     */
+    private static final class Constant implements CompiledExpression {
+        final double value; // Значение константы
+
+        Constant(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public double evaluate(double memory) {
+            return value;
+        }
+    }
+
+    /**
+     * Конструктор класса.
+     * @param cacheSize максимальное количество выражений в кэше
+     */
+    public ExpressionCompiler(int cacheSize) {
+        if (cacheSize < 1) {
+            throw new IllegalArgumentException("Размер кэша должен быть положительным");
+        }
+        this.cache = new LinkedHashMap<String, CompiledExpression>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledExpression> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Возвращает скомпилированное выражение, используя кэш.
+     * @param text текст выражения
+     * @return скомпилированное выражение
+     * @throws IllegalArgumentException если выражение содержит ошибку
+     */
+    public CompiledExpression compile(String text) {
+        synchronized (cache) {
+            CompiledExpression expression = cache.get(text);
+            if (expression != null) {
+                return expression;
+            }
+        }
+        CompiledExpression expression = new Parser(text).parse();
+        synchronized (cache) {
+            cache.put(text, expression);
+        }
+        return expression;
+    }
+
+    /**
+     * Вычисляет выражение для заданного значения памяти.
+     * @param text текст выражения
+     * @param memory значение памяти калькулятора
+     * @return значение выражения
+     * @throws IllegalArgumentException если выражение содержит ошибку
+     * @throws ArithmeticException при делении на ноль
+     */
+    public double evaluate(String text, double memory) {
+        return compile(text).evaluate(memory);
+    }
+
+    /**
+     * Рекурсивный нисходящий разборщик выражения.
+     */
+    private static final class Parser {
+        private final String text; // Текст выражения
+        private int pos;           // Текущая позиция
+        private int depth;         // Текущая глубина вложенности
+        private int operators;     // Разобрано бинарных операций
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        /**
+         * Разбирает выражение целиком.
+         * @return скомпилированное выражение
+         */
+        CompiledExpression parse() {
+            CompiledExpression result = parseSum();
+            skipSpaces();
+            if (pos < text.length()) {
+                throw error("лишний символ '" + text.charAt(pos) + "'");
+            }
+            return result;
+        }
+
+        /**
+         * Сумма: произведение (('+' | '-') произведение)*.
+         */
+        private CompiledExpression parseSum() {
+            CompiledExpression left = parseProduct();
+            while (true) {
+                skipSpaces();
+                if (accept('+')) {
+                    left = binary('+', left, parseProduct());
+                } else if (accept('-')) {
+                    left = binary('-', left, parseProduct());
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        /**
+         * Произведение: множитель (('*' | '/') множитель)*.
+         */
+        private CompiledExpression parseProduct() {
+            CompiledExpression left = parseUnary();
+            while (true) {
+                skipSpaces();
+                if (accept('*')) {
+                    left = binary('*', left, parseUnary());
+                } else if (accept('/')) {
+                    left = binary('/', left, parseUnary());
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        /**
+         * Множитель с необязательным унарным минусом или плюсом.
+         */
+        private CompiledExpression parseUnary() {
+            skipSpaces();
+            if (accept('-')) {
+                enter();
+                CompiledExpression operand = parseUnary();
+                depth--;
+                if (operand instanceof Constant) {
+                    return new Constant(-((Constant) operand).value);
+                }
+                return memory -> -operand.evaluate(memory);
+            }
+            if (accept('+')) {
+                enter();
+                CompiledExpression operand = parseUnary();
+                depth--;
+                return operand;
+            }
+            return parsePrimary();
+        }
+
+        /**
+         * Число, переменная m или выражение в скобках.
+         */
+        private CompiledExpression parsePrimary() {
+            skipSpaces();
+            if (accept('(')) {
+                enter();
+                CompiledExpression inner = parseSum();
+                skipSpaces();
+                if (!accept(')')) {
+                    throw error("ожидается ')'");
+                }
+                depth--;
+                return inner;
+            }
+            if (pos < text.length() && Character.toLowerCase(text.charAt(pos)) == 'm') {
+                pos++;
+                return memory -> memory;
+            }
+            return new Constant(parseLiteral());
+        }
+
+        /**
+         * Разбирает число с необязательным префиксом системы счисления.
+         */
+        private double parseLiteral() {
+            int radix = 10;
+            if (pos + 1 < text.length() && text.charAt(pos) == '0') {
+                switch (Character.toLowerCase(text.charAt(pos + 1))) {
+                    case 'b':
+                        radix = 2;
+                        break;
+                    case 'o':
+                        radix = 8;
+                        break;
+                    case 'x':
+                        radix = 16;
+                        break;
+                    default:
+                        break;
+                }
+                if (radix != 10) {
+                    pos += 2;
+                }
+            }
+
+            int start = pos;
+            int digits = 0;
+            double value = 0;
+            int digit;
+            while (pos < text.length() && (digit = Character.digit(text.charAt(pos), radix)) >= 0) {
+                value = value * radix + digit;
+                digits++;
+                pos++;
+            }
+            if (pos < text.length() && text.charAt(pos) == '.') {
+                pos++;
+                double scale = 1.0 / radix;
+                while (pos < text.length() && (digit = Character.digit(text.charAt(pos), radix)) >= 0) {
+                    value += digit * scale;
+                    scale /= radix;
+                    digits++;
+                    pos++;
+                }
+            }
+            if (digits == 0) {
+                throw error("ожидается число");
+            }
+            if (radix == 10) {
+                // Десятичные числа разбираются стандартно, чтобы округление совпадало с Double.parseDouble
+                value = Double.parseDouble(text.substring(start, pos));
+            }
+            return value;
+        }
+
+        /**
+         * Строит узел бинарной операции со сверткой констант.
+         */
+        private CompiledExpression binary(char operator, CompiledExpression left, CompiledExpression right) {
+            if (++operators > MAX_OPERATORS) {
+                throw error("слишком длинное выражение");
+            }
+            boolean leftConstant = left instanceof Constant;
+            boolean rightConstant = right instanceof Constant;
+            if (leftConstant && rightConstant) {
+                double a = ((Constant) left).value;
+                double b = ((Constant) right).value;
+                if (operator != '/' || b != 0) {
+                    return new Constant(apply(operator, a, b));
+                }
+            }
+            if (rightConstant) {
+                double b = ((Constant) right).value;
+                switch (operator) {
+                    case '+':
+                        return memory -> left.evaluate(memory) + b;
+                    case '-':
+                        return memory -> left.evaluate(memory) - b;
+                    case '*':
+                        return memory -> left.evaluate(memory) * b;
+                    default:
+                        if (b != 0) {
+                            return memory -> left.evaluate(memory) / b;
+                        }
+                        break;
+                }
+            }
+            switch (operator) {
+                case '+':
+                    return memory -> left.evaluate(memory) + right.evaluate(memory);
+                case '-':
+                    return memory -> left.evaluate(memory) - right.evaluate(memory);
+                case '*':
+                    return memory -> left.evaluate(memory) * right.evaluate(memory);
+                default:
+                    return memory -> {
+                        double divisor = right.evaluate(memory);
+                        if (divisor == 0) {
+                            throw new ArithmeticException("Деление на ноль невозможно!");
+                        }
+                        return left.evaluate(memory) / divisor;
+                    };
+            }
+        }
+
+        /**
+         * Выполняет операцию над двумя константами.
+         */
+        private static double apply(char operator, double a, double b) {
+            switch (operator) {
+                case '+':
+                    return a + b;
+                case '-':
+                    return a - b;
+                case '*':
+                    return a * b;
+                default:
+                    return a / b;
+            }
+        }
+
+        /**
+         * Пропускает ожидаемый символ, если он стоит в текущей позиции.
+         */
+        private boolean accept(char expected) {
+            if (pos < text.length() && text.charAt(pos) == expected) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Пропускает пробельные символы.
+         */
+        private void skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        /**
+         * Переходит на уровень вложенности глубже.
+         * @throws IllegalArgumentException если глубина превышает MAX_DEPTH
+         */
+        private void enter() {
+            if (++depth > MAX_DEPTH) {
+                throw error("слишком глубокая вложенность");
+            }
+        }
+
+        /**
+         * Создает исключение с указанием позиции ошибки.
+         */
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Ошибка в выражении (позиция " + (pos + 1) + "): " + message);
+        }
+    }
+}
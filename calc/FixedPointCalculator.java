@@ -0,0 +1,533 @@
+package calc;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Класс FixedPointCalculator — калькулятор с фиксированной точкой: значение
+ * хранится как long в единицах 10^-scale (при scale = 2 число 12,34 — это 1234).
+ * Сложение и вычитание точны, умножение и деление округляются до scale
+ * знаков по заданному RoundingMode; промежуточное произведение вычисляется
+ * в 128 битах, поэтому результат теряет точность только при округлении.
+ * Операции над единицами (addUnits и т.п.) не создают объектов.
+ *
+ * Если результат не помещается в long, выбрасывается ArithmeticException
+ * и значение в памяти не меняется. RoundingMode.UNNECESSARY запрещает
+ * округление: неточный результат тоже приводит к ArithmeticException.
+ *
+ * Методы с параметром double, унаследованные от Calculator, переводят число
+ * в единицы через его кратчайшую десятичную запись (как BigDecimal.valueOf)
+ * и создают объекты; ввод без потерь разбирает parseNumber. Представления
+ * в системах счисления формирует RadixFormatter.renderFixed: в системах
+ * 2, 8 и 16 дробная часть тоже переводится в эту систему.
+ */
+public class FixedPointCalculator extends Calculator {
+    public static final int MAX_SCALE = 18; // Наибольшее количество знаков после точки
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_SCALE + 1]; // Степени десяти
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= MAX_SCALE; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final int scale;             // Знаков после точки
+    private final long unit;             // 10^scale — единица в значениях
+    private final RoundingMode rounding; // Округление умножения и деления
+    private long units;                  // Текущее значение в единицах 10^-scale
+    private int currentRadix;            // Текущая система счисления
+
+    /**
+     * Конструктор класса. Два знака после точки, банковское округление.
+     */
+    public FixedPointCalculator() {
+        this(2, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * Конструктор класса.
+     * @param scale количество знаков после точки (от 0 до 18)
+     * @param rounding округление результатов умножения и деления
+     * @throws IllegalArgumentException если количество знаков вне диапазона
+     */
+    public FixedPointCalculator(int scale, RoundingMode rounding) {
+        super();
+        this.scale = checkScale(scale);
+        this.unit = POWERS_OF_TEN[scale];
+        this.rounding = rounding;
+        this.currentRadix = 10;
+    }
+
+    /**
+     * Устанавливает текущую систему счисления.
+     * @param radix система счисления (2, 8, 10 или 16)
+     * @throws IllegalArgumentException если система счисления не поддерживается
+     */
+    public void setRadix(int radix) {
+        if (radix != 2 && radix != 8 && radix != 10 && radix != 16) {
+            throw new IllegalArgumentException("Поддерживаются только системы счисления 2, 8, 10 и 16");
+        }
+        this.currentRadix = radix;
+    }
+
+    /**
+     * Возвращает количество знаков после точки.
+     * @return масштаб
+     */
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * Возвращает режим округления.
+     * @return округление умножения и деления
+     */
+    public RoundingMode getRoundingMode() {
+        return rounding;
+    }
+
+    /**
+     * Возвращает значение в единицах 10^-scale.
+     * @return значение в памяти
+     */
+    public long getUnits() {
+        return units;
+    }
+
+    /**
+     * Устанавливает значение в единицах 10^-scale.
+     * @param units новое значение
+     */
+    public void setUnits(long units) {
+        this.units = units;
+        isFirstOperation = false;
+    }
+
+    /**
+     * Возвращает значение из памяти, приближенное до double.
+     * @return текущее значение
+     */
+    @Override
+    public double getMemory() {
+        return (double) units / unit;
+    }
+
+    @Override
+    public void setMemory(double value) {
+        setUnits(toUnits(value));
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.units = 0;
+    }
+
+    /**
+     * Точно прибавляет число.
+     * @param operand число в единицах 10^-scale
+     * @return результат в единицах
+     * @throws ArithmeticException при переполнении
+     */
+    public long addUnits(long operand) {
+        long result = units + operand;
+        if (((units ^ result) & (operand ^ result)) < 0) {
+            throw overflow();
+        }
+        units = result;
+        return result;
+    }
+
+    /**
+     * Точно вычитает число.
+     * @param operand число в единицах 10^-scale
+     * @return результат в единицах
+     * @throws ArithmeticException при переполнении
+     */
+    public long subtractUnits(long operand) {
+        long result = units - operand;
+        if (((units ^ operand) & (units ^ result)) < 0) {
+            throw overflow();
+        }
+        units = result;
+        return result;
+    }
+
+    /**
+     * Умножает на число с округлением до scale знаков.
+     * @param operand множитель в единицах 10^-scale
+     * @return результат в единицах
+     * @throws ArithmeticException при переполнении или недопустимом округлении
+     */
+    public long multiplyUnits(long operand) {
+        boolean negative = (units ^ operand) < 0;
+        long a = Math.abs(units);   // Long.MIN_VALUE остается 2^63 без знака
+        long b = Math.abs(operand);
+        long high = Math.unsignedMultiplyHigh(a, b);
+        long low = a * b;
+        units = divideRounded(high, low, unit, negative, rounding);
+        return units;
+    }
+
+    /**
+     * Делит на число с округлением до scale знаков.
+     * @param operand делитель в единицах 10^-scale
+     * @return результат в единицах
+     * @throws ArithmeticException при делении на ноль, переполнении или недопустимом округлении
+     */
+    public long divideUnits(long operand) {
+        if (operand == 0) {
+            CalculatorMetrics.recordDivisionByZero();
+            throw new ArithmeticException("Деление на ноль невозможно!");
+        }
+        boolean negative = (units ^ operand) < 0;
+        long a = Math.abs(units);
+        long b = Math.abs(operand);
+        long high = Math.unsignedMultiplyHigh(a, unit);
+        long low = a * unit;
+        units = divideRounded(high, low, b, negative, rounding);
+        return units;
+    }
+
+    @Override
+    public double add(double num) {
+        addUnits(toUnits(num));
+        return getMemory();
+    }
+
+    @Override
+    public double subtract(double num) {
+        subtractUnits(toUnits(num));
+        return getMemory();
+    }
+
+    @Override
+    public double multiply(double num) {
+        multiplyUnits(toUnits(num));
+        return getMemory();
+    }
+
+    @Override
+    public double divide(double num) throws ArithmeticException {
+        divideUnits(toUnits(num));
+        return getMemory();
+    }
+
+    @Override
+    public String formatResult(double number) {
+        return format(toUnits(number), scale, currentRadix);
+    }
+
+    /**
+     * Форматирует значение памяти в текущей системе счисления.
+     * @return представление текущего значения
+     */
+    public String formatValue() {
+        return format(units, scale, currentRadix);
+    }
+
+    /**
+     * Разбирает число в заданной системе счисления в единицы этого калькулятора.
+     * @param input строковое представление числа
+     * @param radix основание системы счисления (2, 8, 10 или 16)
+     * @return значение в единицах 10^-scale
+     * @throws NumberFormatException если строка не является числом или число слишком велико
+     */
+    public long parse(String input, int radix) throws NumberFormatException {
+        return parseNumber(input, radix, scale, rounding);
+    }
+
+    /**
+     * Форматирует число с фиксированной точкой в заданной системе счисления.
+     * @param units значение в единицах 10^-scale
+     * @param scale количество знаков после точки
+     * @param radix система счисления (2, 8, 10 или 16)
+     * @return представление числа
+     */
+    public static String format(long units, int scale, int radix) {
+        char[] chars = new char[128];
+        int length = RadixFormatter.renderFixed(units, scale, radix, chars, 0);
+        return new String(chars, 0, length);
+    }
+
+    /**
+     * Разбирает число с дробной частью в заданной системе счисления в единицы
+     * 10^-scale. Формат: [пробелы][+|-]цифры[.цифры][пробелы]. Дробная часть
+     * в системах 2, 8 и 16 переводится в десятичные единицы точно; лишние
+     * знаки округляются по rounding (все отброшенные цифры учитываются).
+     * @param input строковое представление числа
+     * @param radix основание системы счисления (2, 8, 10 или 16)
+     * @param scale количество знаков после точки
+     * @param rounding округление лишних знаков
+     * @return значение в единицах 10^-scale
+     * @throws NumberFormatException если строка не является числом, число слишком велико
+     *         или его нельзя представить без округления при RoundingMode.UNNECESSARY
+     */
+    public static long parseNumber(CharSequence input, int radix, int scale, RoundingMode rounding)
+            throws NumberFormatException {
+        if (radix != 2 && radix != 8 && radix != 10 && radix != 16) {
+            throw new IllegalArgumentException("Поддерживаются только системы счисления 2, 8, 10 и 16");
+        }
+        long unit = POWERS_OF_TEN[checkScale(scale)];
+        int pos = 0;
+        int end = input.length();
+        while (pos < end && Character.isWhitespace(input.charAt(pos))) {
+            pos++;
+        }
+        while (end > pos && Character.isWhitespace(input.charAt(end - 1))) {
+            end--;
+        }
+        boolean negative = false;
+        if (pos < end && (input.charAt(pos) == '-' || input.charAt(pos) == '+')) {
+            negative = input.charAt(pos) == '-';
+            pos++;
+        }
+
+        // Целая часть — беззнаковое число не больше 2^63 / 10^scale
+        long limit = Long.divideUnsigned(Long.MIN_VALUE, unit);
+        long intPart = 0;
+        int digitCount = 0;
+        int digit;
+        while (pos < end && (digit = Character.digit(input.charAt(pos), radix)) >= 0) {
+            long shifted = intPart * radix + digit;
+            if (Math.unsignedMultiplyHigh(intPart, radix) != 0 || Long.compareUnsigned(shifted, limit) > 0) {
+                throw new NumberFormatException("Число слишком велико для " + scale + " знаков после точки: "
+                    + input.toString().trim());
+            }
+            intPart = shifted;
+            digitCount++;
+            pos++;
+        }
+
+        int fractionStart = pos;
+        long decimalFraction = 0; // Десятичная дробь, если в ней не больше scale цифр
+        if (pos < end && input.charAt(pos) == '.') {
+            fractionStart = ++pos;
+            while (pos < end && (digit = Character.digit(input.charAt(pos), radix)) >= 0) {
+                decimalFraction = decimalFraction * 10 + digit;
+                digitCount++;
+                pos++;
+            }
+        }
+        if (digitCount == 0 || pos != end) {
+            throw new NumberFormatException("Неверное число в " + radix + "-ичной системе: "
+                + input.toString().trim());
+        }
+
+        int fractionDigits = pos - fractionStart;
+        if (radix == 10 && fractionDigits <= scale) {
+            // Частый случай: десятичная дробь переводится в единицы без округления
+            long magnitude = intPart * unit + decimalFraction * POWERS_OF_TEN[scale - fractionDigits];
+            return applySign(magnitude, negative, input, scale);
+        }
+
+        // Дробная часть по схеме Горнера справа налево: v = (цифра + v) / radix.
+        // В единицах 10^-scale v = fraction + остаток, остаток в [0, 1) хранится
+        // только как сравнение с половиной — для четного radix этого достаточно
+        long fraction = 0;
+        int half = -1;          // Остаток относительно 1/2: -1 меньше, 0 равен, 1 больше
+        boolean inexact = false; // Остаток не равен нулю
+        long middle = radix >>> 1;
+        for (int i = pos - 1; i >= fractionStart; i--) {
+            long numerator = Character.digit(input.charAt(i), radix) * unit + fraction; // < 16 * 10^18 < 2^64
+            fraction = Long.divideUnsigned(numerator, radix);
+            long carried = numerator - fraction * radix;
+            half = carried > middle || (carried == middle && inexact) ? 1 : carried == middle ? 0 : -1;
+            inexact = carried != 0 || inexact;
+        }
+
+        try {
+            if (roundUp(intPart * unit + fraction, half, inexact, negative, rounding)) {
+                fraction++;
+            }
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Число нельзя представить с " + scale + " знаками после точки: "
+                + input.toString().trim());
+        }
+        long magnitude = intPart * unit + fraction; // Не больше 2^63 + 10^scale, переполнения нет
+        return applySign(magnitude, negative, input, scale);
+    }
+
+    /**
+     * Применяет знак к разобранному модулю числа.
+     * @param magnitude модуль в единицах (беззнаковый)
+     * @param negative отрицательно ли число
+     * @param input исходный текст для сообщения об ошибке
+     * @param scale количество знаков после точки для сообщения об ошибке
+     * @return значение со знаком
+     * @throws NumberFormatException если значение не помещается в long
+     */
+    private static long applySign(long magnitude, boolean negative, CharSequence input, int scale) {
+        if (Long.compareUnsigned(magnitude, negative ? Long.MIN_VALUE : Long.MAX_VALUE) > 0) {
+            throw new NumberFormatException("Число слишком велико для " + scale + " знаков после точки: "
+                + input.toString().trim());
+        }
+        return negative ? -magnitude : magnitude; // 2^63 без знака дает Long.MIN_VALUE
+    }
+
+    /**
+     * Переводит double в единицы через кратчайшую десятичную запись числа.
+     * @param value число
+     * @return значение в единицах 10^-scale
+     * @throws ArithmeticException если число не конечно или не помещается в long
+     */
+    private long toUnits(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new ArithmeticException("Число не представимо с фиксированной точкой: " + value);
+        }
+        try {
+            return BigDecimal.valueOf(value).setScale(scale, rounding).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw rounding == RoundingMode.UNNECESSARY ? e : overflow();
+        }
+    }
+
+    /**
+     * Возвращает 10 в степени n.
+     * @param n показатель (от 0 до 18)
+     * @return 10^n
+     */
+    static long powerOfTen(int n) {
+        return POWERS_OF_TEN[n];
+    }
+
+    /**
+     * Проверяет количество знаков после точки.
+     * @param scale количество знаков
+     * @return то же количество
+     * @throws IllegalArgumentException если количество вне диапазона
+     */
+    static int checkScale(int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("Количество знаков после точки должно быть от 0 до " + MAX_SCALE);
+        }
+        return scale;
+    }
+
+    /**
+     * Делит беззнаковое 128-битное число на беззнаковый делитель с округлением
+     * и возвращает результат со знаком.
+     * @param high старшие 64 бита делимого
+     * @param low младшие 64 бита делимого
+     * @param divisor делитель (беззнаковый, не ноль)
+     * @param negative отрицателен ли результат
+     * @param rounding режим округления
+     * @return частное со знаком
+     * @throws ArithmeticException при переполнении или недопустимом округлении
+     */
+    static long divideRounded(long high, long low, long divisor, boolean negative, RoundingMode rounding) {
+        if (Long.compareUnsigned(high, divisor) >= 0) {
+            throw overflow(); // Частное не помещается в 64 бита
+        }
+        long quotient = divide128(high, low, divisor);
+        long remainder = low - quotient * divisor;
+        // Сравнение остатка с половиной делителя: 2r против d (2r < 2^64, так как r < d <= 2^63)
+        int half = Long.compareUnsigned(remainder << 1, divisor);
+        if (roundUp(quotient, half, remainder != 0, negative, rounding)) {
+            quotient++;
+            if (quotient == 0) {
+                throw overflow();
+            }
+        }
+        if (negative) {
+            if (Long.compareUnsigned(quotient, Long.MIN_VALUE) > 0) {
+                throw overflow();
+            }
+            return -quotient;
+        }
+        if (quotient < 0) {
+            throw overflow();
+        }
+        return quotient;
+    }
+
+    /**
+     * Решает, нужно ли увеличить модуль частного на единицу.
+     * @param quotient модуль частного
+     * @param half сравнение остатка с половиной делителя (-1, 0 или 1)
+     * @param inexact не равен ли остаток нулю
+     * @param negative отрицателен ли результат
+     * @param rounding режим округления
+     * @return true, если модуль частного нужно увеличить
+     * @throws ArithmeticException если округление запрещено, а результат неточен
+     */
+    static boolean roundUp(long quotient, int half, boolean inexact, boolean negative, RoundingMode rounding) {
+        if (!inexact) {
+            return false;
+        }
+        switch (rounding) {
+            case UP:
+                return true;
+            case DOWN:
+                return false;
+            case CEILING:
+                return !negative;
+            case FLOOR:
+                return negative;
+            case HALF_UP:
+                return half >= 0;
+            case HALF_DOWN:
+                return half > 0;
+            case HALF_EVEN:
+                return half > 0 || (half == 0 && (quotient & 1) != 0);
+            default:
+                throw new ArithmeticException("Результат нельзя представить без округления");
+        }
+    }
+
+    /**
+     * Делит беззнаковое 128-битное число на 64-битное (алгоритм divlu
+     * из «Hacker's Delight»). Старшая часть делимого должна быть меньше делителя.
+     * @param high старшие 64 бита делимого
+     * @param low младшие 64 бита делимого
+     * @param divisor делитель
+     * @return беззнаковое частное
+     */
+    private static long divide128(long high, long low, long divisor) {
+        if (high == 0) {
+            return Long.divideUnsigned(low, divisor);
+        }
+        final long base = 1L << 32;
+        int shift = Long.numberOfLeadingZeros(divisor);
+        long v = divisor << shift;
+        long vHigh = v >>> 32;
+        long vLow = v & 0xFFFFFFFFL;
+        long u32 = shift == 0 ? high : (high << shift) | (low >>> (64 - shift));
+        long u10 = low << shift;
+        long uHigh = u10 >>> 32;
+        long uLow = u10 & 0xFFFFFFFFL;
+
+        long q1 = Long.divideUnsigned(u32, vHigh);
+        long rhat = u32 - q1 * vHigh;
+        while (Long.compareUnsigned(q1, base) >= 0
+                || Long.compareUnsigned(q1 * vLow, (rhat << 32) + uHigh) > 0) {
+            q1--;
+            rhat += vHigh;
+            if (Long.compareUnsigned(rhat, base) >= 0) {
+                break;
+            }
+        }
+        long u21 = (u32 << 32) + uHigh - q1 * v;
+
+        long q0 = Long.divideUnsigned(u21, vHigh);
+        rhat = u21 - q0 * vHigh;
+        while (Long.compareUnsigned(q0, base) >= 0
+                || Long.compareUnsigned(q0 * vLow, (rhat << 32) + uLow) > 0) {
+            q0--;
+            rhat += vHigh;
+            if (Long.compareUnsigned(rhat, base) >= 0) {
+                break;
+            }
+        }
+        return (q1 << 32) + q0;
+    }
+
+    /**
+     * Создает исключение переполнения.
+     */
+    private static ArithmeticException overflow() {
+        return new ArithmeticException("Переполнение: результат не помещается в число с фиксированной точкой");
+    }
+}
@@ -0,0 +1,209 @@
+package calc;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Класс JournalReader читает двоичный журнал BinaryJournalWriter через
+ * отображение файла в память (MappedByteBuffer). Поля записей читаются
+ * напрямую из отображения по индексу, без копирования и создания объектов.
+ * Большие журналы отображаются несколькими сегментами по 1 ГБ.
+ */
+public class JournalReader implements Closeable {
+    /**
+     * Обработчик записей журнала при последовательном просмотре.
+     */
+    public interface RecordVisitor {
+        /**
+         * Вызывается для каждой записи журнала.
+         * @param index номер записи
+         * @param code код операции (0 — ввод первого числа)
+         * @param number число
+         * @param result результат
+         * @param timestamp время в миллисекундах
+         */
+        void visit(long index, int code, double number, double result, long timestamp);
+    }
+
+    private static final int SEGMENT_SHIFT = 25;               // В сегменте 2^25 записей (1 ГБ)
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT; // Записей в сегменте
+
+    private final FileChannel channel;         // Файл журнала
+    private final MappedByteBuffer[] segments; // Отображенные сегменты файла
+    private final long recordCount;            // Количество полных записей
+
+    /**
+     * Конструктор класса. Открывает журнал и отображает его в память.
+     * @param filePath путь к файлу журнала
+     * @throws IOException если файл не удалось открыть или он не является журналом
+     */
+    public JournalReader(String filePath) throws IOException {
+        this.channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+        try {
+            BinaryJournalWriter.checkHeader(channel);
+            this.recordCount = (channel.size() - BinaryJournalWriter.HEADER_SIZE) / BinaryJournalWriter.RECORD_SIZE;
+            int segmentCount = (int) ((recordCount + SEGMENT_SIZE - 1) >> SEGMENT_SHIFT);
+            this.segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long first = (long) i << SEGMENT_SHIFT;
+                long records = Math.min(SEGMENT_SIZE, recordCount - first);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                    BinaryJournalWriter.HEADER_SIZE + first * BinaryJournalWriter.RECORD_SIZE,
+                    records * BinaryJournalWriter.RECORD_SIZE);
+                segments[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Возвращает количество записей в журнале.
+     * @return количество записей
+     */
+    public long size() {
+        return recordCount;
+    }
+
+    /**
+     * Возвращает время записи.
+     * @param index номер записи
+     * @return время в миллисекундах
+     */
+    public long timestamp(long index) {
+        return segment(index).getLong(offset(index));
+    }
+
+    /**
+     * Возвращает число, введенное в записи.
+     * @param index номер записи
+     * @return число
+     */
+    public double number(long index) {
+        return segment(index).getDouble(offset(index) + 8);
+    }
+
+    /**
+     * Возвращает результат записи.
+     * @param index номер записи
+     * @return результат
+     */
+    public double result(long index) {
+        return segment(index).getDouble(offset(index) + 16);
+    }
+
+    /**
+     * Возвращает код операции записи.
+     * @param index номер записи
+     * @return код операции (0 — ввод первого числа)
+     */
+    public int code(long index) {
+        return segment(index).getInt(offset(index) + 24);
+    }
+
+    /**
+     * Последовательно передает все записи обработчику.
+     * @param visitor обработчик записей
+     */
+    public void forEach(RecordVisitor visitor) {
+        long index = 0;
+        for (MappedByteBuffer segment : segments) {
+            int limit = segment.limit();
+            for (int pos = 0; pos < limit; pos += BinaryJournalWriter.RECORD_SIZE) {
+                visitor.visit(index++,
+                    segment.getInt(pos + 24),
+                    segment.getDouble(pos + 8),
+                    segment.getDouble(pos + 16),
+                    segment.getLong(pos));
+            }
+        }
+    }
+
+    /**
+     * Повторяет все операции журнала на калькуляторе.
+     * Записи ввода первого числа устанавливают память, остальные выполняют операцию.
+     *
+     * @param calculator калькулятор для воспроизведения
+     * @return результат последней записи
+     */
+    public double replay(Calculator calculator) {
+        forEach((index, code, number, result, timestamp) -> {
+            Operation operation = Operation.fromCode(code);
+            if (operation == null) {
+                calculator.setMemory(number);
+            } else {
+                operation.apply(calculator, number);
+            }
+        });
+        return calculator.getMemory();
+    }
+
+    /**
+     * Выводит журнал в текстовом формате calculator_log.txt.
+     * Записи ввода первого числа в текстовый лог не попадают, как и в интерактивном режиме.
+     *
+     * @param out приемник строк лога
+     * @throws IOException если произошла ошибка вывода
+     */
+    public void exportText(Appendable out) throws IOException {
+        RadixFormatter formatter = new RadixFormatter();
+        String separator = System.lineSeparator();
+        for (long i = 0; i < recordCount; i++) {
+            String line = toText(i, formatter);
+            if (line != null) {
+                out.append(line).append(separator);
+            }
+        }
+    }
+
+    /**
+     * Формирует строку текстового лога для записи журнала.
+     * @param index номер записи
+     * @param formatter объект для получения представлений результата
+     * @return строка лога или null для записи ввода первого числа
+     */
+    public String toText(long index, RadixFormatter formatter) {
+        Operation operation = Operation.fromCode(code(index));
+        if (operation == null) {
+            return null;
+        }
+        return OperationLogFormat.formatLine(operation, number(index), result(index), formatter);
+    }
+
+    /**
+     * Закрывает файл журнала. Отображение остается действительным до сборки мусора.
+     * @throws IOException если произошла ошибка при закрытии
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Возвращает сегмент, содержащий запись.
+     * @param index номер записи
+     * @return отображенный сегмент
+     * @throws IndexOutOfBoundsException если записи с таким номером нет
+     */
+    private MappedByteBuffer segment(long index) {
+        if (index < 0 || index >= recordCount) {
+            throw new IndexOutOfBoundsException("Нет записи с номером " + index);
+        }
+        return segments[(int) (index >> SEGMENT_SHIFT)];
+    }
+
+    /**
+     * Возвращает смещение записи внутри ее сегмента.
+     * @param index номер записи
+     * @return смещение в байтах
+     */
+    private int offset(long index) {
+        return (int) (index & (SEGMENT_SIZE - 1)) * BinaryJournalWriter.RECORD_SIZE;
+    }
+}
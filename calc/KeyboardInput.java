@@ -1,52 +1,113 @@
+package calc;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.NoSuchElementException;
 import java.util.Scanner;
 import java.nio.charset.StandardCharsets;
 
 /**
  * Класс KeyboardInput обеспечивает безопасное чтение пользовательского ввода
  * с клавиатуры с поддержкой кодировки UTF-8 и обработкой ошибок ввода.
+ * Для ввода из канала или файла вместо Scanner используется ConsoleLineReader.
  */
 public class KeyboardInput {
-    private Scanner scanner; // Сканер для чтения пользовательского ввода
+    private final Scanner scanner;          // Сканер для чтения пользовательского ввода (может быть null)
+    private final ConsoleLineReader reader; // Быстрое чтение строк (может быть null)
+    private final ConsoleOutput output;     // Вывод подсказок (null — System.out)
 
     /**
      * Конструктор класса.
      * Инициализирует сканер с поддержкой UTF-8 для корректной работы с кириллицей.
      */
     public KeyboardInput() {
+        this(null);
+    }
+
+    /**
+     * Конструктор класса для чтения через Scanner с выводом подсказок в ConsoleOutput.
+     * @param output вывод подсказок или null для System.out
+     */
+    public KeyboardInput(ConsoleOutput output) {
         // Создаем сканер с явным указанием кодировки UTF-8
-        scanner = new Scanner(System.in, StandardCharsets.UTF_8.name());
+        this.scanner = new Scanner(System.in, StandardCharsets.UTF_8.name());
+        this.reader = null;
+        this.output = output;
+    }
+
+    /**
+     * Конструктор класса для чтения через ConsoleLineReader.
+     * Подсказки не сбрасываются сразу: reader сбрасывает вывод сам,
+     * когда ввод заканчивается и чтение должно ждать.
+     * @param reader источник строк
+     * @param output вывод подсказок
+     */
+    public KeyboardInput(ConsoleLineReader reader, ConsoleOutput output) {
+        this.scanner = null;
+        this.reader = reader;
+        this.output = output;
     }
 
     /**
      * Читает строку пользовательского ввода.
      * @param prompt подсказка, выводимая пользователю перед вводом
-     * @return введенная пользователем строка
+     * @return введенная пользователем строка или null, если ввод закончился
      */
     public String readLine(String prompt) {
-        System.out.print(prompt);
-        return scanner.nextLine();
+        if (output == null) {
+            System.out.print(prompt);
+        } else {
+            output.print(prompt);
+        }
+        if (reader != null) {
+            try {
+                return reader.readLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (output != null) {
+            output.flush();
+        }
+        return scanner.hasNextLine() ? scanner.nextLine() : null;
     }
 
     /**
      * Читает целое число от пользователя с проверкой корректности ввода.
      * @param prompt подсказка, выводимая пользователю перед вводом
      * @return введенное пользователем целое число
+     * @throws NoSuchElementException если ввод закончился
      */
     public int readInt(String prompt) {
         while (true) {
+            String line = readLine(prompt);
+            if (line == null) {
+                throw new NoSuchElementException("Ввод закончился");
+            }
             try {
-                System.out.print(prompt);
-                return Integer.parseInt(scanner.nextLine());
+                return Integer.parseInt(line);
             } catch (NumberFormatException e) {
-                System.out.println("Ошибка: Введите число!");
+                if (output == null) {
+                    System.out.println("Ошибка: Введите число!");
+                } else {
+                    output.println("Ошибка: Введите число!");
+                }
             }
         }
     }
 
     /**
-     * Закрывает сканер и освобождает связанные ресурсы.
+     * Закрывает источник ввода и освобождает связанные ресурсы.
      */
     public void close() {
-        scanner.close();
+        if (scanner != null) {
+            scanner.close();
+            return;
+        }
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
-}
\ No newline at end of file
+}
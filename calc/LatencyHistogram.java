@@ -0,0 +1,132 @@
+package calc;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Класс LatencyHistogram — гистограмма задержек в наносекундах
+ * с логарифмически-линейными интервалами, как в HdrHistogram.
+ *
+ * Каждая степень двойки делится на 8 равных интервалов, поэтому
+ * процентили вычисляются с относительной погрешностью не больше 12,5%
+ * во всем диапазоне long при фиксированном объеме памяти (496 счетчиков).
+ * Запись не блокирует потоки и не создает объектов.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;                 // log2 интервалов на степень двойки
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;  // Интервалов на степень двойки
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS; // Всего интервалов
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS); // Счетчики интервалов
+    private final LongAdder count = new LongAdder();                     // Количество значений
+    private final LongAdder sum = new LongAdder();                       // Сумма значений
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0); // Наибольшее значение
+
+    /**
+     * Записывает одно значение.
+     * @param nanos задержка в наносекундах (отрицательные считаются нулем)
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts.incrementAndGet(bucketOf(nanos));
+        count.increment();
+        sum.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * Возвращает количество записанных значений.
+     * @return количество значений
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Возвращает наибольшее записанное значение.
+     * @return наибольшая задержка в наносекундах
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Возвращает среднее значение.
+     * @return средняя задержка в наносекундах или 0, если значений нет
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Возвращает процентиль: верхнюю границу интервала, в который попадает
+     * значение с заданным рангом.
+     * @param percentile процентиль от 0 до 100
+     * @return задержка в наносекундах или 0, если значений нет
+     */
+    public long getPercentile(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max((long) Math.ceil(percentile / 100 * total), 1);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Обнуляет гистограмму.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * Возвращает номер интервала для значения.
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Возвращает наибольшее значение, попадающее в интервал.
+     */
+    static long upperBound(int bucket) {
+        return bucket + 1 < BUCKETS ? lowerBound(bucket + 1) - 1 : Long.MAX_VALUE;
+    }
+
+    /**
+     * Возвращает наименьшее значение, попадающее в интервал.
+     */
+    static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        return (SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS);
+    }
+}
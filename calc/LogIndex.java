@@ -0,0 +1,813 @@
+package calc;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Класс LogIndex — индекс одного файла текстового лога: текущего
+ * calculator_log.txt или закрытого сегмента RollingFileWriter. Индекс хранится
+ * рядом с файлом с расширением .idx (для calculator_log.txt.3.gz —
+ * calculator_log.txt.3.idx) и позволяет отвечать на запросы LogQuery,
+ * читая из лога только найденные строки.
+ *
+ * Файл индекса — заголовок и блоки. Каждое обновление дописывает блок
+ * со строками, появившимися в логе после предыдущего обновления:
+ * код операции каждой строки и количество строк каждого вида; байтовое
+ * смещение каждой SPARSE_INTERVAL-й строки; контрольную точку времени;
+ * результаты строк и номера строк, упорядоченные по результату.
+ * Когда блоков становится больше MAX_BLOCKS, они сливаются в один.
+ *
+ * В строках текстового лога нет времени, поэтому контрольная точка —
+ * время изменения файла лога при обновлении индекса: все строки блока
+ * записаны не позднее него. Условие since поэтому может захватить строки,
+ * записанные раньше начала интервала, но после предыдущего обновления.
+ */
+public class LogIndex {
+    static final String SUFFIX = ".idx";          // Расширение файла индекса
+    static final int SPARSE_INTERVAL = 64;        // Через сколько строк запоминается смещение
+
+    private static final int MAGIC = 0x5844494C;        // Сигнатура "LIDX"
+    private static final int VERSION = 1;               // Версия формата
+    private static final int HEADER_SIZE = 16;          // Сигнатура, версия, отпечаток первой строки
+    private static final int BLOCK_MAGIC = 0x4B4C4249;  // Сигнатура блока "IBLK"
+    private static final int BLOCK_HEADER_SIZE = 44;    // Размер заголовка блока в байтах
+    private static final int FLAG_SEALED = 1;           // Файл лога закрыт и проиндексирован полностью
+    private static final int MAX_BLOCKS = 16;           // Блоков до слияния
+    private static final int FINGERPRINT_BYTES = 4096;  // Сколько байт первой строки входит в отпечаток
+    private static final int BUFFER_SIZE = 1 << 16;     // Размер буфера чтения лога
+
+    private final Path segment;                      // Файл лога
+    private final Path indexPath;                    // Файл индекса
+    private final boolean compressed;                // Сжат ли файл лога
+    private final List<Block> blocks = new ArrayList<>(); // Блоки индекса по порядку строк
+    private long fingerprint;                        // CRC32 первой строки проиндексированного файла
+    private boolean sealed;                          // Проиндексирован ли закрытый файл целиком
+
+    /**
+     * Конструктор класса. Загружает индекс файла лога, если он есть.
+     * Поврежденный хвост индекса отбрасывается; индекс другого файла
+     * (например, после перезаписи лога) удаляется.
+     *
+     * @param segment путь к файлу лога
+     * @throws IOException если индекс или лог не удалось прочитать
+     */
+    public LogIndex(Path segment) throws IOException {
+        this.segment = segment;
+        this.indexPath = indexPath(segment);
+        this.compressed = segment.toString().endsWith(RollingFileWriter.COMPRESSED_SUFFIX);
+        load();
+    }
+
+    /**
+     * Возвращает путь к файлу индекса для файла лога.
+     * @param segment путь к файлу лога (сжатому или нет)
+     * @return путь к файлу индекса
+     */
+    static Path indexPath(Path segment) {
+        String name = segment.toString();
+        if (name.endsWith(RollingFileWriter.COMPRESSED_SUFFIX)) {
+            name = name.substring(0, name.length() - RollingFileWriter.COMPRESSED_SUFFIX.length());
+        }
+        return Paths.get(name + SUFFIX);
+    }
+
+    /**
+     * Возвращает количество проиндексированных строк.
+     * @return количество строк
+     */
+    public long getLineCount() {
+        if (blocks.isEmpty()) {
+            return 0;
+        }
+        Block last = blocks.get(blocks.size() - 1);
+        return last.firstLine + last.count;
+    }
+
+    /**
+     * Возвращает количество проиндексированных строк с операцией заданного вида.
+     * @param operation вид операции
+     * @return количество строк
+     */
+    public long getCount(Operation operation) {
+        long count = 0;
+        for (Block block : blocks) {
+            count += block.opCounts[operation.getCode()];
+        }
+        return count;
+    }
+
+    /**
+     * Дописывает в индекс строки, появившиеся в логе после предыдущего
+     * обновления. Читаются только новые байты файла; неполная последняя
+     * строка остается до следующего обновления.
+     *
+     * @param seal файл лога закрыт и больше не изменится
+     * @throws IOException если лог не удалось прочитать или индекс записать
+     */
+    public void update(boolean seal) throws IOException {
+        if (sealed) {
+            return;
+        }
+        if (!compressed && Files.size(segment) < endOffset()) {
+            reset(); // Лог перезаписан
+        }
+        long firstLine = getLineCount();
+        long offset = endOffset();
+
+        BlockBuilder builder = new BlockBuilder(firstLine, offset);
+        try (InputStream in = open(offset)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            byte[] line = new byte[256];
+            int length = 0;
+            long lineStart = offset;
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer[i];
+                    if (b == '\n') {
+                        builder.add(decode(line, length), lineStart);
+                        lineStart = offset + i + 1;
+                        length = 0;
+                    } else {
+                        if (length == line.length) {
+                            line = Arrays.copyOf(line, length * 2);
+                        }
+                        line[length++] = b;
+                    }
+                }
+                offset += read;
+            }
+            builder.endOffset = lineStart;
+        }
+        // Время берется после чтения: все прочитанные строки записаны не позднее него
+        long time = Files.getLastModifiedTime(segment).toMillis();
+
+        if (builder.count == 0 && !seal) {
+            return;
+        }
+        Block block = builder.build(time, seal ? FLAG_SEALED : 0);
+        if (blocks.isEmpty()) {
+            fingerprint = fingerprint();
+            writeHeader();
+        }
+        append(block);
+        blocks.add(block);
+        sealed = seal;
+        if (blocks.size() > MAX_BLOCKS) {
+            compact();
+        }
+    }
+
+    /**
+     * Выполняет запрос по индексу. Строки лога читаются, только если их нужно
+     * вывести или сверить с условием hex.
+     *
+     * @param query запрос
+     * @param out приемник найденных строк или null, если нужно только количество
+     * @return количество найденных строк
+     * @throws IOException если лог не удалось прочитать или строки вывести
+     */
+    public long query(LogQuery query, Appendable out) throws IOException {
+        long minLine = firstLineSince(query.getSinceMillis());
+        int code = query.getOperation() == null ? 0 : query.getOperation().getCode();
+        boolean needText = query.getHex() != null || (out != null && !query.isCountOnly());
+        long count = 0;
+        long[] matches = new long[needText ? 64 : 0];
+        int matchCount = 0;
+
+        for (Block block : blocks) {
+            if (block.count == 0 || block.firstLine + block.count <= minLine
+                    || (code != 0 && block.opCounts[code] == 0)) {
+                continue;
+            }
+            int[] selected;
+            int from;
+            int to;
+            if (query.hasResultRange()) {
+                selected = Arrays.copyOfRange(block.order,
+                    block.lowerBound(query.getMinResult(), query.isMinInclusive()),
+                    block.upperBound(query.getMaxResult(), query.isMaxInclusive()));
+                Arrays.sort(selected); // Строки читаются по порядку
+                from = 0;
+                to = selected.length;
+            } else {
+                selected = null;
+                from = (int) Math.max(0, minLine - block.firstLine);
+                to = block.count;
+                if (code == 0 && !needText) {
+                    count += to - from;
+                    continue;
+                }
+            }
+            for (int i = from; i < to; i++) {
+                int index = selected == null ? i : selected[i];
+                long line = block.firstLine + index;
+                if (line < minLine || (code != 0 && block.codes[index] != code)) {
+                    continue;
+                }
+                if (!needText) {
+                    count++;
+                } else {
+                    if (matchCount == matches.length) {
+                        matches = Arrays.copyOf(matches, matchCount * 2);
+                    }
+                    matches[matchCount++] = line;
+                }
+            }
+        }
+        if (needText) {
+            count += readMatches(matches, matchCount, query, out);
+        }
+        return count;
+    }
+
+    /**
+     * Читает найденные строки, сверяет их с условием hex и выводит.
+     * @return количество строк, прошедших сверку
+     */
+    private long readMatches(long[] lines, int size, LogQuery query, Appendable out) throws IOException {
+        int sparseCount = 0;
+        for (Block block : blocks) {
+            sparseCount += block.sparseLines.length;
+        }
+        long[] sparseLines = new long[sparseCount];
+        long[] sparseOffsets = new long[sparseCount];
+        int position = 0;
+        for (Block block : blocks) {
+            System.arraycopy(block.sparseLines, 0, sparseLines, position, block.sparseLines.length);
+            System.arraycopy(block.sparseOffsets, 0, sparseOffsets, position, block.sparseOffsets.length);
+            position += block.sparseLines.length;
+        }
+
+        String hexField = query.getHex() == null ? null : "HEX: " + query.getHex() + ")";
+        boolean print = out != null && !query.isCountOnly();
+        long count = 0;
+        try (LineCursor cursor = new LineCursor()) {
+            for (int i = 0; i < size; i++) {
+                int k = Arrays.binarySearch(sparseLines, lines[i]);
+                if (k < 0) {
+                    k = -k - 2;
+                }
+                String text = cursor.lineAt(lines[i], sparseLines[k], sparseOffsets[k]);
+                if (text == null) {
+                    break; // Лог укорочен после обновления индекса
+                }
+                if (hexField != null && !text.endsWith(hexField)) {
+                    continue;
+                }
+                count++;
+                if (print) {
+                    out.append(text).append(System.lineSeparator());
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Находит первую строку, которая могла быть записана не раньше заданного времени.
+     */
+    private long firstLineSince(long sinceMillis) {
+        long line = 0;
+        for (Block block : blocks) {
+            for (int i = 0; i < block.checkpointLines.length; i++) {
+                if (block.checkpointTimes[i] >= sinceMillis) {
+                    return line;
+                }
+                line = block.checkpointLines[i]; // Строки до этой точки записаны раньше
+            }
+        }
+        return line;
+    }
+
+    /**
+     * Возвращает смещение конца проиндексированной части лога.
+     */
+    private long endOffset() {
+        return blocks.isEmpty() ? 0 : blocks.get(blocks.size() - 1).endOffset;
+    }
+
+    /**
+     * Загружает индекс из файла.
+     */
+    private void load() throws IOException {
+        if (!Files.exists(indexPath)) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(indexPath)).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            reset(); // Индекс другого формата строится заново
+            return;
+        }
+        fingerprint = buffer.getLong();
+        int valid = HEADER_SIZE;
+        Block block;
+        while ((block = Block.read(buffer)) != null) {
+            blocks.add(block);
+            sealed = (block.flags & FLAG_SEALED) != 0;
+            valid = buffer.position();
+        }
+        if (valid < buffer.limit()) {
+            // Незаконченный блок после сбоя
+            try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.WRITE)) {
+                channel.truncate(valid);
+            }
+        }
+        if (!blocks.isEmpty() && fingerprint != fingerprint()) {
+            reset(); // Индекс относится к другому файлу
+        }
+    }
+
+    /**
+     * Удаляет индекс, чтобы построить его заново.
+     */
+    private void reset() throws IOException {
+        blocks.clear();
+        sealed = false;
+        Files.deleteIfExists(indexPath);
+    }
+
+    /**
+     * Записывает заголовок нового файла индекса.
+     */
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putLong(fingerprint);
+        Files.write(indexPath, header.array());
+    }
+
+    /**
+     * Дописывает блок в файл индекса.
+     */
+    private void append(Block block) throws IOException {
+        try (OutputStream out = Files.newOutputStream(indexPath, StandardOpenOption.APPEND)) {
+            out.write(block.toBytes());
+        }
+    }
+
+    /**
+     * Сливает все блоки в один и атомарно заменяет файл индекса.
+     */
+    private void compact() throws IOException {
+        Block merged = Block.merge(blocks);
+        Path temp = Paths.get(indexPath + ".tmp");
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putLong(fingerprint);
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            out.write(header.array());
+            out.write(merged.toBytes());
+        }
+        Files.move(temp, indexPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        blocks.clear();
+        blocks.add(merged);
+    }
+
+    /**
+     * Вычисляет отпечаток файла лога — CRC32 начала его первой строки.
+     */
+    private long fingerprint() throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = open(0)) {
+            for (int i = 0, b; i < FINGERPRINT_BYTES && (b = in.read()) >= 0 && b != '\n'; i++) {
+                crc.update(b);
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Открывает файл лога для чтения с заданного байта (для сжатого файла —
+     * байта распакованного содержимого).
+     */
+    private InputStream open(long offset) throws IOException {
+        InputStream in;
+        if (compressed) {
+            in = new GZIPInputStream(Files.newInputStream(segment), BUFFER_SIZE);
+            in.skipNBytes(offset);
+        } else {
+            FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ);
+            channel.position(offset);
+            in = Channels.newInputStream(channel);
+        }
+        return new BufferedInputStream(in, BUFFER_SIZE);
+    }
+
+    /**
+     * Декодирует строку лога без перевода строки.
+     */
+    private static String decode(byte[] line, int length) {
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Определяет код операции строки лога.
+     * @return код операции или 0, если строка не является записью операции
+     */
+    static int parseCode(String line) {
+        String prefix = "Операция: ";
+        int end = line.indexOf(',', prefix.length());
+        if (!line.startsWith(prefix) || end < 0) {
+            return 0;
+        }
+        String name = line.substring(prefix.length(), end);
+        for (Operation operation : Operation.values()) {
+            if (operation.getLogName().equals(name)) {
+                return operation.getCode();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Извлекает результат из строки лога (два знака после запятой, как в логе).
+     * @return результат или NaN, если его нет
+     */
+    static double parseResult(String line) {
+        String prefix = "Результат: ";
+        int start = line.indexOf(prefix);
+        if (start < 0) {
+            return Double.NaN;
+        }
+        start += prefix.length();
+        int end = line.indexOf(" (", start);
+        String text = line.substring(start, end < 0 ? line.length() : end).replace(',', '.');
+        try {
+            return Double.parseDouble(text) + 0.0; // -0.00 в логе считается нулем
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Последовательное чтение строк лога по номерам с переходом
+     * к ближайшему запомненному смещению.
+     */
+    private final class LineCursor implements Closeable {
+        private InputStream in;            // Открытый файл лога
+        private long line;                 // Номер строки, с которой начнется чтение
+        private byte[] buffer = new byte[256]; // Байты читаемой строки
+
+        /**
+         * Читает строку с заданным номером.
+         * @param target номер строки
+         * @param sparseLine ближайшая предшествующая строка с известным смещением
+         * @param sparseOffset ее смещение
+         * @return строка или null, если файл закончился
+         */
+        String lineAt(long target, long sparseLine, long sparseOffset) throws IOException {
+            if (in == null || line > target || (line < sparseLine && !compressed)) {
+                seek(sparseLine, sparseOffset);
+            }
+            while (line < target) {
+                if (readLine() < 0) {
+                    return null;
+                }
+            }
+            int length = readLine();
+            return length < 0 ? null : decode(buffer, length);
+        }
+
+        /**
+         * Переходит к строке с известным смещением.
+         */
+        private void seek(long targetLine, long offset) throws IOException {
+            close();
+            in = open(offset);
+            line = targetLine;
+        }
+
+        /**
+         * Читает очередную строку в буфер.
+         * @return длина строки или -1, если файл закончился
+         */
+        private int readLine() throws IOException {
+            int length = 0;
+            int b;
+            while ((b = in.read()) >= 0 && b != '\n') {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, length * 2);
+                }
+                buffer[length++] = (byte) b;
+            }
+            if (b < 0) {
+                return -1;
+            }
+            line++;
+            return length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (in != null) {
+                in.close();
+                in = null;
+            }
+        }
+    }
+
+    /**
+     * Накопитель строк для нового блока индекса.
+     */
+    private static final class BlockBuilder {
+        private final long firstLine;    // Номер первой строки блока
+        private final long startOffset;  // Смещение первой строки блока
+        private long endOffset;          // Смещение после последней строки блока
+        private int count;               // Строк в блоке
+        private double[] results = new double[1024];
+        private byte[] codes = new byte[1024];
+        private long[] sparseOffsets = new long[16];
+
+        BlockBuilder(long firstLine, long startOffset) {
+            this.firstLine = firstLine;
+            this.startOffset = startOffset;
+            this.endOffset = startOffset;
+        }
+
+        /**
+         * Добавляет строку лога.
+         * @param line строка
+         * @param offset смещение строки в файле
+         */
+        void add(String line, long offset) {
+            if (count == results.length) {
+                results = Arrays.copyOf(results, count * 2);
+                codes = Arrays.copyOf(codes, count * 2);
+            }
+            if (count % SPARSE_INTERVAL == 0) {
+                int index = count / SPARSE_INTERVAL;
+                if (index == sparseOffsets.length) {
+                    sparseOffsets = Arrays.copyOf(sparseOffsets, index * 2);
+                }
+                sparseOffsets[index] = offset;
+            }
+            results[count] = parseResult(line);
+            codes[count] = (byte) parseCode(line);
+            count++;
+        }
+
+        /**
+         * Создает блок из накопленных строк.
+         * @param time время, не раньше которого записаны все строки
+         * @param flags флаги блока
+         * @return блок
+         */
+        Block build(long time, int flags) {
+            int sparseCount = (count + SPARSE_INTERVAL - 1) / SPARSE_INTERVAL;
+            long[] sparseLines = new long[sparseCount];
+            for (int i = 0; i < sparseCount; i++) {
+                sparseLines[i] = firstLine + (long) i * SPARSE_INTERVAL;
+            }
+            long[] checkpointLines = count == 0 ? new long[0] : new long[] {firstLine + count};
+            long[] checkpointTimes = count == 0 ? new long[0] : new long[] {time};
+            return new Block(flags, firstLine, count, startOffset, endOffset, checkpointLines, checkpointTimes,
+                sparseLines, Arrays.copyOf(sparseOffsets, sparseCount),
+                Arrays.copyOf(results, count), Arrays.copyOf(codes, count), null);
+        }
+    }
+
+    /**
+     * Блок индекса — строки лога, добавленные одним обновлением
+     * (или несколькими, после слияния).
+     */
+    private static final class Block {
+        final int flags;               // Флаги блока
+        final long firstLine;          // Номер первой строки блока
+        final int count;               // Строк в блоке
+        final long startOffset;        // Смещение первой строки
+        final long endOffset;          // Смещение после последней строки
+        final long[] checkpointLines;  // Контрольные точки: строки до этой записаны...
+        final long[] checkpointTimes;  // ...не позднее этого времени
+        final long[] sparseLines;      // Строки с известным смещением
+        final long[] sparseOffsets;    // Их смещения в файле лога
+        final double[] results;        // Результат каждой строки
+        final byte[] codes;            // Код операции каждой строки
+        final int[] order;             // Номера строк в блоке по возрастанию результата
+        final long[] opCounts = new long[Operation.values().length + 1]; // Строк каждого кода
+
+        Block(int flags, long firstLine, int count, long startOffset, long endOffset,
+              long[] checkpointLines, long[] checkpointTimes, long[] sparseLines, long[] sparseOffsets,
+              double[] results, byte[] codes, int[] order) {
+            this.flags = flags;
+            this.firstLine = firstLine;
+            this.count = count;
+            this.startOffset = startOffset;
+            this.endOffset = endOffset;
+            this.checkpointLines = checkpointLines;
+            this.checkpointTimes = checkpointTimes;
+            this.sparseLines = sparseLines;
+            this.sparseOffsets = sparseOffsets;
+            this.results = results;
+            this.codes = codes;
+            this.order = order != null ? order : sortByResult(results);
+            for (byte code : codes) {
+                opCounts[code]++;
+            }
+        }
+
+        /**
+         * Находит первую позицию в order, результат которой не меньше (больше) границы.
+         */
+        int lowerBound(double min, boolean inclusive) {
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int cmp = Double.compare(results[order[mid]], min);
+                if (cmp < 0 || (cmp == 0 && !inclusive)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Находит позицию в order после последнего результата, не большего (меньшего) границы.
+         */
+        int upperBound(double max, boolean inclusive) {
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int cmp = Double.compare(results[order[mid]], max);
+                if (cmp < 0 || (cmp == 0 && inclusive)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Сериализует блок.
+         */
+        byte[] toBytes() {
+            int size = BLOCK_HEADER_SIZE + checkpointLines.length * 16 + sparseLines.length * 16 + count * 13;
+            ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(BLOCK_MAGIC).putInt(flags).putLong(firstLine).putInt(count)
+                .putLong(startOffset).putLong(endOffset)
+                .putInt(checkpointLines.length).putInt(sparseLines.length);
+            for (int i = 0; i < checkpointLines.length; i++) {
+                buffer.putLong(checkpointLines[i]).putLong(checkpointTimes[i]);
+            }
+            for (int i = 0; i < sparseLines.length; i++) {
+                buffer.putLong(sparseLines[i]).putLong(sparseOffsets[i]);
+            }
+            for (double result : results) {
+                buffer.putDouble(result);
+            }
+            buffer.put(codes);
+            for (int index : order) {
+                buffer.putInt(index);
+            }
+            return buffer.array();
+        }
+
+        /**
+         * Читает очередной блок.
+         * @return блок или null, если блок неполный или поврежден
+         */
+        static Block read(ByteBuffer buffer) {
+            if (buffer.remaining() < BLOCK_HEADER_SIZE) {
+                return null;
+            }
+            int start = buffer.position();
+            if (buffer.getInt() != BLOCK_MAGIC) {
+                buffer.position(start);
+                return null;
+            }
+            int flags = buffer.getInt();
+            long firstLine = buffer.getLong();
+            int count = buffer.getInt();
+            long startOffset = buffer.getLong();
+            long endOffset = buffer.getLong();
+            int checkpoints = buffer.getInt();
+            int sparse = buffer.getInt();
+            if (count < 0 || checkpoints < 0 || sparse < 0
+                    || buffer.remaining() < checkpoints * 16L + sparse * 16L + count * 13L) {
+                buffer.position(start);
+                return null;
+            }
+            long[] checkpointLines = new long[checkpoints];
+            long[] checkpointTimes = new long[checkpoints];
+            for (int i = 0; i < checkpoints; i++) {
+                checkpointLines[i] = buffer.getLong();
+                checkpointTimes[i] = buffer.getLong();
+            }
+            long[] sparseLines = new long[sparse];
+            long[] sparseOffsets = new long[sparse];
+            for (int i = 0; i < sparse; i++) {
+                sparseLines[i] = buffer.getLong();
+                sparseOffsets[i] = buffer.getLong();
+            }
+            double[] results = new double[count];
+            for (int i = 0; i < count; i++) {
+                results[i] = buffer.getDouble();
+            }
+            byte[] codes = new byte[count];
+            buffer.get(codes);
+            int[] order = new int[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = buffer.getInt();
+            }
+            return new Block(flags, firstLine, count, startOffset, endOffset,
+                checkpointLines, checkpointTimes, sparseLines, sparseOffsets, results, codes, order);
+        }
+
+        /**
+         * Сливает блоки в один, сохраняя все контрольные точки и смещения.
+         */
+        static Block merge(List<Block> blocks) {
+            int count = 0;
+            int checkpoints = 0;
+            int sparse = 0;
+            for (Block block : blocks) {
+                count += block.count;
+                checkpoints += block.checkpointLines.length;
+                sparse += block.sparseLines.length;
+            }
+            Block first = blocks.get(0);
+            Block last = blocks.get(blocks.size() - 1);
+            long[] checkpointLines = new long[checkpoints];
+            long[] checkpointTimes = new long[checkpoints];
+            long[] sparseLines = new long[sparse];
+            long[] sparseOffsets = new long[sparse];
+            double[] results = new double[count];
+            byte[] codes = new byte[count];
+            int c = 0;
+            int s = 0;
+            int r = 0;
+            for (Block block : blocks) {
+                int n = block.checkpointLines.length;
+                System.arraycopy(block.checkpointLines, 0, checkpointLines, c, n);
+                System.arraycopy(block.checkpointTimes, 0, checkpointTimes, c, n);
+                c += n;
+                n = block.sparseLines.length;
+                System.arraycopy(block.sparseLines, 0, sparseLines, s, n);
+                System.arraycopy(block.sparseOffsets, 0, sparseOffsets, s, n);
+                s += n;
+                System.arraycopy(block.results, 0, results, r, block.count);
+                System.arraycopy(block.codes, 0, codes, r, block.count);
+                r += block.count;
+            }
+            return new Block(last.flags, first.firstLine, count, first.startOffset, last.endOffset,
+                checkpointLines, checkpointTimes, sparseLines, sparseOffsets, results, codes, null);
+        }
+
+        /**
+         * Упорядочивает номера строк по возрастанию результата
+         * (сортировка слиянием без упаковки в объекты).
+         */
+        private static int[] sortByResult(double[] results) {
+            int n = results.length;
+            int[] order = new int[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            int[] temp = new int[n];
+            for (int width = 1; width < n; width *= 2) {
+                for (int low = 0; low < n - width; low += 2 * width) {
+                    int mid = low + width;
+                    int high = Math.min(low + 2 * width, n);
+                    int i = low;
+                    int j = mid;
+                    int k = low;
+                    while (i < mid && j < high) {
+                        temp[k++] = Double.compare(results[order[j]], results[order[i]]) < 0 ? order[j++] : order[i++];
+                    }
+                    while (i < mid) {
+                        temp[k++] = order[i++];
+                    }
+                    while (j < high) {
+                        temp[k++] = order[j++];
+                    }
+                    System.arraycopy(temp, low, order, low, high - low);
+                }
+            }
+            return order;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package calc;
+
+import java.util.Locale;
+
+/**
+ * Класс LogQuery — запрос к логу операций для LogQueryEngine.
+ * Условия объединяются через «и»; незаданное условие не ограничивает выборку.
+ *
+ * Текстовая форма запроса — условия через пробел:
+ * op=+|-|*|/ — вид операции;
+ * result&gt;x, result&gt;=x, result&lt;x, result&lt;=x, result=x — условие на результат;
+ * since=длительность — строки, записанные за последние 30s, 15m, 1h или 2d;
+ * hex=X — результат, выведенный в логе как HEX: X;
+ * count — вывести только количество найденных строк.
+ */
+public final class LogQuery {
+    private static final double HEX_MARGIN = 1.01; // Запас диапазона: HEX — целая часть без округления, лог — два знака
+
+    private final Operation operation; // Вид операции или null
+    private final double minResult;    // Нижняя граница результата
+    private final boolean minInclusive;
+    private final double maxResult;    // Верхняя граница результата
+    private final boolean maxInclusive;
+    private final long sinceMillis;    // Наименьшее время записи (мс от эпохи) или Long.MIN_VALUE
+    private final String hex;          // Ожидаемое HEX-представление или null
+    private final boolean countOnly;   // Выводить только количество
+
+    /**
+     * Конструктор класса.
+     * @param operation вид операции или null для любых операций
+     * @param minResult нижняя граница результата (Double.NEGATIVE_INFINITY — без границы)
+     * @param minInclusive включается ли нижняя граница
+     * @param maxResult верхняя граница результата (Double.POSITIVE_INFINITY — без границы)
+     * @param maxInclusive включается ли верхняя граница
+     * @param sinceMillis наименьшее время записи в миллисекундах от эпохи или Long.MIN_VALUE
+     * @param hex HEX-представление результата или null
+     * @param countOnly выводить ли только количество найденных строк
+     */
+    public LogQuery(Operation operation, double minResult, boolean minInclusive, double maxResult,
+                    boolean maxInclusive, long sinceMillis, String hex, boolean countOnly) {
+        this.operation = operation;
+        this.minResult = minResult;
+        this.minInclusive = minInclusive;
+        this.maxResult = maxResult;
+        this.maxInclusive = maxInclusive;
+        this.sinceMillis = sinceMillis;
+        this.hex = hex == null ? null : hex.toUpperCase(Locale.ROOT);
+        this.countOnly = countOnly;
+    }
+
+    /**
+     * Разбирает текстовую форму запроса.
+     * @param text запрос, например "op=/ result>1e6 since=1h"
+     * @param nowMillis текущее время для условия since
+     * @return запрос
+     * @throws IllegalArgumentException если запрос содержит ошибку
+     */
+    public static LogQuery parse(String text, long nowMillis) {
+        Operation operation = null;
+        double min = Double.NEGATIVE_INFINITY;
+        double max = Double.POSITIVE_INFINITY;
+        boolean minInclusive = true;
+        boolean maxInclusive = true;
+        long since = Long.MIN_VALUE;
+        String hex = null;
+        boolean countOnly = false;
+
+        for (String term : text.trim().split("\\s+")) {
+            if (term.isEmpty()) {
+                continue;
+            }
+            if (term.equals("count")) {
+                countOnly = true;
+            } else if (term.startsWith("op=") && term.length() == 4) {
+                operation = Operation.fromSymbol(term.charAt(3));
+                if (operation == null) {
+                    throw new IllegalArgumentException("Неизвестная операция в запросе: " + term);
+                }
+            } else if (term.startsWith("since=")) {
+                since = nowMillis - parseDuration(term.substring("since=".length()));
+            } else if (term.startsWith("hex=")) {
+                hex = term.substring("hex=".length());
+                double value = parseHex(hex);
+                // Целая часть за пределами long выводится как Long.MAX_VALUE или Long.MIN_VALUE
+                min = Math.max(min, value <= Long.MIN_VALUE ? Double.NEGATIVE_INFINITY : value - HEX_MARGIN);
+                max = Math.min(max, value >= Long.MAX_VALUE ? Double.POSITIVE_INFINITY : value + HEX_MARGIN);
+            } else if (term.startsWith("result>=")) {
+                min = parseValue(term, "result>=");
+                minInclusive = true;
+            } else if (term.startsWith("result>")) {
+                min = parseValue(term, "result>");
+                minInclusive = false;
+            } else if (term.startsWith("result<=")) {
+                max = parseValue(term, "result<=");
+                maxInclusive = true;
+            } else if (term.startsWith("result<")) {
+                max = parseValue(term, "result<");
+                maxInclusive = false;
+            } else if (term.startsWith("result=")) {
+                min = parseValue(term, "result=");
+                max = min;
+                minInclusive = true;
+                maxInclusive = true;
+            } else {
+                throw new IllegalArgumentException("Неизвестное условие в запросе: " + term);
+            }
+        }
+        return new LogQuery(operation, min, minInclusive, max, maxInclusive, since, hex, countOnly);
+    }
+
+    /**
+     * Возвращает вид операции.
+     * @return операция или null
+     */
+    public Operation getOperation() {
+        return operation;
+    }
+
+    /**
+     * Возвращает наименьшее время записи.
+     * @return миллисекунды от эпохи или Long.MIN_VALUE
+     */
+    public long getSinceMillis() {
+        return sinceMillis;
+    }
+
+    /**
+     * Возвращает ожидаемое HEX-представление результата.
+     * @return HEX-строка в верхнем регистре или null
+     */
+    public String getHex() {
+        return hex;
+    }
+
+    /**
+     * Проверяет, нужно ли выводить только количество строк.
+     * @return true для запроса с условием count
+     */
+    public boolean isCountOnly() {
+        return countOnly;
+    }
+
+    /**
+     * Проверяет, ограничен ли результат.
+     * @return true, если задана хотя бы одна граница
+     */
+    public boolean hasResultRange() {
+        return minResult != Double.NEGATIVE_INFINITY || maxResult != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Возвращает нижнюю границу результата.
+     * @return граница
+     */
+    public double getMinResult() {
+        return minResult;
+    }
+
+    /**
+     * Проверяет, включается ли нижняя граница.
+     * @return true для условия &gt;=
+     */
+    public boolean isMinInclusive() {
+        return minInclusive;
+    }
+
+    /**
+     * Возвращает верхнюю границу результата.
+     * @return граница
+     */
+    public double getMaxResult() {
+        return maxResult;
+    }
+
+    /**
+     * Проверяет, включается ли верхняя граница.
+     * @return true для условия &lt;=
+     */
+    public boolean isMaxInclusive() {
+        return maxInclusive;
+    }
+
+    /**
+     * Переводит HEX-представление результата из лога в число. Целая часть
+     * выводится в логе как 64-битное слово, поэтому 16 цифр со старшим битом —
+     * отрицательное число в дополнительном коде; дробная часть у отрицательных
+     * чисел выводится без знака и вычитается. Числа от -1 до 0 выводятся
+     * с минусом (-0.8).
+     * @param hex HEX-представление, например FF.8, FFFFFFFFFFFFFFFE.8 или -0.8
+     * @return значение результата
+     * @throws IllegalArgumentException если представление записано неверно
+     */
+    private static double parseHex(String hex) {
+        if (hex.startsWith("-") && hex.length() > 1 && hex.charAt(1) != '-') {
+            return -parseHex(hex.substring(1));
+        }
+        int point = hex.indexOf('.');
+        String intDigits = point < 0 ? hex : hex.substring(0, point);
+        RadixParser parser = new RadixParser();
+        if (intDigits.length() == 16 && Character.digit(intDigits.charAt(0), 16) >= 8) {
+            long intPart;
+            try {
+                intPart = Long.parseUnsignedLong(intDigits, 16);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Некорректное HEX-значение: " + hex);
+            }
+            if (point < 0) {
+                return intPart;
+            }
+            if (!parser.parse("0" + hex.substring(point), 16)) {
+                throw new IllegalArgumentException("Некорректное HEX-значение: " + hex);
+            }
+            return intPart - parser.doubleValue();
+        }
+        if (!parser.parse(hex, 16)) {
+            throw new IllegalArgumentException("Некорректное HEX-значение: " + hex);
+        }
+        return parser.doubleValue();
+    }
+
+    /**
+     * Разбирает числовое значение условия.
+     */
+    private static double parseValue(String term, String prefix) {
+        try {
+            return Double.parseDouble(term.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректное число в условии: " + term);
+        }
+    }
+
+    /**
+     * Разбирает длительность вида 30s, 15m, 1h или 2d.
+     * @return длительность в миллисекундах
+     */
+    private static long parseDuration(String text) {
+        if (text.length() < 2) {
+            throw new IllegalArgumentException("Некорректная длительность: " + text);
+        }
+        long unit;
+        switch (text.charAt(text.length() - 1)) {
+            case 's':
+                unit = 1000L;
+                break;
+            case 'm':
+                unit = 60_000L;
+                break;
+            case 'h':
+                unit = 3_600_000L;
+                break;
+            case 'd':
+                unit = 86_400_000L;
+                break;
+            default:
+                throw new IllegalArgumentException("Длительность должна оканчиваться на s, m, h или d: " + text);
+        }
+        try {
+            return Long.parseLong(text.substring(0, text.length() - 1)) * unit;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректная длительность: " + text);
+        }
+    }
+}
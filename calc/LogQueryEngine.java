@@ -0,0 +1,112 @@
+package calc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Класс LogQueryEngine выполняет запросы LogQuery ко всему логу операций:
+ * закрытым сегментам RollingFileWriter (от старых к новым) и текущему файлу.
+ *
+ * Перед каждым запросом индексы LogIndex обновляются: в индекс текущего
+ * файла дописываются только появившиеся строки, закрытые сегменты
+ * индексируются один раз. После этого запрос читает из лога только
+ * найденные строки, а подсчет без вывода не читает лог совсем.
+ */
+public class LogQueryEngine {
+    private final Path activePath; // Текущий файл лога
+
+    /**
+     * Конструктор класса.
+     * @param filePath путь к текущему файлу лога
+     */
+    public LogQueryEngine(String filePath) {
+        this.activePath = Paths.get(filePath).toAbsolutePath();
+    }
+
+    /**
+     * Обновляет индексы всех файлов лога.
+     * @return индексы файлов лога по порядку
+     * @throws IOException если лог не удалось прочитать или индекс записать
+     */
+    public List<LogIndex> update() throws IOException {
+        List<LogIndex> indexes = new ArrayList<>();
+        for (RollingFileWriter.Segment segment : RollingFileWriter.listSegments(activePath)) {
+            LogIndex index = updateSegment(segment.path);
+            if (index != null) {
+                indexes.add(index);
+            }
+        }
+        if (Files.exists(activePath)) {
+            LogIndex index = new LogIndex(activePath);
+            index.update(false);
+            indexes.add(index);
+        }
+        return indexes;
+    }
+
+    /**
+     * Выполняет запрос.
+     * @param query запрос
+     * @param out приемник найденных строк или null, если нужно только количество
+     * @return количество найденных строк
+     * @throws IOException если лог не удалось прочитать или строки вывести
+     */
+    public long query(LogQuery query, Appendable out) throws IOException {
+        long count = 0;
+        for (LogIndex index : update()) {
+            count += index.query(query, out);
+        }
+        return count;
+    }
+
+    /**
+     * Формирует сводку по логу: количество строк всего и по видам операций.
+     * @return текст сводки
+     * @throws IOException если лог не удалось прочитать или индекс записать
+     */
+    public String describe() throws IOException {
+        List<LogIndex> indexes = update();
+        long lines = 0;
+        long[] counts = new long[Operation.values().length];
+        for (LogIndex index : indexes) {
+            lines += index.getLineCount();
+            for (Operation operation : Operation.values()) {
+                counts[operation.ordinal()] += index.getCount(operation);
+            }
+        }
+        StringBuilder text = new StringBuilder();
+        text.append("Файлов лога: ").append(indexes.size()).append(", строк: ").append(lines)
+            .append(System.lineSeparator());
+        for (Operation operation : Operation.values()) {
+            text.append("  ").append(operation.getLogName()).append(": ").append(counts[operation.ordinal()])
+                .append(System.lineSeparator());
+        }
+        return text.toString();
+    }
+
+    /**
+     * Обновляет индекс закрытого сегмента. Сегмент, сжатый во время
+     * обновления, индексируется в сжатом виде.
+     * @return индекс или null, если сегмент удален
+     */
+    private LogIndex updateSegment(Path path) throws IOException {
+        try {
+            LogIndex index = new LogIndex(path);
+            index.update(true);
+            return index;
+        } catch (NoSuchFileException e) {
+            Path compressed = Paths.get(path + RollingFileWriter.COMPRESSED_SUFFIX);
+            if (path.toString().endsWith(RollingFileWriter.COMPRESSED_SUFFIX) || !Files.exists(compressed)) {
+                return null; // Сегмент удален ограничением количества
+            }
+            LogIndex index = new LogIndex(compressed);
+            index.update(true);
+            return index;
+        }
+    }
+}
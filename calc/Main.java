@@ -1,16 +1,468 @@
+package calc;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
 /**
  * Главный класс приложения калькулятора.
  * Инициализирует и запускает пользовательский интерфейс калькулятора.
  */
 public class Main {
+    private static final String LOG_FILE = "calculator_log.txt"; // Файл лога операций
+    private static final int ASYNC_LOG_CAPACITY = 1 << 16;       // Емкость буфера асинхронного лога
+    private static final int DEFAULT_LOG_KEEP = 10;              // Сегментов лога по умолчанию
+    private static final String STATS_SPILL_FILE = "calculator_stats.spill"; // Файл вытеснения истории
+    private static final long DEFAULT_STATS_MEMORY = 64L << 20;  // Память истории по умолчанию
+    private static final String TRAINING_BATCH_SCRIPT = "10\n+5\n-3\n*2\n/4\n+(0x1F + 0b101) * 3 / 7\n"
+        + "= m * 2 + 1\nu\nr2\n/0\nc\ni\n16\nFF\n*A.8\nq\n";          // Сценарий пакетного режима для тренировки AppCDS
+    private static final String TRAINING_INTERACTIVE_SCRIPT = "10\n5\n+3\n-1.5\n*2\n/4\n/0\n+(1 + 2) * 3\n"
+        + "= m + 1\nu\nr\nc\n7\ni\n2\n101\nq\n";                      // Ввод интерактивного режима для тренировки AppCDS
+
     /**
      * Точка входа в приложение.
-     * Создает экземпляр пользовательского интерфейса и запускает его.
-     * 
-     * @param args аргументы командной строки (не используются)
+     * Без аргументов запускает интерактивный интерфейс. Поддерживаемые аргументы:
+     * --batch [файл]       выполнить сценарий из файла или стандартного ввода;
+     * --log                вести лог в пакетном режиме;
+     * --parallel[=n]       выполнять сессии пакетного сценария (между командами c)
+     *                      параллельно в n потоках (по умолчанию — по числу процессоров);
+     * --async-log          писать лог в фоновом потоке;
+     * --log-sync=режим     когда сбрасывать асинхронный лог на диск:
+     *                      batch, close или интервал в миллисекундах (по умолчанию 1000);
+     * --journal=файл       дополнительно вести двоичный журнал операций;
+     * --journal-to-text=файл  вывести двоичный журнал в текстовом формате лога и выйти;
+     * --programmer[=биты]  запустить режим программиста: целые слова 8, 16, 32
+     *                      или 64 бита (по умолчанию 64), побитовые операции;
+     * --stats[=размер]     в пакетном режиме хранить операции вне кучи (до размера
+     *                      в памяти, по умолчанию 64M, дальше — в файле вытеснения)
+     *                      и после сценария вывести в stderr сводку по операциям;
+     * --session=файл       сохранять состояние интерактивной сессии в журнал
+     *                      и восстанавливать его при запуске;
+     * --server=порт        обслуживать сессии по TCP на локальном адресе
+     *                      (с --log или --async-log сессии пишут общий асинхронный лог);
+     * --server-max-sessions=n  предел одновременных сессий сервера (по умолчанию 10000);
+     * --log-max-size=размер  ротировать лог по размеру (байты, суффиксы K, M, G);
+     * --log-max-lines=n    ротировать лог по количеству строк;
+     * --log-keep=n         сколько сжатых сегментов лога хранить (по умолчанию 10);
+     * --log-print          вывести весь лог, включая сжатые сегменты, и выйти;
+     * --log-query=запрос   обновить индексы лога, вывести строки, подходящие
+     *                      под запрос LogQuery, и выйти;
+     * --log-index          обновить индексы лога, вывести сводку по операциям и выйти;
+     * --metrics[=файл]     собирать метрики, публиковать их через JMX
+     *                      и при завершении записать отчет в файл;
+     * --cds-training       выполнить короткие сценарии пакетного и интерактивного
+     *                      режимов без вывода и лога и выйти — тренировочный запуск
+     *                      для записи архива AppCDS (-XX:ArchiveClassesAtExit).
+     *
+     * @param args аргументы командной строки
      */
     public static void main(String[] args) {
-        CalculatorUI calculator = new CalculatorUI();
-        calculator.run();
+        boolean batch = false;
+        int parallel = 0;
+        boolean log = false;
+        boolean asyncLog = false;
+        String logSync = "1000";
+        String scriptPath = null;
+        String journalPath = null;
+        String journalToText = null;
+        String sessionPath = null;
+        int programmerBits = 0;
+        long statsMemory = 0;
+        int serverPort = -1;
+        int serverMaxSessions = CalculatorServer.DEFAULT_MAX_SESSIONS;
+        long logMaxBytes = 0;
+        long logMaxLines = 0;
+        int logKeep = DEFAULT_LOG_KEEP;
+        boolean logPrint = false;
+        String logQuery = null;
+        boolean logIndex = false;
+        boolean metrics = false;
+        String metricsPath = null;
+        boolean cdsTraining = false;
+        for (String arg : args) {
+            if (arg.equals("--batch")) {
+                batch = true;
+            } else if (arg.equals("--parallel")) {
+                parallel = Runtime.getRuntime().availableProcessors();
+            } else if (arg.startsWith("--parallel=")) {
+                parallel = (int) parseOption(arg, "--parallel=", false, 0, Integer.MAX_VALUE);
+            } else if (arg.equals("--log")) {
+                log = true;
+            } else if (arg.equals("--async-log")) {
+                asyncLog = true;
+            } else if (arg.startsWith("--log-sync=")) {
+                logSync = arg.substring("--log-sync=".length());
+                if (!logSync.equals("batch") && !logSync.equals("close")) {
+                    parseOption(arg, "--log-sync=", false, 0, Long.MAX_VALUE);
+                }
+            } else if (arg.startsWith("--journal=")) {
+                journalPath = arg.substring("--journal=".length());
+            } else if (arg.equals("--stats")) {
+                statsMemory = DEFAULT_STATS_MEMORY;
+            } else if (arg.startsWith("--stats=")) {
+                statsMemory = parseOption(arg, "--stats=", true, 0, Long.MAX_VALUE);
+            } else if (arg.equals("--programmer")) {
+                programmerBits = 64;
+            } else if (arg.startsWith("--programmer=")) {
+                programmerBits = (int) parseOption(arg, "--programmer=", false, 8, 64);
+                if (Integer.bitCount(programmerBits) != 1) {
+                    // Поддерживаются только слова 8, 16, 32 и 64 бита
+                    System.err.println("Ошибка: неверное значение параметра " + arg);
+                    System.exit(1);
+                }
+            } else if (arg.startsWith("--session=")) {
+                sessionPath = arg.substring("--session=".length());
+            } else if (arg.startsWith("--server=")) {
+                serverPort = (int) parseOption(arg, "--server=", false, 0, 65535);
+            } else if (arg.startsWith("--server-max-sessions=")) {
+                serverMaxSessions = (int) parseOption(arg, "--server-max-sessions=", false, 1, Integer.MAX_VALUE);
+            } else if (arg.startsWith("--log-max-size=")) {
+                logMaxBytes = parseOption(arg, "--log-max-size=", true, 0, Long.MAX_VALUE);
+            } else if (arg.startsWith("--log-max-lines=")) {
+                logMaxLines = parseOption(arg, "--log-max-lines=", false, 0, Long.MAX_VALUE);
+            } else if (arg.startsWith("--log-keep=")) {
+                logKeep = (int) parseOption(arg, "--log-keep=", false, 1, Integer.MAX_VALUE);
+            } else if (arg.equals("--log-print")) {
+                logPrint = true;
+            } else if (arg.startsWith("--log-query=")) {
+                logQuery = arg.substring("--log-query=".length());
+            } else if (arg.equals("--log-index")) {
+                logIndex = true;
+            } else if (arg.equals("--metrics")) {
+                metrics = true;
+            } else if (arg.startsWith("--metrics=")) {
+                metrics = true;
+                metricsPath = arg.substring("--metrics=".length());
+            } else if (arg.equals("--cds-training")) {
+                cdsTraining = true;
+            } else if (arg.startsWith("--journal-to-text=")) {
+                journalToText = arg.substring("--journal-to-text=".length());
+            } else if (arg.startsWith("--")) {
+                System.err.println("Ошибка: неизвестный параметр " + arg);
+                System.exit(1);
+            } else {
+                scriptPath = arg;
+            }
+        }
+
+        if (asyncLog && (logMaxBytes > 0 || logMaxLines > 0)) {
+            System.err.println("Ошибка: ротация лога не поддерживается вместе с --async-log");
+            System.exit(1);
+        }
+
+        if (parallel > 0 && journalPath != null) {
+            System.err.println("Ошибка: двоичный журнал не поддерживается вместе с --parallel");
+            System.exit(1);
+        }
+
+        if (statsMemory > 0 && (!batch || parallel > 0)) {
+            System.err.println("Ошибка: --stats поддерживается только в последовательном пакетном режиме");
+            System.exit(1);
+        }
+
+        if (sessionPath != null && (batch || serverPort >= 0)) {
+            System.err.println("Ошибка: журнал сессии поддерживается только в интерактивном режиме");
+            System.exit(1);
+        }
+
+        if (System.getProperty("jdk.console") == null) {
+            // Console нужен только для проверки терминала (CalculatorUI.isTerminal), а консоль
+            // на JLine, которую Java 22+ выбирает по умолчанию, загружает сотни классов при запуске
+            System.setProperty("jdk.console", "java.base");
+        }
+
+        if (metrics) {
+            // Свойство читается при загрузке CalculatorMetrics, поэтому задается до первого обращения
+            System.setProperty("calc.metrics", "true");
+        }
+        CalculatorMetrics.registerMBean();
+        if (metricsPath != null) {
+            CalculatorMetrics.dumpOnExit(metricsPath);
+        }
+
+        try {
+            if (cdsTraining) {
+                runCdsTraining();
+                return;
+            }
+
+            if (journalToText != null) {
+                printJournal(journalToText);
+                return;
+            }
+
+            if (logPrint) {
+                printLog();
+                return;
+            }
+
+            if (logQuery != null) {
+                queryLog(logQuery);
+                return;
+            }
+
+            if (logIndex) {
+                Writer out = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+                out.write(new LogQueryEngine(LOG_FILE).describe());
+                out.flush();
+                return;
+            }
+
+            if (serverPort >= 0) {
+                runServer(serverPort, serverMaxSessions, log || asyncLog
+                    ? createLogWriter(true, logSync, logMaxBytes, logMaxLines, logKeep)
+                    : null);
+                return;
+            }
+
+            if (programmerBits > 0) {
+                new ProgrammerUI(programmerBits).run();
+                return;
+            }
+
+            BinaryJournalWriter journal = journalPath == null ? null : new BinaryJournalWriter(journalPath);
+            if (batch) {
+                CustomFileWriter logWriter = log || asyncLog
+                    ? createLogWriter(asyncLog, logSync, logMaxBytes, logMaxLines, logKeep)
+                    : null;
+                OperationStore store = statsMemory > 0 ? new OperationStore(statsMemory, STATS_SPILL_FILE) : null;
+                runBatch(scriptPath, logWriter, journal, parallel, store);
+                return;
+            }
+
+            CalculatorUI calculator = new CalculatorUI(
+                createLogWriter(asyncLog, logSync, logMaxBytes, logMaxLines, logKeep), journal,
+                sessionPath == null ? null : new SessionLog(sessionPath));
+            calculator.run();
+        } catch (IOException e) {
+            System.err.println("Ошибка: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Создает объект записи лога операций.
+     * @param async писать ли лог в фоновом потоке
+     * @param sync режим сброса асинхронного лога на диск
+     * @param maxBytes размер сегмента для ротации (0 — без ротации по размеру)
+     * @param maxLines строк в сегменте для ротации (0 — без ротации по строкам)
+     * @param keep сколько сегментов хранить при ротации
+     * @return объект записи лога
+     * @throws IOException если файл лога не удалось открыть
+     */
+    private static CustomFileWriter createLogWriter(boolean async, String sync, long maxBytes, long maxLines,
+                                                    int keep) throws IOException {
+        if (maxBytes > 0 || maxLines > 0) {
+            return new RollingFileWriter(LOG_FILE, maxBytes, maxLines, keep);
+        }
+        if (!async) {
+            return new CustomFileWriter(LOG_FILE);
+        }
+        if (sync.equals("batch")) {
+            return new AsyncLogWriter(LOG_FILE, ASYNC_LOG_CAPACITY, AsyncLogWriter.SyncPolicy.BATCH, 0);
+        }
+        if (sync.equals("close")) {
+            return new AsyncLogWriter(LOG_FILE, ASYNC_LOG_CAPACITY, AsyncLogWriter.SyncPolicy.CLOSE, 0);
+        }
+        return new AsyncLogWriter(LOG_FILE, ASYNC_LOG_CAPACITY, AsyncLogWriter.SyncPolicy.INTERVAL, Long.parseLong(sync));
+    }
+
+    /**
+     * Запускает пакетный режим.
+     * @param scriptPath путь к файлу сценария или null для стандартного ввода
+     * @param logWriter объект записи лога или null, если лог не нужен
+     * @param journal двоичный журнал или null, если он не нужен
+     * @param parallel количество потоков для параллельного выполнения сессий (0 — последовательно)
+     * @param store хранилище операций для сводки или null, если сводка не нужна
+     * @throws IOException если произошла ошибка чтения, вывода или записи лога
+     */
+    private static void runBatch(String scriptPath, CustomFileWriter logWriter, BinaryJournalWriter journal,
+                                 int parallel, OperationStore store) throws IOException {
+        InputStream in = scriptPath == null ? System.in : new FileInputStream(scriptPath);
+        Writer out = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+        try {
+            if (parallel > 0) {
+                new ParallelBatchProcessor(logWriter, parallel)
+                    .run(new InputStreamReader(in, StandardCharsets.UTF_8), out);
+            } else {
+                new BatchProcessor(logWriter, journal, store)
+                    .run(new InputStreamReader(in, StandardCharsets.UTF_8), out);
+            }
+            if (store != null) {
+                Writer err = new OutputStreamWriter(System.err, StandardCharsets.UTF_8);
+                err.write(store.describe());
+                err.flush();
+            }
+        } finally {
+            in.close();
+            if (logWriter != null) {
+                logWriter.close();
+            }
+            if (journal != null) {
+                journal.close();
+            }
+            if (store != null) {
+                store.close();
+            }
+        }
+    }
+
+    /**
+     * Тренировочный запуск для архива AppCDS: выполняет короткие сценарии
+     * пакетного и интерактивного режимов, чтобы JVM загрузила классы, нужные
+     * обычному запуску. Результаты никуда не выводятся, лог пишется
+     * во временный файл и удаляется.
+     * @throws IOException если не удалось создать временный файл лога
+     */
+    private static void runCdsTraining() throws IOException {
+        File log = File.createTempFile("calculator_cds", ".log");
+        InputStream in = System.in;
+        PrintStream out = System.out;
+        try {
+            new BatchProcessor(new CustomFileWriter(log.getPath()), null)
+                .run(new StringReader(TRAINING_BATCH_SCRIPT), new StringWriter());
+
+            System.setIn(new ByteArrayInputStream(TRAINING_INTERACTIVE_SCRIPT.getBytes(StandardCharsets.UTF_8)));
+            System.setOut(new PrintStream(OutputStream.nullOutputStream(), false, "UTF-8"));
+            new CalculatorUI(new CustomFileWriter(log.getPath()), null, null).run();
+        } finally {
+            System.setIn(in);
+            System.setOut(out);
+            if (!log.delete()) {
+                log.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Запускает сервер сессий и работает до завершения процесса.
+     * @param port номер порта
+     * @param maxSessions наибольшее число одновременных сессий
+     * @param logWriter общий объект записи лога или null, если лог не нужен
+     * @throws IOException если порт не удалось открыть
+     */
+    private static void runServer(int port, int maxSessions, CustomFileWriter logWriter) throws IOException {
+        CalculatorServer server = new CalculatorServer(port, logWriter, maxSessions);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                // close ждет завершения сессий, поэтому их последние строки попадают в лог до его закрытия
+                server.close();
+                if (logWriter != null) {
+                    logWriter.close();
+                }
+            } catch (IOException e) {
+                System.err.println("Ошибка при остановке сервера: " + e.getMessage());
+            }
+        }));
+        System.err.println("Сервер калькулятора слушает порт " + server.getPort());
+        server.serve();
+    }
+
+    /**
+     * Разбирает размер с необязательным суффиксом K, M или G.
+     * @param text размер, например 512K или 10M
+     * @return размер в байтах
+     * @throws NumberFormatException если размер записан неверно
+     * @throws ArithmeticException если размер не помещается в long
+     */
+    private static long parseSize(String text) {
+        long multiplier = 1;
+        switch (Character.toUpperCase(text.isEmpty() ? ' ' : text.charAt(text.length() - 1))) {
+            case 'K':
+                multiplier = 1L << 10;
+                break;
+            case 'M':
+                multiplier = 1L << 20;
+                break;
+            case 'G':
+                multiplier = 1L << 30;
+                break;
+            default:
+                return Long.parseLong(text);
+        }
+        return Math.multiplyExact(Long.parseLong(text.substring(0, text.length() - 1)), multiplier);
+    }
+
+    /**
+     * Разбирает числовое значение параметра командной строки. Если значение
+     * записано неверно или выходит за пределы, выводит ошибку и завершает
+     * программу с кодом 1.
+     * @param arg параметр целиком, например --parallel=4
+     * @param prefix имя параметра вместе со знаком равенства
+     * @param size допускаются ли суффиксы K, M и G
+     * @param min наименьшее допустимое значение (не меньше 0)
+     * @param max наибольшее допустимое значение
+     * @return значение параметра от min до max
+     */
+    private static long parseOption(String arg, String prefix, boolean size, long min, long max) {
+        String text = arg.substring(prefix.length());
+        long value = -1;
+        try {
+            value = size ? parseSize(text) : Long.parseLong(text);
+        } catch (NumberFormatException | ArithmeticException e) {
+            // Сообщение об ошибке выводится ниже
+        }
+        if (value < min || value > max) {
+            System.err.println("Ошибка: неверное значение параметра " + arg);
+            System.exit(1);
+        }
+        return value;
+    }
+
+    /**
+     * Выводит весь лог операций, включая закрытые и сжатые сегменты.
+     * @throws IOException если лог не удалось прочитать
+     */
+    private static void printLog() throws IOException {
+        try (RollingLogReader reader = new RollingLogReader(LOG_FILE)) {
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+            reader.copyTo(out);
+            out.flush();
+        }
+    }
+
+    /**
+     * Выполняет запрос к логу операций по индексам и выводит найденные строки
+     * и их количество.
+     * @param text текст запроса LogQuery
+     * @throws IOException если лог не удалось прочитать
+     */
+    private static void queryLog(String text) throws IOException {
+        LogQuery query;
+        try {
+            query = LogQuery.parse(text, System.currentTimeMillis());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Ошибка: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        long count = new LogQueryEngine(LOG_FILE).query(query, out);
+        out.write("Найдено строк: " + count + System.lineSeparator());
+        out.flush();
+    }
+
+    /**
+     * Выводит двоичный журнал в текстовом формате лога.
+     * @param journalPath путь к файлу журнала
+     * @throws IOException если журнал не удалось прочитать
+     */
+    private static void printJournal(String journalPath) throws IOException {
+        try (JournalReader reader = new JournalReader(journalPath)) {
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+            reader.exportText(out);
+            out.flush();
+        }
     }
 }
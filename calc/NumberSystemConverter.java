@@ -1,9 +1,12 @@
+package calc;
+
 /**
  * Класс NumberSystemConverter предоставляет утилиты для конвертации чисел
  * между различными системами счисления (двоичной, восьмеричной, 
  * десятичной и шестнадцатеричной).
  */
 public class NumberSystemConverter extends Calculator {
+    private final RadixViewCache viewCache; // Кэш представлений для formatResult (может быть null)
     private int currentRadix; // Текущая система счисления
 
     /**
@@ -11,7 +14,16 @@ public class NumberSystemConverter extends Calculator {
      * Устанавливает десятичную систему счисления по умолчанию.
      */
     public NumberSystemConverter() {
+        this(null);
+    }
+
+    /**
+     * Конструктор класса с кэшем представлений для formatResult.
+     * @param viewCache кэш готовых представлений или null, если кэш не нужен
+     */
+    public NumberSystemConverter(RadixViewCache viewCache) {
         super();
+        this.viewCache = viewCache;
         this.currentRadix = 10;
     }
 
@@ -29,49 +41,78 @@ public class NumberSystemConverter extends Calculator {
 
     @Override
     public double add(double num) {
+        long start = CalculatorMetrics.start();
         memory += num;
+        CalculatorMetrics.recordOperation(Operation.ADD, start);
         return memory;
     }
 
     @Override
     public double subtract(double num) {
+        long start = CalculatorMetrics.start();
         memory -= num;
+        CalculatorMetrics.recordOperation(Operation.SUBTRACT, start);
         return memory;
     }
 
     @Override
     public double multiply(double num) {
+        long start = CalculatorMetrics.start();
         memory *= num;
+        CalculatorMetrics.recordOperation(Operation.MULTIPLY, start);
         return memory;
     }
 
     @Override
     public double divide(double num) throws ArithmeticException {
         if (num == 0) {
+            CalculatorMetrics.recordDivisionByZero();
             throw new ArithmeticException("Деление на ноль невозможно!");
         }
+        long start = CalculatorMetrics.start();
         memory /= num;
+        CalculatorMetrics.recordOperation(Operation.DIVIDE, start);
         return memory;
     }
 
     @Override
     public String formatResult(double number) {
+        if (viewCache != null) {
+            return viewCache.get(number, currentRadix);
+        }
         return formatNumber(number, currentRadix);
     }
 
     /**
      * Преобразует строковое представление числа в double с учетом системы счисления.
+     * Дробная часть допускается во всех системах, целые числа — до 64 бит.
      * @param input строковое представление числа
      * @param radix основание системы счисления (2, 8, 10 или 16)
      * @return число в формате double
      * @throws NumberFormatException если входная строка не может быть преобразована в число
+     * @see RadixParser
      */
     public static double parseNumber(String input, int radix) throws NumberFormatException {
-        if (radix == 10) {
-            return Double.parseDouble(input);
+        return parseNumber(input, 0, input.length(), radix);
+    }
+
+    /**
+     * Преобразует фрагмент текста в double без создания промежуточных строк.
+     * Пробелы в начале и в конце фрагмента пропускаются.
+     * @param input текст, содержащий число
+     * @param offset начало фрагмента
+     * @param length длина фрагмента
+     * @param radix основание системы счисления (2, 8, 10 или 16)
+     * @return число в формате double
+     * @throws NumberFormatException если фрагмент не может быть преобразован в число
+     */
+    public static double parseNumber(CharSequence input, int offset, int length, int radix)
+            throws NumberFormatException {
+        RadixParser parser = new RadixParser();
+        if (!parser.parse(input, offset, length, radix)) {
+            throw new NumberFormatException(parser.errorMessage());
         }
-        // Для целых чисел в других системах счисления
-        return Integer.parseInt(input, radix);
+        return parser.doubleValue();
     }
 
     /**
@@ -81,32 +122,14 @@ public class NumberSystemConverter extends Calculator {
      * @param number число для форматирования
      * @param radix система счисления (2, 8, 10 или 16)
      * @return отформатированная строка в указанной системе счисления
+     * @see RadixFormatter
      */
     public static String formatNumber(double number, int radix) {
-        int intPart = (int) number;
-        double fractionalPart = number - intPart;
-        
-        String result = "";
-        switch (radix) {
-            case 2:
-                result = Integer.toBinaryString(intPart);  // Двоичная система
-                break;
-            case 8:
-                result = Integer.toOctalString(intPart);   // Восьмеричная система
-                break;
-            case 10:
-                result = String.format("%d", intPart);     // Десятичная система
-                break;
-            case 16:
-                result = Integer.toHexString(intPart).toUpperCase(); // Шестнадцатеричная система
-                break;
-        }
-        
-        // Добавляем дробную часть, если она есть
-        if (fractionalPart != 0) {
-            result += String.format(".%.4f", fractionalPart);
-        }
-        
+        long start = CalculatorMetrics.start();
+        char[] chars = new char[RadixFormatter.VIEW_CAPACITY];
+        int length = RadixFormatter.render(number, radix, chars, 0);
+        String result = new String(chars, 0, length);
+        CalculatorMetrics.recordFormat(start);
         return result;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,107 @@
+package calc;
+
+/**
+ * Перечисление Operation описывает арифметические операции калькулятора:
+ * символ, которым операция вводится, название для лога и числовой код
+ * для двоичных форматов хранения.
+ */
+public enum Operation {
+    ADD(1, '+', "сложение"),
+    SUBTRACT(2, '-', "вычитание"),
+    MULTIPLY(3, '*', "умножение"),
+    DIVIDE(4, '/', "деление");
+
+    private final int code;        // Код операции в двоичных форматах
+    private final char symbol;     // Символ операции во вводе
+    private final String logName;  // Название операции в текстовом логе
+
+    Operation(int code, char symbol, String logName) {
+        this.code = code;
+        this.symbol = symbol;
+        this.logName = logName;
+    }
+
+    /**
+     * Возвращает код операции для двоичных форматов.
+     * @return код операции
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Возвращает символ, которым операция вводится.
+     * @return символ операции
+     */
+    public char getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Возвращает название операции для текстового лога.
+     * @return название операции
+     */
+    public String getLogName() {
+        return logName;
+    }
+
+    /**
+     * Выполняет операцию над памятью калькулятора.
+     * @param calculator калькулятор
+     * @param number операнд
+     * @return результат операции
+     * @throws ArithmeticException при попытке деления на ноль
+     */
+    public double apply(Calculator calculator, double number) {
+        switch (this) {
+            case ADD:
+                return calculator.add(number);
+            case SUBTRACT:
+                return calculator.subtract(number);
+            case MULTIPLY:
+                return calculator.multiply(number);
+            default:
+                return calculator.divide(number);
+        }
+    }
+
+    /**
+     * Находит операцию по коду.
+     * @param code код операции
+     * @return операция или null, если код неизвестен
+     */
+    public static Operation fromCode(int code) {
+        switch (code) {
+            case 1:
+                return ADD;
+            case 2:
+                return SUBTRACT;
+            case 3:
+                return MULTIPLY;
+            case 4:
+                return DIVIDE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Находит операцию по символу.
+     * @param symbol символ операции
+     * @return операция или null, если символ неизвестен
+     */
+    public static Operation fromSymbol(char symbol) {
+        switch (symbol) {
+            case '+':
+                return ADD;
+            case '-':
+                return SUBTRACT;
+            case '*':
+                return MULTIPLY;
+            case '/':
+                return DIVIDE;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package calc;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+
+/**
+ * Класс OperationLogFormat формирует строки текстового лога операций
+ * в формате calculator_log.txt:
+ * "Операция: сложение, Число: 1,00, Результат: 10,00 (BIN: ..., OCT: ..., DEC: ..., HEX: ...)".
+ * Числа с двумя знаками после запятой выводятся в текущей локали.
+ *
+ * Первый вызов String.format с числом загружает данные локали, что заметно
+ * удлиняет запуск короткоживущего процесса. Поэтому в локалях с точкой
+ * и цифрами ASCII (en_US, английская и корневая) числа форматируются без
+ * Formatter — так же, как %.2f: кратчайшая десятичная запись числа
+ * (Double.toString), округленная до двух знаков половиной вверх.
+ * В остальных локалях используется String.format.
+ */
+public final class OperationLogFormat {
+    private OperationLogFormat() {
+    }
+
+    /**
+     * Формирует строку лога для выполненной операции.
+     * @param operation выполненная операция
+     * @param number введенное число
+     * @param result результат операции
+     * @param formatter объект для получения представлений результата
+     * @return строка лога
+     */
+    public static String formatLine(Operation operation, double number, double result, RadixFormatter formatter) {
+        formatter.format(result);
+        StringBuilder line = new StringBuilder(160);
+        if (isPlainLocale(Locale.getDefault(Locale.Category.FORMAT))) {
+            line.append("Операция: ").append(operation.getLogName());
+            appendFixed2(line.append(", Число: "), number);
+            appendFixed2(line.append(", Результат: "), result);
+        } else {
+            line.append(String.format("Операция: %s, Число: %.2f, Результат: %.2f", operation.getLogName(), number, result));
+        }
+        formatter.appendTo(2, line.append(" (BIN: "));
+        formatter.appendTo(8, line.append(", OCT: "));
+        formatter.appendTo(10, line.append(", DEC: "));
+        formatter.appendTo(16, line.append(", HEX: ")).append(')');
+        return line.toString();
+    }
+
+    /**
+     * Проверяет, что %.2f в локали дает точку и цифры ASCII без данных локали.
+     * @param locale локаль форматирования
+     * @return true для en_US, английской и корневой локали
+     */
+    static boolean isPlainLocale(Locale locale) {
+        return locale.equals(Locale.US) || locale.equals(Locale.ENGLISH) || locale.equals(Locale.ROOT);
+    }
+
+    /**
+     * Добавляет число с двумя знаками после точки так же, как %.2f в локали en_US.
+     * @param out приемник символов
+     * @param value число
+     * @return переданный приемник
+     */
+    static StringBuilder appendFixed2(StringBuilder out, double value) {
+        if (Double.isNaN(value)) {
+            return out.append("NaN");
+        }
+        if (Double.compare(value, 0.0) < 0) {
+            out.append('-'); // Как в Formatter: и для -0.0
+        }
+        double magnitude = Math.abs(value);
+        if (Double.isInfinite(magnitude)) {
+            return out.append("Infinity");
+        }
+        return out.append(BigDecimal.valueOf(magnitude).setScale(2, RoundingMode.HALF_UP).toPlainString());
+    }
+}
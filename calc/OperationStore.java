@@ -0,0 +1,460 @@
+package calc;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Класс OperationStore хранит выполненные операции калькулятора вне кучи
+ * Java и считает по ним агрегаты: количество, сумму, минимум и максимум
+ * по операциям и гистограммы результатов.
+ *
+ * Операции лежат в блоках по BLOCK_ROWS строк; блок — один прямой
+ * ByteBuffer (allocateDirect) со столбцами: время (long), операнд (double),
+ * результат (double) и код операции (byte, как в BinaryJournalWriter:
+ * 0 — ввод числа, остальные — Operation.getCode()), всего 25 байт на операцию.
+ * Объекты на операцию не создаются, сборщик мусора блоки не просматривает,
+ * а агрегаты считаются простыми циклами по одному-двум столбцам.
+ *
+ * Объем памяти задается в конструкторе. Когда все блоки заполнены, самый
+ * старый блок целиком дописывается в файл вытеснения и переиспользуется;
+ * агрегаты читают вытесненные блоки через отображение файла в память.
+ * Без файла вытеснения самые старые операции отбрасываются. Файл
+ * вытеснения — рабочий, при закрытии хранилища он удаляется.
+ *
+ * Класс не потокобезопасен.
+ */
+public class OperationStore implements Closeable {
+    /**
+     * Столбец значений для агрегатов.
+     */
+    public enum Column {
+        /** Операнд (для ввода числа — введенное число). */
+        OPERAND,
+        /** Результат операции. */
+        RESULT
+    }
+
+    /**
+     * Агрегаты значений столбца: количество, сумма, минимум и максимум.
+     * NaN учитывается в количестве и сумме, но не в минимуме и максимуме.
+     */
+    public static final class Aggregate {
+        private long count;                             // Количество значений
+        private double sum;                             // Сумма значений
+        private double min = Double.POSITIVE_INFINITY;  // Минимум
+        private double max = Double.NEGATIVE_INFINITY;  // Максимум
+
+        /**
+         * Возвращает количество значений.
+         * @return количество
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Возвращает сумму значений.
+         * @return сумма
+         */
+        public double getSum() {
+            return sum;
+        }
+
+        /**
+         * Возвращает минимум (NaN, если значений нет).
+         * @return минимум
+         */
+        public double getMin() {
+            return count == 0 ? Double.NaN : min;
+        }
+
+        /**
+         * Возвращает максимум (NaN, если значений нет).
+         * @return максимум
+         */
+        public double getMax() {
+            return count == 0 ? Double.NaN : max;
+        }
+
+        /**
+         * Добавляет агрегаты части данных.
+         */
+        private void merge(long partCount, double partSum, double partMin, double partMax) {
+            count += partCount;
+            sum += partSum;
+            min = Math.min(min, partMin);
+            max = Math.max(max, partMax);
+        }
+    }
+
+    /**
+     * Обработчик блока при просмотре хранилища.
+     */
+    private interface BlockVisitor {
+        /**
+         * Обрабатывает блок.
+         * @param block данные блока
+         * @param rows количество строк в блоке
+         */
+        void visit(ByteBuffer block, int rows);
+    }
+
+    public static final int BLOCK_ROWS = 1 << 16;             // Операций в блоке
+    static final int ROW_BYTES = 8 + 8 + 8 + 1;               // Байт на операцию во всех столбцах
+    static final int BLOCK_BYTES = BLOCK_ROWS * ROW_BYTES;    // Размер блока в байтах
+    private static final int TIME_OFFSET = 0;                 // Начало столбца времени
+    private static final int OPERAND_OFFSET = 8 * BLOCK_ROWS; // Начало столбца операндов
+    private static final int RESULT_OFFSET = 16 * BLOCK_ROWS; // Начало столбца результатов
+    private static final int CODE_OFFSET = 24 * BLOCK_ROWS;   // Начало столбца кодов
+    private static final int CODE_COUNT = 5;                  // Коды 0–4
+    private static final int DESCRIBE_BINS = 10;              // Интервалов гистограммы в сводке
+
+    private final ByteBuffer[] blocks; // Кольцо блоков в памяти
+    private final Path spillPath;      // Файл вытеснения (может быть null)
+    private FileChannel spill;         // Открытый файл вытеснения
+    private long spilledBlocks;        // Блоков в файле вытеснения
+    private long droppedRows;          // Отброшенных операций (без файла вытеснения)
+    private int firstBlock;            // Индекс самого старого блока в кольце
+    private int blockCount;            // Используемых блоков в памяти
+    private int lastRows;              // Строк в самом новом блоке
+
+    /**
+     * Конструктор класса.
+     * @param maxMemoryBytes наибольший объем памяти под блоки (не меньше одного блока)
+     * @param spillPath файл вытеснения или null, чтобы отбрасывать старые операции
+     */
+    public OperationStore(long maxMemoryBytes, String spillPath) {
+        long count = Math.max(1, maxMemoryBytes / BLOCK_BYTES);
+        this.blocks = new ByteBuffer[(int) Math.min(count, Integer.MAX_VALUE)];
+        this.spillPath = spillPath == null ? null : Paths.get(spillPath);
+    }
+
+    /**
+     * Записывает выполненную операцию с текущим временем.
+     * @param operation операция
+     * @param number операнд
+     * @param result результат
+     * @throws IOException если не удалось вытеснить блок в файл
+     */
+    public void append(Operation operation, double number, double result) throws IOException {
+        append(operation.getCode(), number, result, System.currentTimeMillis());
+    }
+
+    /**
+     * Записывает ввод числа с текущим временем.
+     * @param number введенное число
+     * @throws IOException если не удалось вытеснить блок в файл
+     */
+    public void appendSet(double number) throws IOException {
+        append(BinaryJournalWriter.SET_CODE, number, number, System.currentTimeMillis());
+    }
+
+    /**
+     * Записывает произвольную операцию.
+     * @param code код операции (0 — ввод числа, 1–4 — Operation.getCode())
+     * @param number операнд
+     * @param result результат
+     * @param timestamp время в миллисекундах
+     * @throws IOException если не удалось вытеснить блок в файл
+     * @throws IllegalArgumentException если код неизвестен
+     */
+    public void append(int code, double number, double result, long timestamp) throws IOException {
+        if (code < 0 || code >= CODE_COUNT) {
+            throw new IllegalArgumentException("Неизвестный код операции: " + code);
+        }
+        if (blockCount == 0 || lastRows == BLOCK_ROWS) {
+            nextBlock();
+        }
+        ByteBuffer block = blocks[(firstBlock + blockCount - 1) % blocks.length];
+        int row = lastRows++;
+        block.putLong(TIME_OFFSET + 8 * row, timestamp);
+        block.putDouble(OPERAND_OFFSET + 8 * row, number);
+        block.putDouble(RESULT_OFFSET + 8 * row, result);
+        block.put(CODE_OFFSET + row, (byte) code);
+    }
+
+    /**
+     * Возвращает количество хранимых операций (в памяти и в файле вытеснения).
+     * @return количество операций
+     */
+    public long size() {
+        long memoryRows = blockCount == 0 ? 0 : (long) (blockCount - 1) * BLOCK_ROWS + lastRows;
+        return spilledBlocks * BLOCK_ROWS + memoryRows;
+    }
+
+    /**
+     * Возвращает количество операций, вытесненных в файл.
+     * @return количество операций в файле
+     */
+    public long getSpilledRows() {
+        return spilledBlocks * BLOCK_ROWS;
+    }
+
+    /**
+     * Возвращает количество отброшенных операций (если файл вытеснения не задан).
+     * @return количество отброшенных операций
+     */
+    public long getDroppedRows() {
+        return droppedRows;
+    }
+
+    /**
+     * Возвращает объем выделенной памяти вне кучи.
+     * @return размер в байтах
+     */
+    public long memoryBytes() {
+        long allocated = 0;
+        for (ByteBuffer block : blocks) {
+            if (block != null) {
+                allocated += BLOCK_BYTES;
+            }
+        }
+        return allocated;
+    }
+
+    /**
+     * Считает агрегаты столбца по операции.
+     * @param operation операция или null для всех записей, включая ввод числа
+     * @param column столбец
+     * @return агрегаты
+     * @throws IOException если не удалось прочитать файл вытеснения
+     */
+    public Aggregate aggregate(Operation operation, Column column) throws IOException {
+        return aggregate(operation, column, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Считает агрегаты столбца по операции за интервал времени.
+     * @param operation операция или null для всех записей, включая ввод числа
+     * @param column столбец
+     * @param fromMillis начало интервала (включительно)
+     * @param toMillis конец интервала (не включительно)
+     * @return агрегаты
+     * @throws IOException если не удалось прочитать файл вытеснения
+     */
+    public Aggregate aggregate(Operation operation, Column column, long fromMillis, long toMillis)
+            throws IOException {
+        int code = operation == null ? -1 : operation.getCode();
+        int offset = column == Column.OPERAND ? OPERAND_OFFSET : RESULT_OFFSET;
+        boolean allTime = fromMillis == Long.MIN_VALUE && toMillis == Long.MAX_VALUE;
+        Aggregate aggregate = new Aggregate();
+        visitBlocks((block, rows) -> {
+            long count = 0;
+            double sum = 0;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < rows; i++) {
+                if (code >= 0 && block.get(CODE_OFFSET + i) != code) {
+                    continue;
+                }
+                if (!allTime) {
+                    long time = block.getLong(TIME_OFFSET + 8 * i);
+                    if (time < fromMillis || time >= toMillis) {
+                        continue;
+                    }
+                }
+                double value = block.getDouble(offset + 8 * i);
+                count++;
+                sum += value;
+                if (value < min) {
+                    min = value;
+                }
+                if (value > max) {
+                    max = value;
+                }
+            }
+            aggregate.merge(count, sum, min, max);
+        });
+        return aggregate;
+    }
+
+    /**
+     * Считает агрегаты столбца сразу для всех кодов за один проход.
+     * @param column столбец
+     * @return агрегаты по коду: 0 — ввод числа, 1–4 — Operation.getCode()
+     * @throws IOException если не удалось прочитать файл вытеснения
+     */
+    public Aggregate[] aggregateByCode(Column column) throws IOException {
+        int offset = column == Column.OPERAND ? OPERAND_OFFSET : RESULT_OFFSET;
+        Aggregate[] aggregates = new Aggregate[CODE_COUNT];
+        for (int code = 0; code < CODE_COUNT; code++) {
+            aggregates[code] = new Aggregate();
+        }
+        long[] counts = new long[CODE_COUNT];
+        double[] sums = new double[CODE_COUNT];
+        double[] mins = new double[CODE_COUNT];
+        double[] maxs = new double[CODE_COUNT];
+        visitBlocks((block, rows) -> {
+            Arrays.fill(counts, 0);
+            Arrays.fill(sums, 0);
+            Arrays.fill(mins, Double.POSITIVE_INFINITY);
+            Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+            for (int i = 0; i < rows; i++) {
+                int code = block.get(CODE_OFFSET + i);
+                double value = block.getDouble(offset + 8 * i);
+                counts[code]++;
+                sums[code] += value;
+                if (value < mins[code]) {
+                    mins[code] = value;
+                }
+                if (value > maxs[code]) {
+                    maxs[code] = value;
+                }
+            }
+            for (int code = 0; code < CODE_COUNT; code++) {
+                aggregates[code].merge(counts[code], sums[code], mins[code], maxs[code]);
+            }
+        });
+        return aggregates;
+    }
+
+    /**
+     * Строит гистограмму результатов: интервал [from, to] делится на bins
+     * равных частей. Результаты вне интервала и NaN не учитываются.
+     * @param operation операция или null для всех записей
+     * @param from начало интервала
+     * @param to конец интервала (больше from)
+     * @param bins количество частей
+     * @return количество результатов в каждой части
+     * @throws IOException если не удалось прочитать файл вытеснения
+     * @throws IllegalArgumentException если интервал или количество частей неверны
+     */
+    public long[] histogram(Operation operation, double from, double to, int bins) throws IOException {
+        if (!(to > from) || bins < 1) {
+            throw new IllegalArgumentException("Неверный интервал гистограммы");
+        }
+        int code = operation == null ? -1 : operation.getCode();
+        double scale = bins / (to - from);
+        long[] counts = new long[bins];
+        visitBlocks((block, rows) -> {
+            for (int i = 0; i < rows; i++) {
+                if (code >= 0 && block.get(CODE_OFFSET + i) != code) {
+                    continue;
+                }
+                double value = block.getDouble(RESULT_OFFSET + 8 * i);
+                if (value >= from && value <= to) {
+                    counts[Math.min(bins - 1, (int) ((value - from) * scale))]++;
+                }
+            }
+        });
+        return counts;
+    }
+
+    /**
+     * Формирует текстовую сводку: количество, сумму, минимум и максимум
+     * операндов по операциям и гистограмму результатов.
+     * @return сводка
+     * @throws IOException если не удалось прочитать файл вытеснения
+     */
+    public String describe() throws IOException {
+        String newline = System.lineSeparator();
+        StringBuilder text = new StringBuilder();
+        text.append("Операций в истории: ").append(size())
+            .append(" (в файле: ").append(getSpilledRows())
+            .append(", отброшено: ").append(droppedRows).append(')').append(newline);
+
+        Aggregate[] operands = aggregateByCode(Column.OPERAND);
+        for (int code = 0; code < CODE_COUNT; code++) {
+            Aggregate aggregate = operands[code];
+            text.append("  ").append(code == 0 ? "ввод числа" : Operation.fromCode(code).getLogName())
+                .append(": ").append(aggregate.getCount());
+            if (aggregate.getCount() > 0) {
+                text.append(", сумма ").append(aggregate.getSum())
+                    .append(", мин ").append(aggregate.getMin())
+                    .append(", макс ").append(aggregate.getMax());
+            }
+            text.append(newline);
+        }
+
+        Aggregate results = aggregate(null, Column.RESULT);
+        double from = results.getMin();
+        double to = results.getMax();
+        if (results.getCount() > 0 && to > from && !Double.isInfinite(to - from)) {
+            text.append("Результаты:").append(newline);
+            long[] counts = histogram(null, from, to, DESCRIBE_BINS);
+            double width = (to - from) / DESCRIBE_BINS;
+            for (int bin = 0; bin < DESCRIBE_BINS; bin++) {
+                text.append("  [").append(from + bin * width).append("; ")
+                    .append(bin == DESCRIBE_BINS - 1 ? to : from + (bin + 1) * width)
+                    .append(bin == DESCRIBE_BINS - 1 ? "]" : ")").append(": ").append(counts[bin]).append(newline);
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Закрывает и удаляет файл вытеснения. Память блоков освобождается
+     * сборщиком мусора вместе с буферами.
+     * @throws IOException если файл не удалось закрыть или удалить
+     */
+    @Override
+    public void close() throws IOException {
+        if (spill != null) {
+            spill.close();
+            spill = null;
+            Files.deleteIfExists(spillPath);
+        }
+    }
+
+    /**
+     * Начинает новый блок: берет свободный блок кольца или вытесняет самый старый.
+     */
+    private void nextBlock() throws IOException {
+        lastRows = 0;
+        if (blockCount < blocks.length) {
+            int index = (firstBlock + blockCount) % blocks.length;
+            if (blocks[index] == null) {
+                blocks[index] = ByteBuffer.allocateDirect(BLOCK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            blockCount++;
+            return;
+        }
+        ByteBuffer oldest = blocks[firstBlock];
+        if (spillPath != null) {
+            writeSpill(oldest);
+        } else {
+            droppedRows += BLOCK_ROWS;
+        }
+        // Самый старый блок становится самым новым
+        firstBlock = (firstBlock + 1) % blocks.length;
+    }
+
+    /**
+     * Дописывает полный блок в файл вытеснения.
+     */
+    private void writeSpill(ByteBuffer block) throws IOException {
+        if (spill == null) {
+            spill = FileChannel.open(spillPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        ByteBuffer data = block.duplicate();
+        data.clear();
+        long position = spilledBlocks * BLOCK_BYTES;
+        while (data.hasRemaining()) {
+            position += spill.write(data, position);
+        }
+        spilledBlocks++;
+    }
+
+    /**
+     * Обходит блоки от самых старых: вытесненные в файл, затем блоки в памяти.
+     */
+    private void visitBlocks(BlockVisitor visitor) throws IOException {
+        for (long i = 0; i < spilledBlocks; i++) {
+            ByteBuffer block = spill.map(FileChannel.MapMode.READ_ONLY, i * BLOCK_BYTES, BLOCK_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+            visitor.visit(block, BLOCK_ROWS);
+        }
+        for (int i = 0; i < blockCount; i++) {
+            visitor.visit(blocks[(firstBlock + i) % blocks.length], i == blockCount - 1 ? lastRows : BLOCK_ROWS);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package calc;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Класс ParallelBatchProcessor выполняет сценарий пакетного режима
+ * параллельно: сценарий делится на независимые сессии по командам c (сброс),
+ * каждая группа сессий выполняется собственным BatchProcessor в ForkJoinPool,
+ * а результаты и строки лога выводятся в исходном порядке. Вывод и лог
+ * совпадают с последовательным выполнением BatchProcessor байт в байт.
+ *
+ * Сессия, начинающаяся с команды c, независима от предыдущих, кроме двух
+ * случаев, которые учитываются при разбиении:
+ * - система счисления ввода (команда i) сохраняется после сброса, поэтому
+ *   она определяется предварительным просмотром сценария;
+ * - отмена может пройти через сброс и вернуться в предыдущие сессии, причем
+ *   подряд идущие команды u складываются и могут пересечь несколько сбросов.
+ *   Поэтому план повторяет движение по истории (u, r, c) с оценкой позиции
+ *   снизу: шагом считается только строка, которая не может завершиться
+ *   ошибкой (число, в том числе со знаком + или -), — и не использует
+ *   границу, если накопленная глубина отмены после нее может опуститься
+ *   ниже этой границы.
+ *
+ * Сценарий читается в память целиком: команда отмены может сослаться
+ * на сколь угодно раннюю сессию.
+ */
+public class ParallelBatchProcessor {
+    private static final int MIN_TASK_LINES = 1024; // Наименьшее количество строк в задаче
+    private static final int TASKS_PER_THREAD = 8;  // Задач на поток для выравнивания нагрузки
+
+    private final CustomFileWriter logWriter; // Запись операций в лог (может быть null)
+    private final int parallelism;            // Количество потоков
+
+    /**
+     * Конструктор класса.
+     * @param logWriter объект для записи лога операций или null, если лог не нужен
+     * @param parallelism количество потоков (не меньше 1)
+     * @throws IllegalArgumentException если количество потоков меньше 1
+     */
+    public ParallelBatchProcessor(CustomFileWriter logWriter, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Количество потоков должно быть положительным");
+        }
+        this.logWriter = logWriter;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Выполняет сценарий целиком.
+     * @param in источник сценария
+     * @param out приемник результатов
+     * @throws IOException если произошла ошибка чтения, вывода или записи лога
+     */
+    public void run(Reader in, Writer out) throws IOException {
+        List<String> lines = readLines(in);
+        List<int[]> tasks = plan(lines, parallelism);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<Result>> results = new ArrayList<>(tasks.size());
+            for (int[] task : tasks) {
+                results.add(pool.submit(() -> evaluate(lines, task[0], task[1], task[2])));
+            }
+            for (ForkJoinTask<Result> task : results) {
+                Result result = task.join();
+                out.append(result.output);
+                if (logWriter != null && !result.log.isEmpty()) {
+                    logWriter.appendLines(result.log);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+            out.flush();
+        }
+    }
+
+    /**
+     * Выполняет группу сессий отдельным BatchProcessor.
+     */
+    private static Result evaluate(List<String> lines, int from, int to, int inputRadix) {
+        BatchProcessor processor = new BatchProcessor(inputRadix);
+        StringBuilder output = new StringBuilder((to - from) * 48);
+        processor.runLines(lines, from, to, output);
+        return new Result(output, processor.takeLog());
+    }
+
+    /**
+     * Делит сценарий на задачи по границам независимых сессий.
+     * @param lines строки сценария
+     * @param parallelism количество потоков
+     * @return задачи: первая строка, строка после последней, система счисления ввода
+     */
+    static List<int[]> plan(List<String> lines, int parallelism) {
+        List<Integer> starts = new ArrayList<>();   // Строки команд c
+        List<Integer> radixes = new ArrayList<>();  // Система счисления ввода перед ними
+        List<Boolean> usable = new ArrayList<>();   // Можно ли начать с них задачу
+        List<Long> marks = new ArrayList<>();       // Оценка позиции в истории сразу после сброса
+        List<Integer> open = new ArrayList<>();     // Используемые границы по возрастанию оценки позиции
+        starts.add(0);
+        radixes.add(10);
+        usable.add(true);
+        marks.add(0L);
+
+        // Оценки снизу: position — позиция относительно границ (без отсечения нулем),
+        // minPosition — позиция в истории, minRedoable — шаги, доступные для повтора.
+        // Реальное расстояние от любой границы до текущей позиции не меньше position - mark.
+        long position = 0;
+        long minPosition = 0;
+        long minRedoable = 0;
+
+        int end = lines.size();
+        int radix = 10;
+        boolean awaitingRadix = false;
+        for (int i = 0; i < lines.size(); i++) {
+            String text = lines.get(i).trim();
+            if (text.isEmpty()) {
+                continue;
+            }
+            if (awaitingRadix) {
+                awaitingRadix = false;
+                radix = parseRadix(text, radix);
+                continue;
+            }
+            char command = Character.toLowerCase(text.charAt(0));
+            if (text.length() == 1 && command == 'q') {
+                end = i; // Строки после выхода не выполняются
+                break;
+            }
+            if (text.length() == 1 && command == 'c') {
+                // Сброс всегда записывается в историю и отбрасывает отмененные шаги
+                position++;
+                minPosition++;
+                minRedoable = 0;
+                starts.add(i);
+                radixes.add(radix);
+                usable.add(true);
+                marks.add(position);
+                open.add(starts.size() - 1);
+            } else if (text.length() == 1 && command == 'i') {
+                awaitingRadix = true;
+            } else if ((command == 'u' || command == 'r') && BatchProcessor.isHistoryCommand(text)) {
+                // Больше шагов, чем строк в сценарии, в истории быть не может
+                long steps = Math.min(parseSteps(text), lines.size());
+                if (command == 'u') {
+                    minRedoable += Math.min(steps, minPosition);
+                    minPosition = Math.max(0, minPosition - steps);
+                    position -= steps;
+                    // Отмена могла опуститься ниже этих границ: задачи с них начинать нельзя
+                    while (!open.isEmpty() && marks.get(open.get(open.size() - 1)) > position) {
+                        usable.set(open.remove(open.size() - 1), false);
+                    }
+                } else {
+                    long redone = Math.min(steps, minRedoable);
+                    position += redone;
+                    minPosition += redone;
+                    minRedoable -= redone;
+                }
+            } else {
+                // Строка могла стать шагом и отбросить отмененные шаги
+                minRedoable = 0;
+                if (isCertainStep(text, radix)) {
+                    position++;
+                    minPosition++;
+                }
+            }
+        }
+
+        int taskLines = Math.max(MIN_TASK_LINES, end / (parallelism * TASKS_PER_THREAD));
+        List<int[]> tasks = new ArrayList<>();
+        int taskStart = 0;
+        int taskRadix = 10;
+        for (int k = 1; k < starts.size(); k++) {
+            int start = starts.get(k);
+            if (usable.get(k) && start - taskStart >= taskLines) {
+                tasks.add(new int[] {taskStart, start, taskRadix});
+                taskStart = start;
+                taskRadix = radixes.get(k);
+            }
+        }
+        if (taskStart < end || tasks.isEmpty()) {
+            tasks.add(new int[] {taskStart, end, taskRadix});
+        }
+        return tasks;
+    }
+
+    /**
+     * Проверяет, что строка наверняка станет шагом истории при любом состоянии
+     * калькулятора: это число из не более чем 15 цифр с необязательным знаком,
+     * которое разбирается и как первое число, и как операнд сложения или вычитания.
+     * Остальные строки (умножение, деление, выражения) могут завершиться ошибкой.
+     */
+    private static boolean isCertainStep(String text, int radix) {
+        int start = text.charAt(0) == '+' || text.charAt(0) == '-' ? 1 : 0;
+        int digits = text.length() - start;
+        if (digits < 1 || digits > 15) {
+            return false;
+        }
+        for (int i = start; i < text.length(); i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || digit >= radix) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Определяет систему счисления так же, как BatchProcessor для строки после i.
+     */
+    private static int parseRadix(String text, int current) {
+        try {
+            int radix = Integer.parseInt(text);
+            return radix == 2 || radix == 8 || radix == 10 || radix == 16 ? radix : current;
+        } catch (NumberFormatException e) {
+            return current;
+        }
+    }
+
+    /**
+     * Определяет количество шагов команды отмены так же, как BatchProcessor.
+     */
+    private static long parseSteps(String text) {
+        String count = text.substring(1).trim();
+        try {
+            return count.isEmpty() ? 1 : Long.parseLong(count);
+        } catch (NumberFormatException e) {
+            return 0; // Команда завершится ошибкой и ничего не отменит
+        }
+    }
+
+    /**
+     * Читает сценарий в память построчно.
+     */
+    private static List<String> readLines(Reader in) throws IOException {
+        BufferedReader reader = in instanceof BufferedReader
+            ? (BufferedReader) in
+            : new BufferedReader(in, 1 << 16);
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    /**
+     * Результат группы сессий.
+     */
+    private static final class Result {
+        final StringBuilder output; // Строки результатов
+        final List<String> log;     // Строки лога
+
+        Result(StringBuilder output, List<String> log) {
+            this.output = output;
+            this.log = log;
+        }
+    }
+}
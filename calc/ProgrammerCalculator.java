@@ -0,0 +1,222 @@
+package calc;
+
+/**
+ * Класс ProgrammerCalculator — калькулятор режима программиста: память
+ * хранит целое слово размером 8, 16, 32 или 64 бита со знаком. Кроме
+ * арифметики поддерживаются побитовые AND/OR/XOR/NOT, сдвиги, вращения,
+ * остаток от деления и подсчет установленных бит (BitOperation).
+ *
+ * Операции выбираются по коду из таблицы BitOperation и выполняются над long;
+ * после каждой операции результат приводится к размеру слова (старшие биты
+ * отбрасываются, как при переполнении регистра). Представления в системах
+ * 2, 8 и 16 выводят все биты слова (RadixFormatter.renderWord).
+ *
+ * Методы с параметром double, унаследованные от Calculator, отбрасывают
+ * дробную часть операнда.
+ */
+public class ProgrammerCalculator extends Calculator {
+    private long value;        // Текущее значение в памяти (знаково расширенное слово)
+    private int wordSize;      // Размер слова в битах
+    private int currentRadix;  // Текущая система счисления
+
+    /**
+     * Конструктор класса. Размер слова — 64 бита, система счисления — десятичная.
+     */
+    public ProgrammerCalculator() {
+        this(64);
+    }
+
+    /**
+     * Конструктор класса с заданным размером слова.
+     * @param wordSize размер слова в битах (8, 16, 32 или 64)
+     * @throws IllegalArgumentException если размер слова не поддерживается
+     */
+    public ProgrammerCalculator(int wordSize) {
+        super();
+        checkWordSize(wordSize);
+        this.wordSize = wordSize;
+        this.currentRadix = 10;
+    }
+
+    /**
+     * Устанавливает текущую систему счисления.
+     * @param radix система счисления (2, 8, 10 или 16)
+     * @throws IllegalArgumentException если система счисления не поддерживается
+     */
+    public void setRadix(int radix) {
+        if (radix != 2 && radix != 8 && radix != 10 && radix != 16) {
+            throw new IllegalArgumentException("Поддерживаются только системы счисления 2, 8, 10 и 16");
+        }
+        this.currentRadix = radix;
+    }
+
+    /**
+     * Возвращает размер слова.
+     * @return размер слова в битах
+     */
+    public int getWordSize() {
+        return wordSize;
+    }
+
+    /**
+     * Устанавливает размер слова. Значение в памяти приводится к новому размеру.
+     * @param wordSize размер слова в битах (8, 16, 32 или 64)
+     * @throws IllegalArgumentException если размер слова не поддерживается
+     */
+    public void setWordSize(int wordSize) {
+        checkWordSize(wordSize);
+        this.wordSize = wordSize;
+        this.value = normalize(value);
+    }
+
+    /**
+     * Возвращает значение из памяти калькулятора.
+     * @return текущее значение
+     */
+    public long getValue() {
+        return value;
+    }
+
+    /**
+     * Устанавливает значение в память калькулятора, приводя его к размеру слова.
+     * @param value новое значение
+     */
+    public void setValue(long value) {
+        this.value = normalize(value);
+        isFirstOperation = false;
+    }
+
+    @Override
+    public double getMemory() {
+        return value;
+    }
+
+    @Override
+    public void setMemory(double value) {
+        setValue((long) value);
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.value = 0;
+    }
+
+    /**
+     * Выполняет операцию по ее коду.
+     * @param code код операции BitOperation
+     * @param operand операнд (для унарных операций не используется)
+     * @return результат, приведенный к размеру слова
+     * @throws IllegalArgumentException если код операции неизвестен
+     * @throws ArithmeticException при делении или остатке от деления на ноль
+     */
+    public long apply(int code, long operand) {
+        BitOperation operation = BitOperation.fromCode(code);
+        if (operation == null) {
+            throw new IllegalArgumentException("Неизвестный код операции: " + code);
+        }
+        return apply(operation, operand);
+    }
+
+    /**
+     * Выполняет операцию над памятью.
+     * @param operation операция
+     * @param operand операнд (для унарных операций не используется)
+     * @return результат, приведенный к размеру слова
+     * @throws ArithmeticException при делении или остатке от деления на ноль
+     */
+    public long apply(BitOperation operation, long operand) {
+        if (operand == 0 && (operation == BitOperation.DIVIDE || operation == BitOperation.MOD)) {
+            CalculatorMetrics.recordDivisionByZero();
+            throw new ArithmeticException("Деление на ноль невозможно!");
+        }
+        value = normalize(operation.apply(value, operand, wordSize));
+        return value;
+    }
+
+    @Override
+    public double add(double num) {
+        return apply(BitOperation.ADD, (long) num);
+    }
+
+    @Override
+    public double subtract(double num) {
+        return apply(BitOperation.SUBTRACT, (long) num);
+    }
+
+    @Override
+    public double multiply(double num) {
+        return apply(BitOperation.MULTIPLY, (long) num);
+    }
+
+    @Override
+    public double divide(double num) throws ArithmeticException {
+        return apply(BitOperation.DIVIDE, (long) num);
+    }
+
+    @Override
+    public String formatResult(double number) {
+        return format(normalize((long) number), currentRadix, wordSize);
+    }
+
+    /**
+     * Форматирует значение памяти в текущей системе счисления.
+     * @return представление текущего значения
+     */
+    public String formatValue() {
+        return format(value, currentRadix, wordSize);
+    }
+
+    /**
+     * Форматирует слово в заданной системе счисления без усечения разрядов.
+     * @param value значение слова, знаково расширенное до long
+     * @param radix система счисления (2, 8, 10 или 16)
+     * @param wordSize размер слова в битах
+     * @return представление слова
+     */
+    public static String format(long value, int radix, int wordSize) {
+        char[] chars = new char[65];
+        int length = RadixFormatter.renderWord(value, wordSize, radix, chars, 0);
+        return new String(chars, 0, length);
+    }
+
+    /**
+     * Разбирает целое число в заданной системе счисления. В системах 2, 8 и 16
+     * допускаются все 64 бита (FFFFFFFFFFFFFFFF — это -1), знак минус допускается
+     * в любой системе.
+     * @param input строковое представление числа
+     * @param radix основание системы счисления (2, 8, 10 или 16)
+     * @return значение
+     * @throws NumberFormatException если строка не является целым числом в этой системе
+     */
+    public static long parseNumber(String input, int radix) throws NumberFormatException {
+        String text = input.trim();
+        try {
+            if (radix == 10) {
+                return Long.parseLong(text);
+            }
+            boolean negative = text.startsWith("-");
+            long parsed = Long.parseUnsignedLong(negative ? text.substring(1) : text, radix);
+            return negative ? -parsed : parsed;
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("Неверное целое число в " + radix + "-ичной системе: " + input.trim());
+        }
+    }
+
+    /**
+     * Приводит значение к размеру слова со знаковым расширением.
+     */
+    private long normalize(long result) {
+        int unused = 64 - wordSize;
+        return result << unused >> unused;
+    }
+
+    /**
+     * Проверяет размер слова.
+     */
+    private static void checkWordSize(int wordSize) {
+        if (wordSize != 8 && wordSize != 16 && wordSize != 32 && wordSize != 64) {
+            throw new IllegalArgumentException("Поддерживаются только размеры слова 8, 16, 32 и 64 бита");
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package calc;
+
+/**
+ * Класс ProgrammerUI — интерактивный интерфейс режима программиста
+ * (ProgrammerCalculator): целые слова 8–64 бита, побитовые операции,
+ * сдвиги и вращения. Символ операции во вводе разбирается через таблицу
+ * BitOperation, операция выполняется по коду — без сравнения строк.
+ * Результат выводится во всех системах счисления с учетом размера слова.
+ * Операции режима программиста в лог не записываются: формат лога
+ * рассчитан на дробные числа.
+ */
+import java.util.NoSuchElementException;
+
+public class ProgrammerUI {
+    private final KeyboardInput input;           // Обработка пользовательского ввода
+    private final ConsoleOutput console;         // Вывод на консоль
+    private final ProgrammerCalculator calculator; // Вычисления над словами
+    private int inputRadix;                      // Текущая система счисления для ввода
+
+    /**
+     * Конструктор класса.
+     * @param wordSize начальный размер слова в битах (8, 16, 32 или 64)
+     * @throws IllegalArgumentException если размер слова не поддерживается
+     */
+    public ProgrammerUI(int wordSize) {
+        boolean terminal = CalculatorUI.isTerminal();
+        this.console = new ConsoleOutput(System.out, terminal);
+        this.input = terminal
+            ? new KeyboardInput(console)
+            : new KeyboardInput(new ConsoleLineReader(System.in, console), console);
+        this.calculator = new ProgrammerCalculator(wordSize);
+        this.inputRadix = 10;
+    }
+
+    /**
+     * Отображает меню режима программиста.
+     */
+    private void showMenu() {
+        console.println("\nКалькулятор: режим программиста");
+        console.println("Введите операцию и число вместе, например:");
+        console.println("+5, -3, *2, /4 : Арифметика над целыми числами");
+        console.println("%7  : Остаток от деления");
+        console.println("&FF, |1, ^F0 : Побитовые И, ИЛИ, исключающее ИЛИ");
+        console.println("<<4, >>4, >>>4 : Сдвиг влево, арифметический и логический сдвиг вправо");
+        console.println("rol 8, ror 8 : Вращение влево и вправо");
+        console.println("~   : Побитовое НЕ");
+        console.println("pop : Количество установленных бит");
+        console.println("Также доступны команды:");
+        console.println("c   : Сброс результата");
+        console.println("i   : Изменить систему счисления ввода");
+        console.println("w   : Изменить размер слова (8, 16, 32, 64)");
+        console.println("q   : Выход");
+    }
+
+    /**
+     * Отображает значение памяти во всех системах счисления.
+     */
+    private void displayResult() {
+        long value = calculator.getValue();
+        int bits = calculator.getWordSize();
+        console.printf("%nРезультат (%d бит):%n", bits);
+        console.println("Десятичная: " + ProgrammerCalculator.format(value, 10, bits));
+        console.println("Двоичная: " + ProgrammerCalculator.format(value, 2, bits));
+        console.println("Восьмеричная: " + ProgrammerCalculator.format(value, 8, bits));
+        console.println("Шестнадцатеричная: " + ProgrammerCalculator.format(value, 16, bits));
+    }
+
+    /**
+     * Позволяет пользователю выбрать систему счисления для ввода чисел.
+     */
+    private void selectNumberSystem() {
+        while (true) {
+            int radix = input.readInt("\nВведите основание системы счисления ввода (2, 8, 10, 16): ");
+            if (radix == 2 || radix == 8 || radix == 10 || radix == 16) {
+                inputRadix = radix;
+                calculator.setRadix(radix);
+                console.printf("Система счисления ввода установлена на %d-ичную%n", radix);
+                return;
+            }
+            console.println("Ошибка: неверное основание системы счисления!");
+        }
+    }
+
+    /**
+     * Позволяет пользователю выбрать размер слова.
+     */
+    private void selectWordSize() {
+        while (true) {
+            int bits = input.readInt("\nВведите размер слова (8, 16, 32, 64): ");
+            if (bits == 8 || bits == 16 || bits == 32 || bits == 64) {
+                calculator.setWordSize(bits);
+                console.printf("Размер слова установлен на %d бит%n", bits);
+                return;
+            }
+            console.println("Ошибка: неверный размер слова!");
+        }
+    }
+
+    /**
+     * Разбирает строку с операцией и выполняет ее.
+     * Строка без символа операции считается сложением, как в CalculatorUI.
+     * @param text строка ввода без пробелов по краям
+     */
+    private void execute(String text) {
+        BitOperation operation = BitOperation.match(text, 0);
+        int operandStart = operation == null ? 0 : operation.getSymbol().length();
+        if (operation == null) {
+            operation = BitOperation.ADD;
+        }
+        String operandText = text.substring(operandStart).trim();
+        long operand = 0;
+        if (operation.isUnary()) {
+            if (!operandText.isEmpty()) {
+                console.println("Ошибка: операция " + operation.getSymbol() + " не принимает число!");
+                return;
+            }
+        } else {
+            operand = ProgrammerCalculator.parseNumber(operandText, inputRadix);
+        }
+        calculator.apply(operation.getCode(), operand);
+        displayResult();
+    }
+
+    /**
+     * Основной метод работы режима программиста.
+     */
+    public void run() {
+        boolean running = true;
+        showMenu();
+        try {
+            selectNumberSystem();
+        } catch (NoSuchElementException e) {
+            running = false; // Ввод закончился
+        }
+
+        while (running) {
+            try {
+                if (calculator.isFirstOperation()) {
+                    String numberStr = input.readLine(
+                        String.format("\nВведите первое число (в %d-ичной системе): ", inputRadix));
+                    if (numberStr == null) {
+                        running = false;
+                        continue;
+                    }
+                    calculator.setValue(ProgrammerCalculator.parseNumber(numberStr, inputRadix));
+                    displayResult();
+                }
+
+                String userInput = input.readLine("\nВведите операцию и число (например: &FF, <<4, rol 8, ~) "
+                    + "или команду (c/i/w/q): ");
+                if (userInput == null || userInput.trim().equalsIgnoreCase("q")) {
+                    running = false;
+                    continue;
+                }
+
+                userInput = userInput.trim();
+                if (userInput.equalsIgnoreCase("c")) {
+                    calculator.reset();
+                } else if (userInput.equalsIgnoreCase("i")) {
+                    selectNumberSystem();
+                } else if (userInput.equalsIgnoreCase("w")) {
+                    selectWordSize();
+                    displayResult();
+                } else {
+                    execute(userInput);
+                }
+            } catch (NumberFormatException e) {
+                console.println("Ошибка: " + e.getMessage());
+            } catch (NoSuchElementException e) {
+                running = false; // Ввод закончился во время выбора
+            } catch (Exception e) {
+                console.println("Произошла ошибка: " + e.getMessage());
+            }
+        }
+
+        console.println("Спасибо за использование калькулятора!");
+        input.close();
+        console.flush();
+    }
+}
@@ -0,0 +1,314 @@
+package calc;
+
+import java.io.IOException;
+import java.math.RoundingMode;
+
+/**
+ * Класс RadixFormatter формирует представления числа в двоичной, восьмеричной,
+ * десятичной и шестнадцатеричной системах счисления за один проход.
+ * Все цифры записываются в переиспользуемый массив символов по таблице цифр,
+ * без создания промежуточных строк. Повторный вызов format с тем же числом
+ * ничего не пересчитывает, поэтому вывод на экран и запись в лог одной
+ * операции используют одни и те же готовые представления.
+ *
+ * Целая часть берется как (long) number и выводится через renderWord
+ * как 64-битное слово: в системах 2, 8 и 16 отрицательные числа выводятся
+ * в 64-битном дополнительном коде (как Long.toBinaryString и т.п.), числа
+ * за пределами long — как Long.MAX_VALUE или Long.MIN_VALUE.
+ * Дробная часть выводится четырьмя цифрами в той же системе счисления
+ * с округлением. Числа от -1 до 0 во всех системах выводятся со знаком
+ * минус (-0.1000 в двоичной для -0.5).
+ *
+ * Если задан RadixViewCache, представления берутся из него и только
+ * копируются в буфер, а не вычисляются заново.
+ */
+public class RadixFormatter {
+    private static final char[] DIGITS = "0123456789ABCDEF".toCharArray(); // Таблица цифр
+    private static final int[] RADIXES = {2, 8, 10, 16};                    // Поддерживаемые основания
+    private static final int FRACTION_DIGITS = 4;                           // Цифр после точки
+    static final int VIEW_CAPACITY = 72;                                    // Максимальная длина представления
+
+    private final char[] buffer;   // Общий буфер для всех представлений
+    private final int[] lengths;   // Длина каждого представления в буфере
+    private final RadixViewCache viewCache; // Кэш готовых представлений (может быть null)
+    private long lastBits;         // Битовое представление последнего числа
+    private boolean hasValue;      // Есть ли в буфере готовые представления
+
+    /**
+     * Конструктор класса. Выделяет буфер под четыре представления.
+     */
+    public RadixFormatter() {
+        this(null);
+    }
+
+    /**
+     * Конструктор класса с кэшем представлений.
+     * @param viewCache кэш готовых представлений или null, если кэш не нужен
+     */
+    public RadixFormatter(RadixViewCache viewCache) {
+        this.buffer = new char[VIEW_CAPACITY * RADIXES.length];
+        this.lengths = new int[RADIXES.length];
+        this.viewCache = viewCache;
+    }
+
+    /**
+     * Формирует представления числа во всех поддерживаемых системах счисления.
+     * Если число совпадает с предыдущим, повторных вычислений не происходит.
+     * @param number число для форматирования
+     */
+    public void format(double number) {
+        long bits = Double.doubleToRawLongBits(number);
+        if (hasValue && bits == lastBits) {
+            return;
+        }
+        long started = CalculatorMetrics.start();
+        if (viewCache != null) {
+            String[] views = viewCache.views(number);
+            for (int i = 0; i < RADIXES.length; i++) {
+                views[i].getChars(0, views[i].length(), buffer, i * VIEW_CAPACITY);
+                lengths[i] = views[i].length();
+            }
+        } else {
+            for (int i = 0; i < RADIXES.length; i++) {
+                int start = i * VIEW_CAPACITY;
+                lengths[i] = render(number, RADIXES[i], buffer, start) - start;
+            }
+        }
+        lastBits = bits;
+        hasValue = true;
+        CalculatorMetrics.recordFormat(started);
+    }
+
+    /**
+     * Добавляет готовое представление последнего числа в StringBuilder.
+     * @param radix система счисления (2, 8, 10 или 16)
+     * @param out приемник символов
+     * @return переданный приемник
+     */
+    public StringBuilder appendTo(int radix, StringBuilder out) {
+        int index = indexOf(radix);
+        return out.append(buffer, index * VIEW_CAPACITY, lengths[index]);
+    }
+
+    /**
+     * Добавляет готовое представление последнего числа в произвольный приемник.
+     * @param radix система счисления (2, 8, 10 или 16)
+     * @param out приемник символов
+     * @throws IOException если приемник не смог принять символы
+     */
+    public void appendTo(int radix, Appendable out) throws IOException {
+        int index = indexOf(radix);
+        int start = index * VIEW_CAPACITY;
+        int end = start + lengths[index];
+        for (int i = start; i < end; i++) {
+            out.append(buffer[i]);
+        }
+    }
+
+    /**
+     * Возвращает готовое представление последнего числа в виде строки.
+     * @param radix система счисления (2, 8, 10 или 16)
+     * @return представление числа
+     */
+    public String toString(int radix) {
+        int index = indexOf(radix);
+        return new String(buffer, index * VIEW_CAPACITY, lengths[index]);
+    }
+
+    /**
+     * Записывает представление числа в заданной системе счисления в массив символов.
+     * В массиве должно быть не меньше VIEW_CAPACITY (72) свободных символов
+     * начиная с pos.
+     *
+     * @param number число для форматирования
+     * @param radix система счисления (2, 8, 10 или 16)
+     * @param dst массив для записи
+     * @param pos позиция, с которой начинается запись
+     * @return позиция сразу после последнего записанного символа
+     * @throws IllegalArgumentException если система счисления не поддерживается
+     */
+    public static int render(double number, int radix, char[] dst, int pos) {
+        if (radix != 2 && radix != 8 && radix != 10 && radix != 16) {
+            throw new IllegalArgumentException("Поддерживаются только системы счисления 2, 8, 10 и 16");
+        }
+        long intPart = (long) number;
+        double fraction = Math.abs(number - intPart);
+
+        // Дробная часть в виде целого числа из FRACTION_DIGITS цифр
+        int scale = radix * radix * radix * radix;
+        // Для NaN и чисел за пределами long дробная часть не выводится
+        int scaled = fraction < 1 ? (int) Math.round(fraction * scale) : 0;
+        if (scaled >= scale) {
+            // Округление перешло в целую часть
+            scaled = 0;
+            intPart += number < 0 ? -1 : 1;
+        }
+
+        if (number < 0 && intPart == 0 && scaled != 0) {
+            // Целая часть 0 не хранит знак, поэтому у чисел от -1 до 0 он выводится явно
+            dst[pos++] = '-';
+        }
+        pos = renderWord(intPart, Long.SIZE, radix, dst, pos);
+
+        if (scaled != 0) {
+            dst[pos++] = '.';
+            for (int i = FRACTION_DIGITS - 1; i >= 0; i--) {
+                dst[pos + i] = DIGITS[scaled % radix];
+                scaled /= radix;
+            }
+            pos += FRACTION_DIGITS;
+        }
+        return pos;
+    }
+
+    /**
+     * Записывает целое слово режима программиста в заданной системе счисления
+     * без усечения до 32 бит. В системах 2, 8 и 16 выводятся все биты слова
+     * как беззнаковое число (отрицательные — в дополнительном коде размера слова),
+     * в десятичной — число со знаком.
+     * В массиве должно быть не меньше 65 свободных символов начиная с pos.
+     *
+     * @param value значение слова, знаково расширенное до long
+     * @param bits размер слова в битах (8, 16, 32 или 64)
+     * @param radix система счисления (2, 8, 10 или 16)
+     * @param dst массив для записи
+     * @param pos позиция, с которой начинается запись
+     * @return позиция сразу после последнего записанного символа
+     * @throws IllegalArgumentException если система счисления не поддерживается
+     */
+    public static int renderWord(long value, int bits, int radix, char[] dst, int pos) {
+        indexOf(radix);
+        if (radix == 10) {
+            long magnitude = value;
+            if (value < 0) {
+                dst[pos++] = '-';
+                if (value == Long.MIN_VALUE) {
+                    // 2^63 не помещается в long: старшая цифра 9 выводится отдельно
+                    dst[pos++] = '9';
+                    magnitude = -(value + 9_000_000_000_000_000_000L);
+                } else {
+                    magnitude = -value;
+                }
+            }
+            // Деление со знаком на константу JIT заменяет умножением
+            int digits = 1;
+            for (long t = magnitude; t >= 10; t /= 10) {
+                digits++;
+            }
+            int end = pos + digits;
+            for (int i = end - 1; i >= pos; i--) {
+                dst[i] = DIGITS[(int) (magnitude % 10)];
+                magnitude /= 10;
+            }
+            return end;
+        }
+        long word = value & BitOperation.mask(bits);
+        int shift = Integer.numberOfTrailingZeros(radix);
+        int digitMask = radix - 1;
+        int used = Math.max(64 - Long.numberOfLeadingZeros(word), 1);
+        int end = pos + (used + shift - 1) / shift;
+        for (int i = end - 1; i >= pos; i--) {
+            dst[i] = DIGITS[(int) word & digitMask];
+            word >>>= shift;
+        }
+        return end;
+    }
+
+    /**
+     * Записывает число с фиксированной точкой (FixedPointCalculator) в заданной
+     * системе счисления. Знак выводится минусом во всех системах. Количество
+     * цифр после точки постоянно: scale в десятичной системе и столько, сколько
+     * нужно для различения 10^scale значений, в системах 2, 8 и 16; последняя
+     * цифра округляется до ближайшей (половина — до четной).
+     * В массиве должно быть не меньше 128 свободных символов начиная с pos.
+     *
+     * @param units значение в единицах 10^-scale
+     * @param scale количество десятичных знаков после точки (от 0 до 18)
+     * @param radix система счисления (2, 8, 10 или 16)
+     * @param dst массив для записи
+     * @param pos позиция, с которой начинается запись
+     * @return позиция сразу после последнего записанного символа
+     * @throws IllegalArgumentException если система счисления или масштаб не поддерживаются
+     */
+    public static int renderFixed(long units, int scale, int radix, char[] dst, int pos) {
+        indexOf(radix);
+        long unit = FixedPointCalculator.powerOfTen(FixedPointCalculator.checkScale(scale));
+        long magnitude = units;
+        if (units < 0) {
+            dst[pos++] = '-';
+            magnitude = -units; // Для Long.MIN_VALUE остается 2^63 без знака
+        }
+        long intPart = Long.divideUnsigned(magnitude, unit);
+        long fraction = magnitude - intPart * unit;
+        if (scale == 0) {
+            return renderUnsignedLong(intPart, radix, dst, pos);
+        }
+
+        int digits;
+        if (radix == 10) {
+            digits = scale;
+        } else {
+            // Цифры radix^digits >= 10^scale; дробь переводится с округлением
+            int shift = Integer.numberOfTrailingZeros(radix);
+            int bits = 64 - Long.numberOfLeadingZeros(unit - 1);
+            digits = (bits + shift - 1) / shift;
+            int fractionBits = digits * shift;
+            fraction = FixedPointCalculator.divideRounded(fraction >>> (64 - fractionBits),
+                fraction << fractionBits, unit, false, RoundingMode.HALF_EVEN);
+            if (fraction == 1L << fractionBits) {
+                fraction = 0; // Округление перешло в целую часть
+                intPart++;
+            }
+        }
+        pos = renderUnsignedLong(intPart, radix, dst, pos);
+        dst[pos++] = '.';
+        int end = pos + digits;
+        for (int i = end - 1; i >= pos; i--) {
+            dst[i] = DIGITS[(int) (fraction % radix)];
+            fraction /= radix;
+        }
+        return end;
+    }
+
+    /**
+     * Записывает беззнаковое 64-битное число в заданной системе счисления.
+     * @param value число (беззнаковое)
+     * @param radix система счисления
+     * @param dst массив для записи
+     * @param pos позиция начала записи
+     * @return позиция после записи
+     */
+    private static int renderUnsignedLong(long value, int radix, char[] dst, int pos) {
+        int digits = 1;
+        for (long t = value; Long.compareUnsigned(t, radix) >= 0; t = Long.divideUnsigned(t, radix)) {
+            digits++;
+        }
+        int end = pos + digits;
+        for (int i = end - 1; i >= pos; i--) {
+            dst[i] = DIGITS[(int) Long.remainderUnsigned(value, radix)];
+            value = Long.divideUnsigned(value, radix);
+        }
+        return end;
+    }
+
+    /**
+     * Возвращает индекс представления для системы счисления.
+     * @param radix система счисления
+     * @return индекс в массиве RADIXES
+     * @throws IllegalArgumentException если система счисления не поддерживается
+     */
+    private static int indexOf(int radix) {
+        switch (radix) {
+            case 2:
+                return 0;
+            case 8:
+                return 1;
+            case 10:
+                return 2;
+            case 16:
+                return 3;
+            default:
+                throw new IllegalArgumentException("Поддерживаются только системы счисления 2, 8, 10 и 16");
+        }
+    }
+}
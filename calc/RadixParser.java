@@ -0,0 +1,398 @@
+package calc;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Класс RadixParser разбирает числа в системах счисления 2, 8, 10 и 16
+ * прямо из фрагмента CharSequence или ByteBuffer (смещение и длина),
+ * не создавая промежуточных строк.
+ *
+ * Формат: [пробелы][+|-]цифры[.цифры][пробелы]; в десятичной системе
+ * допускается также показатель степени (1.5e3). Дробная часть разрешена
+ * во всех системах счисления. Целые числа разбираются без потерь во всем
+ * диапазоне long; в системах 2, 8 и 16 число, не помещающееся в 64 бита,
+ * считается ошибкой, а в десятичной системе результат просто округляется
+ * до double, как в Double.parseDouble.
+ *
+ * Ошибки не выбрасываются: parse возвращает false, а причину можно узнать
+ * через getError и errorMessage. Объект хранит результат последнего разбора,
+ * поэтому его удобно переиспользовать в цикле; он не потокобезопасен.
+ */
+public final class RadixParser {
+    public static final int OK = 0;                // Разбор успешен
+    public static final int EMPTY = 1;             // Нет ни одной цифры
+    public static final int INVALID_CHARACTER = 2; // Недопустимый символ
+    public static final int OVERFLOW = 3;          // Число не помещается в 64 бита
+    public static final int UNSUPPORTED_RADIX = 4; // Неподдерживаемая система счисления
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    }; // Степени десяти, точно представимые в double
+    private static final int MAX_MANTISSA_DIGITS = 18; // Значащих цифр, помещающихся в long
+    private static final int MAX_FRACTION_BITS = 62;   // Сколько бит дробной части учитывать
+    private static final int MAX_EXPONENT = 100_000;   // Ограничение показателя при накоплении
+
+    private CharSequence chars; // Источник-строка текущего разбора
+    private ByteBuffer bytes;   // Источник-буфер текущего разбора (ASCII)
+    private int offset;         // Начало разбираемого фрагмента
+
+    private double value;       // Результат как double
+    private long longValue;     // Результат как long (если целый)
+    private boolean integral;   // Результат — целое число, точно представленное в long
+    private int error;          // Код ошибки последнего разбора
+    private int errorPosition;  // Позиция ошибки относительно начала фрагмента
+
+    /**
+     * Разбирает всю последовательность символов.
+     * @param text текст числа
+     * @param radix система счисления (2, 8, 10 или 16)
+     * @return true, если число разобрано успешно
+     */
+    public boolean parse(CharSequence text, int radix) {
+        return parse(text, 0, text.length(), radix);
+    }
+
+    /**
+     * Разбирает фрагмент последовательности символов.
+     * @param text текст, содержащий число
+     * @param offset начало фрагмента
+     * @param length длина фрагмента
+     * @param radix система счисления (2, 8, 10 или 16)
+     * @return true, если число разобрано успешно
+     */
+    public boolean parse(CharSequence text, int offset, int length, int radix) {
+        long start = CalculatorMetrics.start();
+        this.chars = text;
+        boolean parsed = parseRange(offset, offset + length, radix);
+        this.chars = null;
+        CalculatorMetrics.recordParse(start, parsed);
+        return parsed;
+    }
+
+    /**
+     * Разбирает фрагмент буфера с символами ASCII (UTF-8 без многобайтовых символов).
+     * Позиция и граница буфера не изменяются.
+     *
+     * @param buffer буфер, содержащий число
+     * @param offset абсолютный индекс начала фрагмента
+     * @param length длина фрагмента в байтах
+     * @param radix система счисления (2, 8, 10 или 16)
+     * @return true, если число разобрано успешно
+     */
+    public boolean parse(ByteBuffer buffer, int offset, int length, int radix) {
+        long start = CalculatorMetrics.start();
+        this.bytes = buffer;
+        boolean parsed = parseRange(offset, offset + length, radix);
+        this.bytes = null;
+        CalculatorMetrics.recordParse(start, parsed);
+        return parsed;
+    }
+
+    /**
+     * Возвращает результат последнего успешного разбора.
+     * @return значение числа
+     */
+    public double doubleValue() {
+        return value;
+    }
+
+    /**
+     * Возвращает результат последнего успешного разбора как long.
+     * Имеет смысл, только если isIntegral() возвращает true.
+     * @return значение числа
+     */
+    public long longValue() {
+        return longValue;
+    }
+
+    /**
+     * Проверяет, что последнее число целое и точно представлено в long.
+     * @return true для целого числа без дробной части и показателя степени
+     */
+    public boolean isIntegral() {
+        return integral;
+    }
+
+    /**
+     * Возвращает код ошибки последнего разбора.
+     * @return OK, EMPTY, INVALID_CHARACTER, OVERFLOW или UNSUPPORTED_RADIX
+     */
+    public int getError() {
+        return error;
+    }
+
+    /**
+     * Возвращает позицию ошибки относительно начала фрагмента (с нуля).
+     * @return позиция ошибки
+     */
+    public int getErrorPosition() {
+        return errorPosition;
+    }
+
+    /**
+     * Формирует текст сообщения об ошибке последнего разбора.
+     * @return сообщение или null, если ошибки не было
+     */
+    public String errorMessage() {
+        switch (error) {
+            case EMPTY:
+                return "Число не содержит цифр";
+            case INVALID_CHARACTER:
+                return "Недопустимый символ в позиции " + (errorPosition + 1);
+            case OVERFLOW:
+                return "Число не помещается в 64 бита";
+            case UNSUPPORTED_RADIX:
+                return "Поддерживаются только системы счисления 2, 8, 10 и 16";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Разбирает диапазон [from, to) текущего источника.
+     */
+    private boolean parseRange(int from, int to, int radix) {
+        this.offset = from;
+        this.integral = false;
+        int shift;
+        switch (radix) {
+            case 2:
+                shift = 1;
+                break;
+            case 8:
+                shift = 3;
+                break;
+            case 10:
+                shift = 0;
+                break;
+            case 16:
+                shift = 4;
+                break;
+            default:
+                return fail(UNSUPPORTED_RADIX, from);
+        }
+
+        while (from < to && at(from) <= ' ') {
+            from++;
+        }
+        while (to > from && at(to - 1) <= ' ') {
+            to--;
+        }
+        boolean negative = false;
+        if (from < to && (at(from) == '-' || at(from) == '+')) {
+            negative = at(from) == '-';
+            from++;
+        }
+        return shift == 0
+            ? parseDecimal(from, to, negative)
+            : parsePowerOfTwo(from, to, shift, negative);
+    }
+
+    /**
+     * Разбирает число в системе 2, 8 или 16: биты цифр сдвигаются прямо в long.
+     */
+    private boolean parsePowerOfTwo(int pos, int to, int shift, boolean negative) {
+        int radix = 1 << shift;
+        int start = pos;
+        long magnitude = 0;
+        int digits = 0;
+        int d;
+        while (pos < to && (d = digit(at(pos), radix)) >= 0) {
+            if ((magnitude >>> (64 - shift)) != 0) {
+                return fail(OVERFLOW, start);
+            }
+            magnitude = (magnitude << shift) | d;
+            digits++;
+            pos++;
+        }
+
+        long fraction = 0;
+        int fractionBits = 0;
+        boolean hasFraction = false;
+        if (pos < to && at(pos) == '.') {
+            pos++;
+            while (pos < to && (d = digit(at(pos), radix)) >= 0) {
+                // Цифры младше 2^-62 не влияют на double и отбрасываются
+                if (fractionBits + shift <= MAX_FRACTION_BITS) {
+                    fraction = (fraction << shift) | d;
+                    fractionBits += shift;
+                }
+                hasFraction |= d != 0;
+                digits++;
+                pos++;
+            }
+        }
+        if (pos < to) {
+            return fail(INVALID_CHARACTER, pos);
+        }
+        if (digits == 0) {
+            return fail(EMPTY, start);
+        }
+        // Допустимо от -2^63 до 2^63 - 1
+        if (magnitude < 0 && !(negative && magnitude == Long.MIN_VALUE)) {
+            return fail(OVERFLOW, start);
+        }
+
+        double absolute = magnitude == Long.MIN_VALUE ? 0x1p63 : (double) magnitude;
+        if (fractionBits != 0) {
+            absolute += Math.scalb((double) fraction, -fractionBits);
+        }
+        longValue = negative ? -magnitude : magnitude;
+        value = negative ? -absolute : absolute;
+        integral = !hasFraction;
+        error = OK;
+        return true;
+    }
+
+    /**
+     * Разбирает десятичное число. Если мантисса помещается в 53 бита, а показатель
+     * не больше 22, результат получается одним точным умножением или делением
+     * (быстрый путь Клингера); иначе используется Double.parseDouble.
+     */
+    private boolean parseDecimal(int pos, int to, boolean negative) {
+        int start = pos;
+        long mantissa = 0;      // Первые значащие цифры
+        int significant = 0;    // Количество цифр в mantissa
+        int exponent = 0;       // Десятичный показатель для mantissa
+        boolean truncated = false;
+        long exact = 0;         // Целая часть, накопленная со знаком минус, как в Long.parseLong
+        boolean exactOverflow = false;
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        int digits = 0;
+        int d;
+
+        while (pos < to && (d = digit(at(pos), 10)) >= 0) {
+            if (significant < MAX_MANTISSA_DIGITS) {
+                if (mantissa != 0 || d != 0) {
+                    mantissa = mantissa * 10 + d;
+                    significant++;
+                }
+            } else {
+                truncated |= d != 0;
+                exponent++;
+            }
+            if (!exactOverflow) {
+                if (exact < limit / 10 || exact * 10 < limit + d) {
+                    exactOverflow = true;
+                } else {
+                    exact = exact * 10 - d;
+                }
+            }
+            digits++;
+            pos++;
+        }
+
+        boolean hasFraction = false;
+        if (pos < to && at(pos) == '.') {
+            pos++;
+            while (pos < to && (d = digit(at(pos), 10)) >= 0) {
+                if (significant < MAX_MANTISSA_DIGITS) {
+                    if (mantissa != 0 || d != 0) {
+                        mantissa = mantissa * 10 + d;
+                        significant++;
+                    }
+                    exponent--;
+                } else {
+                    truncated |= d != 0;
+                }
+                hasFraction |= d != 0;
+                digits++;
+                pos++;
+            }
+        }
+        if (digits == 0) {
+            return fail(pos < to ? INVALID_CHARACTER : EMPTY, pos < to ? pos : start);
+        }
+
+        boolean hasExponent = false;
+        if (pos < to && (at(pos) == 'e' || at(pos) == 'E')) {
+            pos++;
+            boolean negativeExponent = false;
+            if (pos < to && (at(pos) == '-' || at(pos) == '+')) {
+                negativeExponent = at(pos) == '-';
+                pos++;
+            }
+            int exponentStart = pos;
+            int exponentValue = 0;
+            while (pos < to && (d = digit(at(pos), 10)) >= 0) {
+                if (exponentValue < MAX_EXPONENT) {
+                    exponentValue = exponentValue * 10 + d;
+                }
+                pos++;
+            }
+            if (pos == exponentStart) {
+                return fail(INVALID_CHARACTER, pos);
+            }
+            exponent += negativeExponent ? -exponentValue : exponentValue;
+            hasExponent = true;
+        }
+        if (pos < to) {
+            return fail(INVALID_CHARACTER, pos);
+        }
+
+        double absolute;
+        if (mantissa == 0) {
+            absolute = 0;
+        } else if (!truncated && mantissa < (1L << 53) && exponent >= -22 && exponent <= 22) {
+            absolute = exponent >= 0
+                ? mantissa * POWERS_OF_TEN[exponent]
+                : mantissa / POWERS_OF_TEN[-exponent];
+        } else {
+            absolute = Math.abs(Double.parseDouble(slice(start, to)));
+        }
+        value = negative ? -absolute : absolute;
+        integral = !hasFraction && !hasExponent && !exactOverflow;
+        longValue = negative ? exact : -exact;
+        error = OK;
+        return true;
+    }
+
+    /**
+     * Возвращает символ источника по абсолютному индексу.
+     */
+    private int at(int index) {
+        return chars != null ? chars.charAt(index) : bytes.get(index) & 0xFF;
+    }
+
+    /**
+     * Возвращает значение цифры или -1, если символ не является цифрой системы.
+     */
+    private static int digit(int c, int radix) {
+        int d;
+        if (c >= '0' && c <= '9') {
+            d = c - '0';
+        } else if (c >= 'a' && c <= 'f') {
+            d = c - 'a' + 10;
+        } else if (c >= 'A' && c <= 'F') {
+            d = c - 'A' + 10;
+        } else {
+            return -1;
+        }
+        return d < radix ? d : -1;
+    }
+
+    /**
+     * Копирует фрагмент источника в строку (только для медленного пути разбора).
+     */
+    private String slice(int from, int to) {
+        if (chars != null) {
+            return chars.subSequence(from, to).toString();
+        }
+        char[] text = new char[to - from];
+        for (int i = from; i < to; i++) {
+            text[i - from] = (char) (bytes.get(i) & 0xFF);
+        }
+        return new String(text);
+    }
+
+    /**
+     * Запоминает ошибку разбора.
+     */
+    private boolean fail(int code, int position) {
+        error = code;
+        errorPosition = position - offset;
+        integral = false;
+        return false;
+    }
+}
@@ -0,0 +1,221 @@
+package calc;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Класс RadixViewCache запоминает готовые представления чисел в системах
+ * счисления 2, 8, 10 и 16, чтобы часто повторяющиеся результаты (небольшие
+ * счетчики, круглые числа, одинаковые итоги) не форматировались заново.
+ *
+ * Целые числа из заданного небольшого диапазона хранятся в таблице; каждое
+ * форматируется при первом обращении, поэтому создание кэша не замедляет
+ * запуск программы. Остальные числа хранятся в LRU-кэше ограниченного
+ * размера, ключом служит битовое представление double. Кэш ведет счетчики
+ * попаданий, промахов и вытеснений; он потокобезопасен, поэтому один
+ * экземпляр может использоваться несколькими сессиями.
+ */
+public class RadixViewCache {
+    static final int[] RADIXES = {2, 8, 10, 16}; // Порядок представлений в массиве
+    private static final int MAX_TABLE_SIZE = 1 << 20; // Ограничение размера таблицы
+    private static final int DEFAULT_TABLE_MIN = -256;  // Диапазон таблицы по умолчанию
+    private static final int DEFAULT_TABLE_MAX = 1024;
+    private static final int DEFAULT_CAPACITY = 4096;   // Размер LRU-кэша по умолчанию
+
+    private final int tableMin;                  // Наименьшее число в таблице
+    private final AtomicReferenceArray<String[]> table; // Представления целых чисел из диапазона
+    private final Map<Long, String[]> cache;     // LRU-кэш остальных чисел
+    private final int capacity;                  // Максимальный размер LRU-кэша
+    private final LongAdder tableHits = new LongAdder(); // Попадания в таблицу
+    private final LongAdder hits = new LongAdder();      // Попадания в LRU-кэш
+    private final LongAdder misses = new LongAdder();    // Промахи
+    private final LongAdder evictions = new LongAdder(); // Вытесненные записи
+
+    /**
+     * Общий экземпляр с параметрами по умолчанию, создается при первом обращении.
+     */
+    private static final class DefaultHolder {
+        static final RadixViewCache INSTANCE =
+            new RadixViewCache(DEFAULT_TABLE_MIN, DEFAULT_TABLE_MAX, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Конструктор класса.
+     * @param tableMin наименьшее целое число в таблице
+     * @param tableMax наибольшее целое число в таблице
+     *                 (tableMax меньше tableMin — таблица не нужна)
+     * @param capacity максимальное количество чисел в LRU-кэше
+     * @throws IllegalArgumentException если размеры заданы неверно
+     */
+    public RadixViewCache(int tableMin, int tableMax, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Размер кэша должен быть положительным");
+        }
+        long tableSize = Math.max((long) tableMax - tableMin + 1, 0);
+        if (tableSize > MAX_TABLE_SIZE) {
+            throw new IllegalArgumentException("Таблица не может содержать больше " + MAX_TABLE_SIZE + " чисел");
+        }
+        this.tableMin = tableMin;
+        this.table = new AtomicReferenceArray<>((int) tableSize);
+        this.capacity = capacity;
+        this.cache = new LinkedHashMap<Long, String[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, String[]> eldest) {
+                if (size() > RadixViewCache.this.capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Возвращает общий экземпляр: таблица от -256 до 1024 и кэш на 4096 чисел.
+     * @return общий кэш представлений
+     */
+    public static RadixViewCache getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Возвращает представление числа в заданной системе счисления.
+     * @param number число
+     * @param radix система счисления (2, 8, 10 или 16)
+     * @return представление числа
+     * @throws IllegalArgumentException если система счисления не поддерживается
+     */
+    public String get(double number, int radix) {
+        return views(number)[indexOf(radix)];
+    }
+
+    /**
+     * Возвращает представления числа во всех системах счисления
+     * в порядке BIN, OCT, DEC, HEX. Массив общий — изменять его нельзя.
+     * @param number число
+     * @return массив из четырех представлений
+     */
+    public String[] views(double number) {
+        int intValue = (int) number;
+        long index = (long) intValue - tableMin;
+        if (index >= 0 && index < table.length() && intValue == number
+                && Double.doubleToRawLongBits(number) != Double.doubleToRawLongBits(-0.0)) {
+            tableHits.increment();
+            String[] views = table.get((int) index);
+            if (views == null) {
+                // Гонка безопасна: оба потока получат одинаковые представления
+                views = render(intValue, new char[RadixFormatter.VIEW_CAPACITY]);
+                table.set((int) index, views);
+            }
+            return views;
+        }
+
+        Long key = Double.doubleToRawLongBits(number);
+        String[] views;
+        synchronized (cache) {
+            views = cache.get(key);
+        }
+        if (views != null) {
+            hits.increment();
+            return views;
+        }
+        misses.increment();
+        views = render(number, new char[RadixFormatter.VIEW_CAPACITY]);
+        synchronized (cache) {
+            cache.put(key, views);
+        }
+        return views;
+    }
+
+    /**
+     * Возвращает количество попаданий в таблицу небольших целых чисел.
+     * @return количество попаданий
+     */
+    public long getTableHits() {
+        return tableHits.sum();
+    }
+
+    /**
+     * Возвращает количество попаданий в LRU-кэш.
+     * @return количество попаданий
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Возвращает количество промахов (чисел, отформатированных заново).
+     * @return количество промахов
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Возвращает количество записей, вытесненных из LRU-кэша.
+     * @return количество вытеснений
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Возвращает текущее количество чисел в LRU-кэше.
+     * @return размер кэша
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Очищает LRU-кэш и счетчики. Таблица небольших чисел сохраняется.
+     */
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+        tableHits.reset();
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Кэш представлений: таблица %d, попаданий %d, промахов %d, вытеснений %d, размер %d/%d",
+            getTableHits(), getHits(), getMisses(), getEvictions(), size(), capacity);
+    }
+
+    /**
+     * Возвращает номер представления для системы счисления.
+     */
+    static int indexOf(int radix) {
+        switch (radix) {
+            case 2:
+                return 0;
+            case 8:
+                return 1;
+            case 10:
+                return 2;
+            case 16:
+                return 3;
+            default:
+                throw new IllegalArgumentException("Поддерживаются только системы счисления 2, 8, 10 и 16");
+        }
+    }
+
+    /**
+     * Форматирует число во всех системах счисления.
+     */
+    private static String[] render(double number, char[] buffer) {
+        String[] views = new String[RADIXES.length];
+        for (int i = 0; i < RADIXES.length; i++) {
+            views[i] = new String(buffer, 0, RadixFormatter.render(number, RADIXES[i], buffer, 0));
+        }
+        return views;
+    }
+}
@@ -0,0 +1,353 @@
+package calc;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Класс RollingFileWriter — режим CustomFileWriter с ротацией лога.
+ * Запись идет в текущий файл (например, calculator_log.txt), который держится
+ * открытым. Когда он превышает заданный размер или количество строк, файл
+ * закрывается и переименовывается в пронумерованный сегмент
+ * (calculator_log.txt.1, .2, ...), а запись продолжается в новый файл.
+ *
+ * Закрытые сегменты сжимаются в gzip (calculator_log.txt.1.gz) фоновым
+ * потоком; хранится не больше заданного количества сегментов, самые старые
+ * удаляются. Прочитать весь лог по порядку позволяет RollingLogReader.
+ *
+ * Запись защищена ReentrantLock, а не synchronized: лог разделяют
+ * виртуальные потоки сервера сессий, а виртуальный поток, который ждет
+ * монитор или блокируется на файловой записи внутри него, на Java 21–23
+ * занимает поток-носитель.
+ */
+public class RollingFileWriter extends CustomFileWriter {
+    static final String COMPRESSED_SUFFIX = ".gz";      // Расширение сжатого сегмента
+    private static final String TEMP_SUFFIX = ".tmp";   // Расширение незавершенного сжатия
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+    private final Path activePath;          // Текущий файл лога
+    private final long maxBytes;            // Размер, после которого файл ротируется (0 — без ограничения)
+    private final long maxLines;            // Строк, после которых файл ротируется (0 — без ограничения)
+    private final int maxSegments;          // Сколько закрытых сегментов хранить
+    private final ExecutorService compressor; // Фоновый поток сжатия и удаления сегментов
+    private final ReentrantLock lock;       // Блокировка записи и ротации
+    private OutputStream out;               // Открытый текущий файл
+    private long bytes;                     // Размер текущего файла
+    private long lines;                     // Строк в текущем файле
+    private int nextSegment;                // Номер следующего сегмента
+
+    /**
+     * Конструктор класса. Открывает текущий файл на добавление и продолжает
+     * нумерацию уже существующих сегментов.
+     *
+     * @param filePath путь к текущему файлу лога
+     * @param maxBytes размер файла в байтах, после которого начинается новый сегмент (0 — не ограничен)
+     * @param maxLines количество строк, после которого начинается новый сегмент (0 — не ограничено)
+     * @param maxSegments сколько закрытых сегментов хранить (не меньше 1)
+     * @throws IOException если файл не удалось открыть
+     * @throws IllegalArgumentException если параметры заданы неверно
+     */
+    public RollingFileWriter(String filePath, long maxBytes, long maxLines, int maxSegments) throws IOException {
+        super(filePath);
+        if (maxBytes < 0 || maxLines < 0 || (maxBytes == 0 && maxLines == 0)) {
+            throw new IllegalArgumentException("Нужно задать положительный размер или количество строк сегмента");
+        }
+        if (maxSegments < 1) {
+            throw new IllegalArgumentException("Нужно хранить хотя бы один сегмент");
+        }
+        this.activePath = Paths.get(filePath).toAbsolutePath();
+        this.maxBytes = maxBytes;
+        this.maxLines = maxLines;
+        this.maxSegments = maxSegments;
+        this.lock = new ReentrantLock();
+        this.compressor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "calculator-log-compressor");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        int last = 0;
+        for (Segment segment : listSegments(activePath)) {
+            last = Math.max(last, segment.number);
+            if (!segment.compressed) {
+                // Сегмент, не сжатый до прошлого завершения программы
+                compressor.execute(() -> compress(segment.path));
+            }
+        }
+        this.nextSegment = last + 1;
+        compressor.execute(this::applyRetention);
+
+        if (Files.exists(activePath)) {
+            this.bytes = Files.size(activePath);
+            this.lines = maxLines > 0 ? countLines(activePath) : 0;
+        }
+        this.out = new FileOutputStream(activePath.toFile(), true);
+    }
+
+    @Override
+    public void writeLine(String text) throws IOException {
+        long start = CalculatorMetrics.start();
+        lock.lock();
+        try {
+            append(text);
+        } catch (IOException e) {
+            CalculatorMetrics.recordLogFailure();
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+        CalculatorMetrics.recordLogWrite(start, 1);
+    }
+
+    @Override
+    public void appendLines(List<String> lines) throws IOException {
+        long start = CalculatorMetrics.start();
+        lock.lock();
+        try {
+            for (String line : lines) {
+                append(line);
+            }
+        } catch (IOException e) {
+            CalculatorMetrics.recordLogFailure();
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+        CalculatorMetrics.recordLogWrite(start, lines.size());
+    }
+
+    /**
+     * Заменяет весь лог списком строк: удаляет закрытые сегменты
+     * и перезаписывает текущий файл (с ротацией, если строк слишком много).
+     *
+     * @param lines список строк для записи
+     * @throws IOException если произошла ошибка при записи в файл
+     */
+    @Override
+    public void writeLines(List<String> lines) throws IOException {
+        lock.lock();
+        try {
+            out.close();
+            awaitCompression();
+            for (Segment segment : listSegments(activePath)) {
+                Files.deleteIfExists(segment.path);
+                Files.deleteIfExists(LogIndex.indexPath(segment.path));
+            }
+            Files.deleteIfExists(LogIndex.indexPath(activePath));
+            out = new FileOutputStream(activePath.toFile(), false);
+            bytes = 0;
+            this.lines = 0;
+            appendLines(lines);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Закрывает текущий файл, дожидается окончания фонового сжатия
+     * и останавливает фоновый поток.
+     * @throws IOException если файл не удалось закрыть
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            out.close();
+            awaitCompression();
+            compressor.shutdown();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Дописывает строку, при необходимости начиная новый сегмент.
+     * Вызывается под блокировкой lock.
+     */
+    private void append(String text) throws IOException {
+        byte[] data = text.getBytes(StandardCharsets.UTF_8);
+        long size = data.length + LINE_SEPARATOR.length;
+        if (bytes > 0 && ((maxBytes > 0 && bytes + size > maxBytes) || (maxLines > 0 && lines >= maxLines))) {
+            rotate();
+        }
+        // Строка и перевод строки одним вызовом, чтобы запись не разрывалась
+        byte[] line = new byte[(int) size];
+        System.arraycopy(data, 0, line, 0, data.length);
+        System.arraycopy(LINE_SEPARATOR, 0, line, data.length, LINE_SEPARATOR.length);
+        out.write(line);
+        bytes += size;
+        lines++;
+    }
+
+    /**
+     * Закрывает текущий файл, переименовывает его в сегмент и открывает новый.
+     * Индекс LogIndex текущего файла переходит к сегменту.
+     */
+    private void rotate() throws IOException {
+        out.close();
+        Path segment = Paths.get(activePath + "." + nextSegment++);
+        Files.move(activePath, segment, StandardCopyOption.ATOMIC_MOVE);
+        Path index = LogIndex.indexPath(activePath);
+        if (Files.exists(index)) {
+            Files.move(index, LogIndex.indexPath(segment), StandardCopyOption.ATOMIC_MOVE);
+        }
+        out = new FileOutputStream(activePath.toFile(), false);
+        bytes = 0;
+        lines = 0;
+        compressor.execute(() -> compress(segment));
+        compressor.execute(this::applyRetention);
+    }
+
+    /**
+     * Сжимает сегмент в gzip: сначала во временный файл, затем переименовывает
+     * его и удаляет исходный, чтобы читатель всегда видел целый сегмент.
+     */
+    private void compress(Path segment) {
+        if (!Files.exists(segment)) {
+            return; // Сегмент уже удален ограничением количества
+        }
+        Path target = Paths.get(segment + COMPRESSED_SUFFIX);
+        Path temp = Paths.get(target + TEMP_SUFFIX);
+        try {
+            try (InputStream in = Files.newInputStream(segment);
+                 OutputStream gzip = new GZIPOutputStream(Files.newOutputStream(temp), 1 << 16)) {
+                in.transferTo(gzip);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(segment);
+        } catch (NoSuchFileException e) {
+            // Сегмент удален во время сжатия
+            deleteQuietly(temp);
+        } catch (IOException e) {
+            CalculatorMetrics.recordLogFailure();
+            System.err.println("Ошибка при сжатии сегмента лога " + segment + ": " + e.getMessage());
+            deleteQuietly(temp);
+        }
+    }
+
+    /**
+     * Удаляет временный файл сжатия, не сообщая об ошибке:
+     * при следующей попытке он будет перезаписан.
+     */
+    private static void deleteQuietly(Path temp) {
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException ignored) {
+            // Файл будет перезаписан при следующей попытке
+        }
+    }
+
+    /**
+     * Удаляет самые старые сегменты сверх заданного количества вместе с их индексами.
+     */
+    private void applyRetention() {
+        try {
+            List<Segment> segments = listSegments(activePath);
+            for (int i = 0; i < segments.size() - maxSegments; i++) {
+                Files.deleteIfExists(segments.get(i).path);
+                Files.deleteIfExists(LogIndex.indexPath(segments.get(i).path));
+            }
+        } catch (IOException e) {
+            System.err.println("Ошибка при удалении старых сегментов лога: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Ждет, пока фоновый поток выполнит все поставленные задачи.
+     */
+    private void awaitCompression() throws IOException {
+        try {
+            compressor.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Ожидание сжатия лога прервано", e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Считает строки в файле.
+     */
+    private static long countLines(Path path) throws IOException {
+        long count = 0;
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(path)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Закрытый сегмент лога.
+     */
+    static final class Segment {
+        final int number;         // Номер сегмента (чем больше, тем новее)
+        final Path path;          // Путь к файлу сегмента
+        final boolean compressed; // Сжат ли сегмент
+
+        Segment(int number, Path path, boolean compressed) {
+            this.number = number;
+            this.path = path;
+            this.compressed = compressed;
+        }
+    }
+
+    /**
+     * Находит закрытые сегменты текущего файла лога, от старых к новым.
+     * Если сегмент существует и в сжатом, и в исходном виде (сжатие
+     * не закончено), возвращается исходный.
+     *
+     * @param activePath путь к текущему файлу лога
+     * @return список сегментов по возрастанию номера
+     * @throws IOException если каталог не удалось прочитать
+     */
+    static List<Segment> listSegments(Path activePath) throws IOException {
+        Path directory = activePath.toAbsolutePath().getParent();
+        String prefix = activePath.getFileName() + ".";
+        TreeMap<Integer, Segment> segments = new TreeMap<>();
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*")) {
+            for (Path file : files) {
+                String suffix = file.getFileName().toString().substring(prefix.length());
+                boolean compressed = suffix.endsWith(COMPRESSED_SUFFIX);
+                String number = compressed ? suffix.substring(0, suffix.length() - COMPRESSED_SUFFIX.length()) : suffix;
+                if (number.isEmpty() || number.length() > 9 || !number.chars().allMatch(Character::isDigit)) {
+                    continue; // Временные и посторонние файлы
+                }
+                int n = Integer.parseInt(number);
+                Segment existing = segments.get(n);
+                if (existing == null || existing.compressed) {
+                    segments.put(n, new Segment(n, file, compressed));
+                }
+            }
+        }
+        return new ArrayList<>(segments.values());
+    }
+}
@@ -0,0 +1,108 @@
+package calc;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Класс RollingLogReader читает лог, записанный RollingFileWriter, как один
+ * файл: сначала закрытые сегменты от старых к новым (сжатые распаковываются
+ * на лету), затем текущий файл. Список сегментов определяется при открытии.
+ */
+public class RollingLogReader implements Closeable {
+    private final List<Path> files;   // Файлы лога по порядку
+    private int next;                 // Номер следующего файла
+    private BufferedReader current;   // Читаемый файл
+
+    /**
+     * Конструктор класса.
+     * @param filePath путь к текущему файлу лога
+     * @throws IOException если каталог лога не удалось прочитать
+     */
+    public RollingLogReader(String filePath) throws IOException {
+        Path activePath = Paths.get(filePath).toAbsolutePath();
+        this.files = new ArrayList<>();
+        for (RollingFileWriter.Segment segment : RollingFileWriter.listSegments(activePath)) {
+            files.add(segment.path);
+        }
+        files.add(activePath);
+    }
+
+    /**
+     * Читает следующую строку лога, переходя между сегментами.
+     * @return строка без символа перевода строки или null, если лог закончился
+     * @throws IOException если произошла ошибка чтения
+     */
+    public String readLine() throws IOException {
+        while (true) {
+            if (current == null && !openNext()) {
+                return null;
+            }
+            String line = current.readLine();
+            if (line != null) {
+                return line;
+            }
+            current.close();
+            current = null;
+        }
+    }
+
+    /**
+     * Передает все строки лога приемнику, по одной на строку.
+     * @param out приемник строк
+     * @throws IOException если произошла ошибка чтения или записи
+     */
+    public void copyTo(Appendable out) throws IOException {
+        String line;
+        while ((line = readLine()) != null) {
+            out.append(line).append(System.lineSeparator());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+        next = files.size();
+    }
+
+    /**
+     * Открывает следующий существующий файл.
+     * @return false, если файлов больше нет
+     */
+    private boolean openNext() throws IOException {
+        while (next < files.size()) {
+            Path file = files.get(next++);
+            InputStream in;
+            try {
+                in = Files.newInputStream(file);
+            } catch (NoSuchFileException e) {
+                // Сегмент был сжат после открытия: читаем сжатую версию
+                Path compressed = Paths.get(file + RollingFileWriter.COMPRESSED_SUFFIX);
+                if (file.toString().endsWith(RollingFileWriter.COMPRESSED_SUFFIX) || !Files.exists(compressed)) {
+                    continue;
+                }
+                file = compressed;
+                in = Files.newInputStream(file);
+            }
+            if (file.toString().endsWith(RollingFileWriter.COMPRESSED_SUFFIX)) {
+                in = new GZIPInputStream(in, 1 << 16);
+            }
+            current = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+            return true;
+        }
+        return false;
+    }
+}
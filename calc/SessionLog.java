@@ -0,0 +1,393 @@
+package calc;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Класс SessionLog сохраняет состояние сессии калькулятора (память, ожидание
+ * первого числа и систему счисления ввода) так, чтобы оно пережило аварийное
+ * завершение процесса.
+ *
+ * Каждое изменение состояния дописывается в журнал упреждающей записи (WAL)
+ * записью из 16 байт в порядке little-endian: код (byte), параметр (byte),
+ * резерв (short), значение — точные биты double — и CRC32 первых 12 байт.
+ * Коды 0–4 совпадают с BinaryJournalWriter (ввод числа и Operation.getCode()),
+ * 5 — сброс, 6 — смена системы счисления (параметр — основание),
+ * 7 — состояние целиком после отмены или повтора (параметр — ожидание первого числа).
+ * Заголовок журнала из 16 байт: сигнатура, версия и номер первой записи.
+ *
+ * Каждые SNAPSHOT_INTERVAL записей и при закрытии состояние записывается
+ * в снимок (файл с суффиксом .snap, 32 байта с CRC32): сначала во временный
+ * файл, который сбрасывается на диск и атомарно заменяет прежний снимок,
+ * после чего журнал очищается. Поэтому восстановление — чтение снимка
+ * и повтор не более SNAPSHOT_INTERVAL записей — не зависит от длины сессии.
+ * Запись с неверной контрольной суммой или неполная запись в конце журнала
+ * (процесс прервался во время записи) отбрасывается.
+ *
+ * Записи передаются в файл при каждом flush(), поэтому переживают завершение
+ * процесса; на диск принудительно сбрасываются только снимки.
+ */
+public class SessionLog implements Closeable {
+    static final int MAGIC = 0x574C4143;          // Сигнатура журнала "CALW"
+    static final int SNAPSHOT_MAGIC = 0x534C4143; // Сигнатура снимка "CALS"
+    static final int VERSION = 1;                 // Версия формата
+    static final int HEADER_SIZE = 16;            // Размер заголовка журнала в байтах
+    static final int RECORD_SIZE = 16;            // Размер записи журнала в байтах
+    static final int SNAPSHOT_SIZE = 32;          // Размер снимка в байтах
+    static final String SNAPSHOT_SUFFIX = ".snap"; // Суффикс файла снимка
+    public static final int SNAPSHOT_INTERVAL = 1024; // Через сколько записей делается снимок
+
+    private static final byte SET_CODE = 0;   // Ввод числа (как в BinaryJournalWriter)
+    private static final byte RESET_CODE = 5; // Сброс калькулятора
+    private static final byte RADIX_CODE = 6; // Смена системы счисления ввода
+    private static final byte STATE_CODE = 7; // Состояние после отмены или повтора
+    private static final int BUFFER_RECORDS = 64; // Сколько записей копить до передачи в файл
+
+    private final Path snapshotPath;  // Файл снимка
+    private final FileChannel channel; // Файл журнала
+    private final ByteBuffer buffer;  // Записи, еще не переданные в файл
+    private final CRC32 crc;          // Контрольная сумма записей
+    private final boolean recovered;  // Было ли найдено сохраненное состояние
+    private long sequence;            // Номер следующей записи
+    private long sinceSnapshot;       // Записей после последнего снимка
+    private double memory;            // Значение памяти калькулятора
+    private boolean firstOperation;   // Ожидает ли калькулятор первое число
+    private int inputRadix;           // Система счисления ввода
+
+    /**
+     * Конструктор класса. Открывает журнал сессии, при необходимости создавая
+     * его, и восстанавливает последнее состояние из снимка и журнала.
+     *
+     * @param filePath путь к файлу журнала (снимок — тот же путь с суффиксом .snap)
+     * @throws IOException если файлы не удалось прочитать или они повреждены
+     */
+    public SessionLog(String filePath) throws IOException {
+        this.snapshotPath = Paths.get(filePath + SNAPSHOT_SUFFIX);
+        this.buffer = ByteBuffer.allocate(RECORD_SIZE * BUFFER_RECORDS).order(ByteOrder.LITTLE_ENDIAN);
+        this.crc = new CRC32();
+        this.firstOperation = true;
+        this.inputRadix = 10;
+
+        boolean found = readSnapshot();
+        this.channel = FileChannel.open(Paths.get(filePath),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            found |= replay();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        this.recovered = found;
+    }
+
+    /**
+     * Проверяет, было ли восстановлено состояние предыдущей сессии.
+     * @return true, если найден снимок или записи журнала
+     */
+    public boolean isRecovered() {
+        return recovered;
+    }
+
+    /**
+     * Возвращает сохраненное значение памяти.
+     * @return значение памяти
+     */
+    public double getMemory() {
+        return memory;
+    }
+
+    /**
+     * Проверяет, ожидает ли калькулятор первое число.
+     * @return true, если следующая операция — ввод первого числа
+     */
+    public boolean isFirstOperation() {
+        return firstOperation;
+    }
+
+    /**
+     * Возвращает сохраненную систему счисления ввода.
+     * @return основание системы счисления
+     */
+    public int getInputRadix() {
+        return inputRadix;
+    }
+
+    /**
+     * Записывает ввод числа (первого числа сессии или значения выражения).
+     * @param value введенное значение
+     * @throws IOException если произошла ошибка при записи в файл
+     */
+    public void appendSet(double value) throws IOException {
+        append(SET_CODE, 0, value);
+    }
+
+    /**
+     * Записывает выполненную операцию.
+     * @param operation операция
+     * @param number операнд
+     * @throws IOException если произошла ошибка при записи в файл
+     */
+    public void append(Operation operation, double number) throws IOException {
+        append((byte) operation.getCode(), 0, number);
+    }
+
+    /**
+     * Записывает сброс калькулятора.
+     * @throws IOException если произошла ошибка при записи в файл
+     */
+    public void appendReset() throws IOException {
+        append(RESET_CODE, 0, 0);
+    }
+
+    /**
+     * Записывает смену системы счисления ввода.
+     * @param radix новое основание системы счисления
+     * @throws IOException если произошла ошибка при записи в файл
+     */
+    public void appendRadix(int radix) throws IOException {
+        append(RADIX_CODE, radix, 0);
+    }
+
+    /**
+     * Записывает состояние калькулятора целиком (после отмены или повтора).
+     * @param value значение памяти
+     * @param first ожидает ли калькулятор первое число
+     * @throws IOException если произошла ошибка при записи в файл
+     */
+    public void appendState(double value, boolean first) throws IOException {
+        append(STATE_CODE, first ? 1 : 0, value);
+    }
+
+    /**
+     * Передает накопленные записи в файл и, если пора, делает снимок.
+     * @throws IOException если произошла ошибка при записи в файл
+     */
+    public void flush() throws IOException {
+        writeBuffer();
+        if (sinceSnapshot >= SNAPSHOT_INTERVAL) {
+            snapshot();
+        }
+    }
+
+    /**
+     * Дописывает накопленные записи, сохраняет снимок и закрывает журнал,
+     * чтобы следующий запуск не повторял записи.
+     * @throws IOException если произошла ошибка при записи или закрытии
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            writeBuffer();
+            if (sinceSnapshot > 0) {
+                snapshot();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Добавляет запись в буфер и применяет ее к сохраняемому состоянию.
+     */
+    private void append(byte code, int parameter, double value) throws IOException {
+        if (buffer.remaining() < RECORD_SIZE) {
+            writeBuffer();
+        }
+        int start = buffer.position();
+        buffer.put(code).put((byte) parameter).putShort((short) 0).putDouble(value);
+        crc.reset();
+        crc.update(buffer.array(), start, RECORD_SIZE - 4);
+        buffer.putInt((int) crc.getValue());
+        apply(code, parameter, value);
+        sequence++;
+        sinceSnapshot++;
+    }
+
+    /**
+     * Изменяет сохраняемое состояние так же, как изменилось состояние калькулятора.
+     */
+    private void apply(byte code, int parameter, double value) throws IOException {
+        switch (code) {
+            case SET_CODE:
+                memory = value;
+                firstOperation = false;
+                break;
+            case 1:
+                memory += value;
+                break;
+            case 2:
+                memory -= value;
+                break;
+            case 3:
+                memory *= value;
+                break;
+            case 4:
+                memory /= value;
+                break;
+            case RESET_CODE:
+                memory = 0;
+                firstOperation = true;
+                break;
+            case RADIX_CODE:
+                inputRadix = parameter;
+                break;
+            case STATE_CODE:
+                memory = value;
+                firstOperation = parameter != 0;
+                break;
+            default:
+                throw new IOException("Неизвестная запись журнала сессии: код " + code);
+        }
+    }
+
+    /**
+     * Передает накопленные записи в файл.
+     */
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Атомарно заменяет снимок текущим состоянием и очищает журнал.
+     */
+    private void snapshot() throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(SNAPSHOT_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        data.putInt(SNAPSHOT_MAGIC).putInt(VERSION).putLong(sequence).putDouble(memory)
+            .put((byte) (firstOperation ? 1 : 0)).put((byte) inputRadix).putShort((short) 0);
+        crc.reset();
+        crc.update(data.array(), 0, SNAPSHOT_SIZE - 4);
+        data.putInt((int) crc.getValue()).flip();
+
+        Path temp = Paths.get(snapshotPath + ".tmp");
+        try (FileChannel out = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (data.hasRemaining()) {
+                out.write(data);
+            }
+            out.force(true);
+        }
+        Files.move(temp, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        // Сначала очищается журнал, затем меняется номер первой записи:
+        // при сбое между ними журнал пуст и состояние берется из снимка
+        channel.truncate(HEADER_SIZE);
+        writeHeader(sequence);
+        channel.position(HEADER_SIZE);
+        sinceSnapshot = 0;
+    }
+
+    /**
+     * Читает снимок, если он есть.
+     * @return true, если снимок прочитан
+     */
+    private boolean readSnapshot() throws IOException {
+        if (!Files.exists(snapshotPath)) {
+            return false;
+        }
+        byte[] bytes = Files.readAllBytes(snapshotPath);
+        ByteBuffer data = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        if (bytes.length != SNAPSHOT_SIZE || data.getInt() != SNAPSHOT_MAGIC || data.getInt() != VERSION
+                || !checksumMatches(bytes, 0, SNAPSHOT_SIZE - 4)) {
+            throw new IOException("Снимок сессии поврежден: " + snapshotPath);
+        }
+        sequence = data.getLong();
+        memory = data.getDouble();
+        firstOperation = data.get() != 0;
+        inputRadix = data.get();
+        return true;
+    }
+
+    /**
+     * Повторяет записи журнала после снимка, отбрасывает неполный или
+     * поврежденный хвост и готовит журнал к дописыванию.
+     * @return true, если повторена хотя бы одна запись
+     */
+    private boolean replay() throws IOException {
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            // Новый журнал или сбой при создании заголовка
+            channel.truncate(0);
+            writeHeader(sequence);
+            channel.position(HEADER_SIZE);
+            return false;
+        }
+
+        ByteBuffer data = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        while (data.hasRemaining() && channel.read(data, data.position()) > 0) {
+        }
+        data.flip();
+        if (data.getInt() != MAGIC || data.getInt() != VERSION) {
+            throw new IOException("Файл не является журналом сессии калькулятора");
+        }
+        long first = data.getLong();
+        if (first > sequence) {
+            throw new IOException("Журнал сессии не соответствует снимку: нет записей с "
+                + sequence + " по " + (first - 1));
+        }
+
+        long number = first;
+        boolean applied = false;
+        while (data.remaining() >= RECORD_SIZE && checksumMatches(data.array(), data.position(), RECORD_SIZE - 4)) {
+            byte code = data.get();
+            int parameter = data.get();
+            data.getShort();
+            double value = data.getDouble();
+            data.getInt();
+            if (number >= sequence) { // Записи до снимка уже учтены в нем
+                apply(code, parameter, value);
+                sequence = number + 1;
+                sinceSnapshot++;
+                applied = true;
+            }
+            number++;
+        }
+
+        if (number < sequence) {
+            // Сбой после записи снимка, но до очистки журнала
+            channel.truncate(HEADER_SIZE);
+            writeHeader(sequence);
+        } else if (data.position() < size) {
+            channel.truncate(data.position());
+        }
+        channel.position(channel.size());
+        return applied;
+    }
+
+    /**
+     * Записывает заголовок журнала.
+     * @param first номер первой записи журнала
+     */
+    private void writeHeader(long first) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putLong(first).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    /**
+     * Проверяет CRC32 области, за которой следует сохраненная контрольная сумма.
+     */
+    private boolean checksumMatches(byte[] bytes, int offset, int length) {
+        crc.reset();
+        crc.update(bytes, offset, length);
+        int stored = (bytes[offset + length] & 0xFF)
+            | (bytes[offset + length + 1] & 0xFF) << 8
+            | (bytes[offset + length + 2] & 0xFF) << 16
+            | (bytes[offset + length + 3] & 0xFF) << 24;
+        return stored == (int) crc.getValue();
+    }
+}